@@ -18,6 +18,12 @@
  */
 package org.apache.commons.weaver.ant;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.weaver.WeaveMetrics;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.Task;
@@ -28,6 +34,7 @@ import org.apache.tools.ant.types.Reference;
  */
 public abstract class AbstractWeaverTask extends Task {
     private WeaverSettings settings;
+    private File report;
 
     /**
      * Create a new {@link AbstractWeaverTask} instance.
@@ -56,6 +63,39 @@ public abstract class AbstractWeaverTask extends Task {
         return settings;
     }
 
+    /**
+     * Gets the {@code report} file.
+     * @return {@link File}
+     * @since 2.1
+     */
+    public File getReport() {
+        return report;
+    }
+
+    /**
+     * Sets the {@code report} file, to which the metrics of the run are written as JSON.
+     * @param report {@link File}
+     * @since 2.1
+     */
+    public void setReport(final File report) {
+        this.report = report;
+    }
+
+    /**
+     * Log a summary of the specified metrics and write them to any configured {@code report} file.
+     * @param metrics to report
+     * @throws IOException on error writing the report
+     * @since 2.1
+     */
+    protected void report(final WeaveMetrics metrics) throws IOException {
+        log(metrics.getSummary(), Project.MSG_INFO);
+        if (report != null) {
+            final File parent = report.getAbsoluteFile().getParentFile();
+            Files.createDirectories(parent.toPath());
+            Files.write(report.toPath(), metrics.toJson().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
     /**
      * Sets a project reference to a {@link WeaverSettings} object.
      * @param refid key
@@ -43,7 +43,11 @@ public class CleanTask extends AbstractWeaverTask {
     public void execute() {
         try {
             final WeaverSettings settings = Validate.notNull(getSettings(), "settings");
-            new CleanProcessor(settings.getClasspathEntries(), settings.getTarget(), settings.getProperties()).clean();
+            try (CleanProcessor processor =
+                new CleanProcessor(settings.getClasspathEntries(), settings.getTarget(), settings.getProperties())) {
+                processor.clean();
+                report(processor.getMetrics());
+            }
         } catch (final Exception e) {
             throw new BuildException(e);
         }
@@ -43,7 +43,11 @@ public class WeaveTask extends AbstractWeaverTask {
     public void execute() {
         try {
             final WeaverSettings settings = Validate.notNull(getSettings(), "settings");
-            new WeaveProcessor(settings.getClasspathEntries(), settings.getTarget(), settings.getProperties()).weave();
+            try (WeaveProcessor processor =
+                new WeaveProcessor(settings.getClasspathEntries(), settings.getTarget(), settings.getProperties())) {
+                processor.weave();
+                report(processor.getMetrics());
+            }
         } catch (final Exception e) {
             throw new BuildException(e);
         }
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver;
+
+import java.lang.annotation.ElementType;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.weaver.benchmarks.ClassfileMarker;
+import org.apache.commons.weaver.benchmarks.Marker;
+import org.apache.commons.weaver.benchmarks.SyntheticClasses;
+import org.apache.commons.weaver.model.ScanRequest;
+import org.apache.commons.weaver.model.ScanResult;
+import org.apache.commons.weaver.model.WeaveInterest;
+import org.apache.xbean.finder.archive.Archive;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link Finder} construction, i.e. the survey of an archive, and {@link Finder#scan(ScanRequest)} for
+ * runtime-visible and classfile annotations of every element type, over archives of synthetic classes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FinderBenchmark {
+
+    /**
+     * Number of classes in the archive.
+     */
+    @Param({ "1000", "10000", "50000" })
+    public int classCount;
+
+    /**
+     * {@link Finder} surveyed afresh for each scan, as scan results are cached.
+     */
+    @State(Scope.Thread)
+    public static class Surveyed {
+        private Finder finder;
+
+        /**
+         * Survey the archive.
+         * @param benchmark state
+         */
+        @Setup(Level.Invocation)
+        public void survey(final FinderBenchmark benchmark) {
+            finder = new Finder(benchmark.archive);
+        }
+    }
+
+    private Archive archive;
+    private ScanRequest request;
+
+    /**
+     * Generate the archive.
+     */
+    @Setup(Level.Trial)
+    public void generate() {
+        final Map<String, byte[]> classfiles = SyntheticClasses.scanTarget(classCount);
+        archive = SyntheticClasses.archive(classfiles,
+            SyntheticClasses.classLoader(classfiles, getClass().getClassLoader()));
+        request = new ScanRequest();
+        for (final ElementType target : new ElementType[] { ElementType.TYPE, ElementType.METHOD,
+            ElementType.FIELD }) {
+            request.add(WeaveInterest.of(Marker.class, target));
+            request.add(WeaveInterest.of(ClassfileMarker.class, target));
+        }
+    }
+
+    /**
+     * Construct a {@link Finder}.
+     * @return {@link Finder}
+     */
+    @Benchmark
+    public Finder construct() {
+        return new Finder(archive);
+    }
+
+    /**
+     * Scan a {@link Finder}.
+     * @param surveyed state
+     * @return {@link ScanResult}
+     */
+    @Benchmark
+    public ScanResult scan(final Surveyed surveyed) {
+        return surveyed.finder.scan(request);
+    }
+}
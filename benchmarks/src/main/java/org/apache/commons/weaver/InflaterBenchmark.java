@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver;
+
+import java.lang.annotation.ElementType;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.weaver.benchmarks.ClassfileMarker;
+import org.apache.commons.weaver.benchmarks.SyntheticClasses;
+import org.apache.commons.weaver.model.ScanRequest;
+import org.apache.commons.weaver.model.ScanResult;
+import org.apache.commons.weaver.model.WeaveInterest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the indexing of classfile annotations by an {@link Inflater}, and their addition to the elements of a
+ * {@link ScanResult}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InflaterBenchmark {
+
+    /**
+     * Number of classes in the archive.
+     */
+    @Param({ "1000", "10000" })
+    public int classCount;
+
+    private Finder finder;
+    private ScanResult scanResult;
+
+    /**
+     * Scan an archive of synthetic classes.
+     */
+    @Setup(Level.Trial)
+    public void scan() {
+        final Map<String, byte[]> classfiles = SyntheticClasses.scanTarget(classCount);
+        finder = new Finder(SyntheticClasses.archive(classfiles,
+            SyntheticClasses.classLoader(classfiles, getClass().getClassLoader())));
+        scanResult = finder.scan(new ScanRequest().add(WeaveInterest.of(ClassfileMarker.class, ElementType.METHOD))
+            .add(WeaveInterest.of(ClassfileMarker.class, ElementType.FIELD)));
+    }
+
+    /**
+     * Index the classfile annotations read by the scan and inflate its result; as the result is already inflated,
+     * each element's annotations are merged with identical ones.
+     * @return {@link ScanResult}
+     */
+    @Benchmark
+    public ScanResult inflate() {
+        return new Inflater(finder.classfileAnnotations).inflate(scanResult);
+    }
+}
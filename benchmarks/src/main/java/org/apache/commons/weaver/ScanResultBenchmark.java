@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.weaver.benchmarks.SyntheticClasses;
+import org.apache.commons.weaver.model.ScanResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the modeling, by a {@link ScanResult} inflated by an {@link Inflater}, of every field, method and
+ * constructor of a set of classes. As the model is built anew by each operation, the bytes allocated per operation,
+ * reported as {@code gc.alloc.rate.norm} by the JMH GC profiler ({@code -prof gc}), bound its heap footprint.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScanResultBenchmark {
+
+    /**
+     * Number of classes modeled.
+     */
+    @Param({ "1000", "10000" })
+    public int classCount;
+
+    private List<Class<?>> classes;
+    private List<Field> fields;
+    private List<Method> methods;
+    private List<Constructor<?>> constructors;
+
+    /**
+     * Load the synthetic classes and gather their members, such that reflection is not measured.
+     * @throws ClassNotFoundException on error
+     */
+    @Setup(Level.Trial)
+    public void load() throws ClassNotFoundException {
+        final Map<String, byte[]> classfiles = SyntheticClasses.modelTarget(classCount);
+        final ClassLoader classLoader = SyntheticClasses.classLoader(classfiles, getClass().getClassLoader());
+        classes = new ArrayList<>();
+        fields = new ArrayList<>();
+        methods = new ArrayList<>();
+        constructors = new ArrayList<>();
+        for (final String resourceName : classfiles.keySet()) {
+            final Class<?> cls = Class.forName(
+                resourceName.substring(0, resourceName.length() - ".class".length()).replace('/', '.'), false,
+                classLoader);
+            classes.add(cls);
+            Collections.addAll(fields, cls.getDeclaredFields());
+            Collections.addAll(methods, cls.getDeclaredMethods());
+            Collections.addAll(constructors, cls.getDeclaredConstructors());
+        }
+    }
+
+    /**
+     * Model every class and member, and inflate the result.
+     * @return {@link ScanResult}
+     */
+    @Benchmark
+    public ScanResult model() {
+        final ScanResult result = new ScanResult();
+        classes.forEach(result::getWeavable);
+        fields.forEach(result::getWeavable);
+        methods.forEach(result::getWeavable);
+        constructors.forEach(result::getWeavable);
+        return new Inflater(new HashMap<>()).inflate(result);
+    }
+}
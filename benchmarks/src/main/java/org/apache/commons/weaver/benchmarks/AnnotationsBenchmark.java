@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.weaver.utils.Annotations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the creation of annotation instances by {@link Annotations#instanceOf(Class, Map)}, as for each
+ * classfile annotation read by a scan, and calls upon such instances.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnnotationsBenchmark {
+    private Map<String, Object> elements;
+    private Marker marker;
+    private Marker other;
+
+    /**
+     * Create the annotation instances called upon.
+     */
+    @Setup
+    public void setup() {
+        elements = new HashMap<>();
+        elements.put("value", "marked");
+        elements.put("count", Integer.valueOf(1));
+        marker = Annotations.instanceOf(Marker.class, elements);
+        other = Annotations.instanceOf(Marker.class, new HashMap<>(elements));
+    }
+
+    /**
+     * Create an annotation instance.
+     * @return {@link Marker}
+     */
+    @Benchmark
+    public Marker create() {
+        return Annotations.instanceOf(Marker.class, elements);
+    }
+
+    /**
+     * Call element methods.
+     * @param blackhole sink
+     */
+    @Benchmark
+    public void elements(final Blackhole blackhole) {
+        blackhole.consume(marker.value());
+        blackhole.consume(marker.count());
+    }
+
+    /**
+     * Call {@link Object#equals(Object)} and {@link Object#hashCode()}, as when annotations are merged.
+     * @param blackhole sink
+     */
+    @Benchmark
+    public void equalsAndHashCode(final Blackhole blackhole) {
+        blackhole.consume(marker.equals(other));
+        blackhole.consume(marker.hashCode());
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Compares JMH results, in the CSV format written by {@code -rf csv}, against a baseline, reporting any benchmark
+ * whose score exceeds that of the baseline by more than a tolerance. As every benchmark of this module measures time,
+ * a higher score is a regression. Usage: {@code CompareResults <baseline.csv> <results.csv> [tolerance]}, the
+ * tolerance being a fraction defaulting to {@value #DEFAULT_TOLERANCE}; exits with status {@code 1} upon regression
+ * and with status {@code 2} should the baseline record no result with which to compare, e.g. as it has yet to be
+ * recorded.
+ */
+public final class CompareResults {
+    private static final double DEFAULT_TOLERANCE = 0.1;
+    private static final String BENCHMARK = "Benchmark";
+    private static final String SCORE = "Score";
+    private static final String UNIT = "Unit";
+    private static final String PARAM = "Param: ";
+
+    private CompareResults() {
+    }
+
+    /**
+     * Main method.
+     * @param args baseline, results and optional tolerance
+     * @throws IOException on error
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults <baseline.csv> <results.csv> [tolerance]");
+            System.exit(2);
+        }
+        final double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE;
+        final Map<String, Double> baseline = read(args[0]);
+        if (baseline.isEmpty()) {
+            System.err.printf("ERROR: baseline %s records no results; record one from a full run%n", args[0]);
+            System.exit(2);
+        }
+        final Map<String, Double> results = read(args[1]);
+
+        int regressions = 0;
+        int unmatched = 0;
+        for (final Map.Entry<String, Double> e : results.entrySet()) {
+            final Double expected = baseline.get(e.getKey());
+            if (expected == null) {
+                unmatched++;
+                System.out.printf("%s: %.3f (no baseline)%n", e.getKey(), e.getValue());
+                continue;
+            }
+            final double change = e.getValue().doubleValue() / expected.doubleValue() - 1;
+            final boolean regressed = change > tolerance;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%s: %.3f vs. %.3f (%+.1f%%)%s%n", e.getKey(), e.getValue(), expected, change * 100,
+                regressed ? " REGRESSION" : "");
+        }
+        if (unmatched == results.size()) {
+            System.err.printf("ERROR: no result of %s has a baseline in %s%n", args[1], args[0]);
+            System.exit(2);
+        }
+        if (unmatched > 0) {
+            System.err.printf("WARNING: %d of %d result(s) have no baseline%n", unmatched, results.size());
+        }
+        if (regressions > 0) {
+            System.out.printf("%d regression(s) exceeding %.0f%%%n", regressions, tolerance * 100);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Read the scores of a JMH CSV results file, keyed by benchmark, parameters and unit.
+     * @param path of file
+     * @return {@link Map} of key to score
+     * @throws IOException on error
+     */
+    static Map<String, Double> read(final String path) throws IOException {
+        final Map<String, Double> result = new LinkedHashMap<>();
+        final List<String> lines = Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8);
+        if (lines.isEmpty()) {
+            return result;
+        }
+        final List<String> header = split(lines.get(0));
+        final int benchmark = header.indexOf(BENCHMARK);
+        final int score = header.indexOf(SCORE);
+        final int unit = header.indexOf(UNIT);
+        if (benchmark < 0 || score < 0 || unit < 0) {
+            throw new IllegalStateException(String.format("%s is not a JMH CSV results file", path));
+        }
+        for (final String line : lines.subList(1, lines.size())) {
+            if (StringUtils.isBlank(line)) {
+                continue;
+            }
+            final List<String> fields = split(line);
+            final StringBuilder key = new StringBuilder(fields.get(benchmark));
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).startsWith(PARAM) && StringUtils.isNotEmpty(fields.get(i))) {
+                    key.append(' ').append(header.get(i).substring(PARAM.length())).append('=').append(fields.get(i));
+                }
+            }
+            key.append(" [").append(fields.get(unit)).append(']');
+            result.put(key.toString(), Double.valueOf(fields.get(score)));
+        }
+        return result;
+    }
+
+    private static List<String> split(final String line) {
+        final List<String> result = new ArrayList<>();
+        final StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (final char c : line.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                result.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        result.add(field.toString());
+        return result;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.weaver.spi.Weaver;
+import org.apache.commons.weaver.utils.Providers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link Providers#sort(Iterable)} over synthetic {@link Weaver}s with chained dependencies, presented in a
+ * fixed, shuffled order.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProvidersBenchmark {
+
+    /**
+     * Number of providers.
+     */
+    @Param({ "4", "16", "64" })
+    public int providerCount;
+
+    private List<Weaver> providers;
+
+    /**
+     * Instantiate the providers.
+     * @throws ReflectiveOperationException on error
+     */
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        final Map<String, byte[]> classfiles = SyntheticClasses.providers(providerCount);
+        final ClassLoader classLoader = SyntheticClasses.classLoader(classfiles, getClass().getClassLoader());
+
+        providers = new ArrayList<>(providerCount);
+        for (final String resourceName : classfiles.keySet()) {
+            final String className = resourceName.substring(0, resourceName.lastIndexOf('.')).replace('/', '.');
+            providers.add((Weaver) classLoader.loadClass(className).getConstructor().newInstance());
+        }
+        Collections.shuffle(providers, new Random(providerCount));
+    }
+
+    /**
+     * Sort the providers.
+     * @return {@link Iterable} of {@link Weaver}
+     */
+    @Benchmark
+    public Iterable<Weaver> sort() {
+        return Providers.sort(providers);
+    }
+}
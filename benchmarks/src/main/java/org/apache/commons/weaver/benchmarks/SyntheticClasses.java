@@ -0,0 +1,403 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.weaver.Consumes;
+import org.apache.commons.weaver.privilizer.Privileged;
+import org.apache.commons.weaver.spi.Weaver;
+import org.apache.xbean.finder.archive.Archive;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Generates the synthetic classfiles against which the benchmarks run, such that results are reproducible offline
+ * and independent of any real code base. Generation is deterministic: a given count always yields the same classes.
+ * Classfiles are keyed by resource name, e.g. {@code org/apache/commons/weaver/benchmarks/synthetic/p0/C0.class}.
+ */
+public final class SyntheticClasses {
+
+    /**
+     * Internal name of the package under which classes are generated.
+     */
+    public static final String PACKAGE = "org/apache/commons/weaver/benchmarks/synthetic";
+
+    /**
+     * Binary name of the abstract supertype of the anonymous classes generated by {@link #normalizerTarget(int)}.
+     */
+    public static final String NORMALIZED_SUPERTYPE = PACKAGE.replace('/', '.') + ".norm.Base";
+
+    private static final int CLASSES_PER_PACKAGE = 100;
+    private static final int HIERARCHY_DEPTH = 10;
+    private static final int MEMBERS = 3;
+    private static final int MARKED = 10;
+    private static final String CLASSFILE_SUFFIX = ".class";
+    private static final String OBJECT = Type.getInternalName(Object.class);
+    private static final String INIT = "<init>";
+    private static final String VOID = "()V";
+
+    /**
+     * {@link ClassLoader} defining classes from generated classfiles.
+     */
+    private static final class GeneratedClassLoader extends ClassLoader {
+        private final Map<String, byte[]> classfiles;
+
+        GeneratedClassLoader(final Map<String, byte[]> classfiles, final ClassLoader parent) {
+            super(parent);
+            this.classfiles = classfiles;
+        }
+
+        @Override
+        protected Class<?> findClass(final String name) throws ClassNotFoundException {
+            final byte[] bytecode = classfiles.get(name.replace('.', '/') + CLASSFILE_SUFFIX);
+            if (bytecode == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+    }
+
+    /**
+     * {@link Archive} of generated classfiles.
+     */
+    private static final class GeneratedArchive implements Archive {
+        private final Map<String, byte[]> classfiles;
+        private final ClassLoader classLoader;
+
+        GeneratedArchive(final Map<String, byte[]> classfiles, final ClassLoader classLoader) {
+            this.classfiles = classfiles;
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public InputStream getBytecode(final String className) throws IOException, ClassNotFoundException {
+            final byte[] bytecode = classfiles.get(className.replace('.', '/') + CLASSFILE_SUFFIX);
+            if (bytecode == null) {
+                throw new ClassNotFoundException(className);
+            }
+            return new ByteArrayInputStream(bytecode);
+        }
+
+        @Override
+        public Class<?> loadClass(final String className) throws ClassNotFoundException {
+            return classLoader.loadClass(className);
+        }
+
+        @Override
+        public Iterator<Entry> iterator() {
+            final List<Entry> result = new ArrayList<>(classfiles.size());
+            classfiles.forEach((resourceName, bytecode) -> {
+                final String className =
+                    resourceName.substring(0, resourceName.length() - CLASSFILE_SUFFIX.length()).replace('/', '.');
+                result.add(new Entry() {
+
+                    @Override
+                    public String getName() {
+                        return className;
+                    }
+
+                    @Override
+                    public InputStream getBytecode() {
+                        return new ByteArrayInputStream(bytecode);
+                    }
+                });
+            });
+            return result.iterator();
+        }
+    }
+
+    private SyntheticClasses() {
+    }
+
+    /**
+     * Generate a scan target of the specified number of classes, in packages of {@value #CLASSES_PER_PACKAGE}. Classes
+     * form inheritance chains {@value #HIERARCHY_DEPTH} deep and each declare {@value #MEMBERS} fields and methods;
+     * every {@value #MARKED}th class is annotated with {@link Marker} and its first field and method with
+     * {@link ClassfileMarker}.
+     * @param count of classes
+     * @return {@link Map} of resource name to classfile
+     */
+    public static Map<String, byte[]> scanTarget(final int count) {
+        final Map<String, byte[]> result = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            final String name = scanClassName(i);
+            final String superName = i % HIERARCHY_DEPTH == 0 ? OBJECT : scanClassName(i - 1);
+            final boolean marked = i % MARKED == 0;
+
+            final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+            cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, null, superName, null);
+            if (marked) {
+                final AnnotationVisitor av = cw.visitAnnotation(Type.getDescriptor(Marker.class), true);
+                av.visit("value", name);
+                av.visit("count", Integer.valueOf(i));
+                av.visitEnd();
+            }
+            constructor(cw, superName);
+            for (int m = 0; m < MEMBERS; m++) {
+                final String field = "f" + m;
+                final FieldVisitor fv = cw.visitField(Opcodes.ACC_PRIVATE, field, "I", null, null);
+                if (marked && m == 0) {
+                    fv.visitAnnotation(Type.getDescriptor(ClassfileMarker.class), false).visitEnd();
+                }
+                fv.visitEnd();
+
+                final MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "m" + m, "()I", null, null);
+                if (marked && m == 0) {
+                    final AnnotationVisitor av = mv.visitAnnotation(Type.getDescriptor(ClassfileMarker.class), false);
+                    av.visit("value", Integer.valueOf(i));
+                    av.visitEnd();
+                }
+                mv.visitCode();
+                mv.visitVarInsn(Opcodes.ALOAD, 0);
+                mv.visitFieldInsn(Opcodes.GETFIELD, name, field, "I");
+                mv.visitInsn(Opcodes.IRETURN);
+                mv.visitMaxs(0, 0);
+                mv.visitEnd();
+            }
+            cw.visitEnd();
+            result.put(name + CLASSFILE_SUFFIX, cw.toByteArray());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Generate a target of the specified number of classes, in packages of {@value #CLASSES_PER_PACKAGE}, for modeling
+     * in full. Each class declares {@value #MEMBERS} fields, a constructor of one parameter and {@value #MEMBERS}
+     * methods of two parameters; every {@value #MARKED}th class, and each of its methods, is annotated with
+     * {@link Marker}.
+     * @param count of classes
+     * @return {@link Map} of resource name to classfile
+     */
+    public static Map<String, byte[]> modelTarget(final int count) {
+        final Map<String, byte[]> result = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            final String name = String.format("%s/model/p%d/M%d", PACKAGE, i / CLASSES_PER_PACKAGE, i);
+            final boolean marked = i % MARKED == 0;
+
+            final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+            cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, null, OBJECT, null);
+            if (marked) {
+                cw.visitAnnotation(Type.getDescriptor(Marker.class), true).visitEnd();
+            }
+            MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, INIT, "(I)V", null, null);
+            mv.visitCode();
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            mv.visitMethodInsn(Opcodes.INVOKESPECIAL, OBJECT, INIT, VOID, false);
+            mv.visitInsn(Opcodes.RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+            for (int m = 0; m < MEMBERS; m++) {
+                cw.visitField(Opcodes.ACC_PRIVATE, "f" + m, "I", null, null).visitEnd();
+
+                mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "m" + m, "(ILjava/lang/String;)V", null, null);
+                if (marked) {
+                    mv.visitAnnotation(Type.getDescriptor(Marker.class), true).visitEnd();
+                }
+                mv.visitCode();
+                mv.visitInsn(Opcodes.RETURN);
+                mv.visitMaxs(0, 0);
+                mv.visitEnd();
+            }
+            cw.visitEnd();
+            result.put(name + CLASSFILE_SUFFIX, cw.toByteArray());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Generate a privilizer target of the specified number of classes, each declaring a {@link Privileged} method
+     * reading a system property, and a public method calling it.
+     * @param count of classes
+     * @return {@link Map} of resource name to classfile
+     */
+    public static Map<String, byte[]> privilizerTarget(final int count) {
+        final Map<String, byte[]> result = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            final String name = String.format("%s/priv/p%d/P%d", PACKAGE, i / CLASSES_PER_PACKAGE, i);
+            final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+            cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, null, OBJECT, null);
+            constructor(cw, OBJECT);
+
+            MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PRIVATE, "property", "()Ljava/lang/String;", null, null);
+            mv.visitAnnotation(Type.getDescriptor(Privileged.class), false).visitEnd();
+            mv.visitCode();
+            mv.visitLdcInsn("java.version");
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, Type.getInternalName(System.class), "getProperty",
+                "(Ljava/lang/String;)Ljava/lang/String;", false);
+            mv.visitInsn(Opcodes.ARETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+
+            mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "get", "()Ljava/lang/String;", null, null);
+            mv.visitCode();
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            mv.visitMethodInsn(Opcodes.INVOKESPECIAL, name, "property", "()Ljava/lang/String;", false);
+            mv.visitInsn(Opcodes.ARETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+
+            cw.visitEnd();
+            result.put(name + CLASSFILE_SUFFIX, cw.toByteArray());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Generate a normalizer target: the abstract type {@link #NORMALIZED_SUPERTYPE} and the specified number of
+     * classes, each creating an identical anonymous subclass thereof in a static factory method.
+     * @param count of enclosing classes
+     * @return {@link Map} of resource name to classfile
+     */
+    public static Map<String, byte[]> normalizerTarget(final int count) {
+        final Map<String, byte[]> result = new LinkedHashMap<>();
+        final String base = NORMALIZED_SUPERTYPE.replace('.', '/');
+        final String baseDescriptor = "()L" + base + ';';
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER | Opcodes.ACC_ABSTRACT, base, null, OBJECT,
+            null);
+        constructor(cw, OBJECT);
+        cw.visitEnd();
+        result.put(base + CLASSFILE_SUFFIX, cw.toByteArray());
+
+        for (int i = 0; i < count; i++) {
+            final String outer = String.format("%s/norm/n%d/Outer%d", PACKAGE, i / CLASSES_PER_PACKAGE, i);
+            final String inner = outer + "$1";
+
+            cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+            cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, outer, null, OBJECT, null);
+            cw.visitInnerClass(inner, null, null, 0);
+            constructor(cw, OBJECT);
+            final MethodVisitor mv =
+                cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "create", baseDescriptor, null, null);
+            mv.visitCode();
+            mv.visitTypeInsn(Opcodes.NEW, inner);
+            mv.visitInsn(Opcodes.DUP);
+            mv.visitMethodInsn(Opcodes.INVOKESPECIAL, inner, INIT, VOID, false);
+            mv.visitInsn(Opcodes.ARETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+            cw.visitEnd();
+            result.put(outer + CLASSFILE_SUFFIX, cw.toByteArray());
+
+            cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+            cw.visit(Opcodes.V1_8, Opcodes.ACC_SUPER, inner, null, base, null);
+            cw.visitOuterClass(outer, "create", baseDescriptor);
+            cw.visitInnerClass(inner, null, null, 0);
+            constructor(cw, base);
+            cw.visitEnd();
+            result.put(inner + CLASSFILE_SUFFIX, cw.toByteArray());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Generate the specified number of {@link Weaver} types, each but the first declaring, by {@link Consumes}, a
+     * dependency upon its predecessor and upon the type at half its index. The types implement no methods and can
+     * only be sorted, not run.
+     * @param count of types
+     * @return {@link Map} of resource name to classfile
+     */
+    public static Map<String, byte[]> providers(final int count) {
+        final Map<String, byte[]> result = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            final String name = String.format("%s/providers/W%d", PACKAGE, i);
+            final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+            cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, null, OBJECT,
+                new String[] { Type.getInternalName(Weaver.class) });
+            if (i > 0) {
+                final AnnotationVisitor av = cw.visitAnnotation(Type.getDescriptor(Consumes.class), true);
+                final AnnotationVisitor value = av.visitArray("value");
+                value.visit(null, Type.getObjectType(String.format("%s/providers/W%d", PACKAGE, i - 1)));
+                if (i / 2 < i - 1) {
+                    value.visit(null, Type.getObjectType(String.format("%s/providers/W%d", PACKAGE, i / 2)));
+                }
+                value.visitEnd();
+                av.visitEnd();
+            }
+            constructor(cw, OBJECT);
+            cw.visitEnd();
+            result.put(name + CLASSFILE_SUFFIX, cw.toByteArray());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Create a {@link ClassLoader} defining classes from the specified classfiles.
+     * @param classfiles by resource name
+     * @param parent {@link ClassLoader}
+     * @return {@link ClassLoader}
+     */
+    public static ClassLoader classLoader(final Map<String, byte[]> classfiles, final ClassLoader parent) {
+        return new GeneratedClassLoader(classfiles, parent);
+    }
+
+    /**
+     * Create an {@link Archive} of the specified classfiles.
+     * @param classfiles by resource name
+     * @param classLoader with which to load classes, e.g. per {@link #classLoader(Map, ClassLoader)}
+     * @return {@link Archive}
+     */
+    public static Archive archive(final Map<String, byte[]> classfiles, final ClassLoader classLoader) {
+        return new GeneratedArchive(classfiles, classLoader);
+    }
+
+    /**
+     * Write the specified classfiles under a directory.
+     * @param classfiles by resource name
+     * @param directory to write to
+     * @throws IOException on error
+     */
+    public static void write(final Map<String, byte[]> classfiles, final Path directory) throws IOException {
+        for (final Map.Entry<String, byte[]> e : classfiles.entrySet()) {
+            final Path file = directory.resolve(e.getKey());
+            Files.createDirectories(file.getParent());
+            Files.write(file, e.getValue());
+        }
+    }
+
+    private static String scanClassName(final int index) {
+        return String.format("%s/p%d/C%d", PACKAGE, index / CLASSES_PER_PACKAGE, index);
+    }
+
+    private static void constructor(final ClassWriter cw, final String superName) {
+        final MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, INIT, VOID, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, superName, INIT, VOID, false);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.commons.weaver.WeaveProcessor;
+import org.apache.commons.weaver.normalizer.Normalizer;
+import org.apache.commons.weaver.normalizer.NormalizerWeaver;
+import org.apache.commons.weaver.privilizer.AccessLevel;
+import org.apache.commons.weaver.privilizer.Policy;
+import org.apache.commons.weaver.privilizer.Privilizer;
+import org.apache.commons.weaver.privilizer.PrivilizerWeaver;
+import org.apache.commons.weaver.spi.Weaver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks an end-to-end {@link WeaveProcessor#weave()} of a directory of synthetic classes by the privilizer or
+ * the normalizer, the directory being restored to its unwoven state before each invocation.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WeaveBenchmark {
+
+    /**
+     * Weaver run.
+     */
+    @Param({ "privilizer", "normalizer" })
+    public String weaver;
+
+    /**
+     * Number of classes woven.
+     */
+    @Param({ "100", "1000" })
+    public int classCount;
+
+    private Map<String, byte[]> classfiles;
+    private Properties configuration;
+    private Path target;
+
+    /**
+     * Generate the classes to weave and configure the weaver.
+     * @throws IOException on error
+     */
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        configuration = new Properties();
+        if ("privilizer".equals(weaver)) {
+            classfiles = SyntheticClasses.privilizerTarget(classCount);
+            configuration.setProperty(Privilizer.CONFIG_ACCESS_LEVEL, AccessLevel.PACKAGE.name());
+            configuration.setProperty(Privilizer.CONFIG_POLICY, Policy.ON_INIT.name());
+            configuration.setProperty(Privilizer.CONFIG_VERIFY, Boolean.FALSE.toString());
+        } else {
+            classfiles = SyntheticClasses.normalizerTarget(classCount);
+            configuration.setProperty(Normalizer.CONFIG_SUPER_TYPES, SyntheticClasses.NORMALIZED_SUPERTYPE);
+            configuration.setProperty(Normalizer.CONFIG_TARGET_PACKAGE,
+                SyntheticClasses.PACKAGE.replace('/', '.') + ".normalized");
+        }
+        target = Files.createTempDirectory("weave");
+    }
+
+    /**
+     * Restore the unwoven classes.
+     * @throws IOException on error
+     */
+    @Setup(Level.Invocation)
+    public void restore() throws IOException {
+        clean();
+        SyntheticClasses.write(classfiles, target);
+    }
+
+    /**
+     * Delete the woven classes.
+     * @throws IOException on error
+     */
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        clean();
+        Files.deleteIfExists(target);
+    }
+
+    /**
+     * Weave.
+     * @return {@link WeaveProcessor}, closed
+     * @throws IOException on error
+     */
+    @Benchmark
+    public WeaveProcessor weave() throws IOException {
+        final Weaver provider = "privilizer".equals(weaver) ? new PrivilizerWeaver() : new NormalizerWeaver();
+        try (WeaveProcessor processor = new WeaveProcessor(Collections.emptyList(), target.toFile(), configuration,
+            Collections.singletonList(provider))) {
+            processor.weave();
+            return processor;
+        }
+    }
+
+    private void clean() throws IOException {
+        try (Stream<Path> files = Files.walk(target)) {
+            files.sorted(Comparator.reverseOrder()).filter(file -> !file.equals(target)).forEach(file -> {
+                try {
+                    Files.delete(file);
+                } catch (final IOException e) {
+                    throw new IllegalStateException(String.format("Unable to delete %s", file), e);
+                }
+            });
+        }
+    }
+}
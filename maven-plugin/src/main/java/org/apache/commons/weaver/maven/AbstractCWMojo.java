@@ -19,16 +19,22 @@
 package org.apache.commons.weaver.maven;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.weaver.WeaveMetrics;
+import org.apache.commons.weaver.WeaveProcessor;
 import org.apache.maven.RepositoryUtils;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.plugin.AbstractMojo;
@@ -72,6 +78,22 @@ abstract class AbstractCWMojo extends AbstractMojo {
     @Parameter(property = "weaver.config", required = false)
     protected Properties weaverConfig;
 
+    /**
+     * {@code weaver.scanIndex} parameter. If {@code true}, and no index location is explicitly configured, a scan
+     * index is kept under {@code ${project.build.directory}/commons-weaver} to speed up subsequent builds.
+     * @since 2.1
+     */
+    @Parameter(property = "weaver.scanIndex", defaultValue = "false")
+    protected boolean scanIndex;
+
+    /**
+     * {@code weaver.report} parameter. If {@code true}, the metrics of each run are written as JSON under
+     * {@code ${project.build.directory}/commons-weaver}; a summary is logged in any case.
+     * @since 2.1
+     */
+    @Parameter(property = "weaver.report", defaultValue = "false")
+    protected boolean report;
+
     /**
      * {@code project} parameter.
      */
@@ -115,28 +137,86 @@ abstract class AbstractCWMojo extends AbstractMojo {
                 throw new MojoExecutionException("Error getting classpath artifacts", e);
             }
             final File target = getTarget();
-            final Properties config = weaverConfig == null ? new Properties() : weaverConfig;
+            final Properties config = createConfig(target);
 
             getLog().debug(String.format("classpath=%s%ntarget=%s%nconfig=%s", classpath, target, config));
 
-            doExecute(target, classpath, config);
+            // share a loader over dependency JARs; directories, e.g. of reactor modules, may change unnoticed.
+            // N.B. JARs are thereby searched before directories, regardless of their classpath order:
+            final Map<Boolean, List<String>> jars =
+                classpath.stream().collect(Collectors.partitioningBy(entry -> new File(entry).isFile()));
+
+            try (ClassLoaderCache.Lease lease = ClassLoaderCache.getInstance().acquire(jars.get(Boolean.TRUE))) {
+                doExecute(target, jars.get(Boolean.FALSE), lease.getClassLoader(), config);
+            } catch (final IOException e) {
+                throw new MojoExecutionException("Error closing classpath class loaders", e);
+            }
         } finally {
             logRedirector.deactivate();
         }
     }
 
     /**
-     * Execute the mojo
+     * Execute the mojo. The classpath is split into its JAR files, loaded by {@code parent}, and its remaining entries,
+     * e.g. output directories, to be loaded by a child of {@code parent}; a class or resource present in both a JAR
+     * and a directory is therefore found in the JAR, irrespective of the original classpath order.
      * 
      * @param target location of target
-     * @param classpath classpath to use
+     * @param classpath classpath to use, beyond that of {@code parent}
+     * @param parent {@link ClassLoader} over the dependency JARs of the classpath, shared among executions
      * @param config configuration
      * @throws MojoExecutionException if execution fails
      * @throws MojoFailureException for other errors
+     * @since 2.1
      */
-    protected abstract void doExecute(File target, List<String> classpath, Properties config)
+    protected abstract void doExecute(File target, List<String> classpath, ClassLoader parent, Properties config)
         throws MojoExecutionException, MojoFailureException;
 
+    private Properties createConfig(final File target) {
+        final Properties result = new Properties();
+        if (weaverConfig != null) {
+            result.putAll(weaverConfig);
+        }
+        if (scanIndex && !result.containsKey(WeaveProcessor.CONFIG_SCAN_INDEX)) {
+            result.setProperty(WeaveProcessor.CONFIG_SCAN_INDEX, getWorkFile(target, ".idx").getAbsolutePath());
+        }
+        return result;
+    }
+
+    /**
+     * Gets a file, specific to the specified target, in which commons-weaver may keep state between builds.
+     *
+     * @param target location of target
+     * @param suffix of file name
+     * @return {@link File}
+     * @since 2.1
+     */
+    protected File getWorkFile(final File target, final String suffix) {
+        return new File(new File(project.getBuild().getDirectory(), "commons-weaver"), target.getName() + suffix);
+    }
+
+    /**
+     * Log a summary of the specified metrics and, if so configured, write them as a JSON report.
+     *
+     * @param target location of target
+     * @param goal name, distinguishing the reports of the goals run against a given target
+     * @param metrics to report
+     * @since 2.1
+     */
+    protected void report(final File target, final String goal, final WeaveMetrics metrics) {
+        getLog().info(String.format("%s %s: %s", goal, target.getName(), metrics.getSummary()));
+        if (!report) {
+            return;
+        }
+        final File reportFile = getWorkFile(target, String.format(".%s.json", goal));
+        try {
+            Files.createDirectories(reportFile.getParentFile().toPath());
+            Files.write(reportFile.toPath(), metrics.toJson().getBytes(StandardCharsets.UTF_8));
+        } catch (final IOException e) {
+            getLog().warn(String.format("Unable to write weaver report %s: %s", reportFile, e.getMessage()));
+        }
+    }
+
     private List<String> createClasspath() throws DependencyResolutionException {
         final CollectRequest collect = new CollectRequest();
         collect.setRootArtifact(RepositoryUtils.toArtifact(project.getArtifact()));
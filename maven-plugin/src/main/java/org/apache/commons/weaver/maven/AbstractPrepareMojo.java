@@ -31,13 +31,14 @@ import org.apache.maven.plugin.MojoExecutionException;
 public abstract class AbstractPrepareMojo extends AbstractCWMojo {
 
     @Override
-    protected void doExecute(final File target, final List<String> classpath, final Properties config)
-        throws MojoExecutionException {
+    protected void doExecute(final File target, final List<String> classpath, final ClassLoader parent,
+        final Properties config) throws MojoExecutionException {
         if (!target.isDirectory()) {
             return;
         }
-        try {
-            new CleanProcessor(classpath, target, config).clean();
+        try (CleanProcessor processor = new CleanProcessor(classpath, parent, target, config)) {
+            processor.clean();
+            report(target, "clean", processor.getMetrics());
         } catch (final Exception e) {
             throw new MojoExecutionException("cleaning failed due to " + e.getMessage(), e);
         }
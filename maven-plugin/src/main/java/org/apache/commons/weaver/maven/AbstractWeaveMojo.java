@@ -24,17 +24,31 @@ import java.util.Properties;
 
 import org.apache.commons.weaver.WeaveProcessor;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Parameter;
 
 /**
  * Defines common properties.
  */
 public abstract class AbstractWeaveMojo extends AbstractCWMojo {
 
+    /**
+     * {@code weaver.incremental} parameter. If {@code true}, and no manifest location is explicitly configured, a weave
+     * manifest is kept under {@code ${project.build.directory}/commons-weaver} such that subsequent builds weave only
+     * changed classes.
+     * @since 2.1
+     */
+    @Parameter(property = "weaver.incremental", defaultValue = "false")
+    protected boolean incremental;
+
     @Override
-    protected void doExecute(final File target, final List<String> classpath, final Properties config)
-        throws MojoExecutionException {
-        try {
-            new WeaveProcessor(classpath, target, config).weave();
+    protected void doExecute(final File target, final List<String> classpath, final ClassLoader parent,
+        final Properties config) throws MojoExecutionException {
+        if (incremental && !config.containsKey(WeaveProcessor.CONFIG_MANIFEST)) {
+            config.setProperty(WeaveProcessor.CONFIG_MANIFEST, getWorkFile(target, ".manifest").getAbsolutePath());
+        }
+        try (WeaveProcessor processor = new WeaveProcessor(classpath, parent, target, config)) {
+            processor.weave();
+            report(target, "weave", processor.getMetrics());
         } catch (final Exception e) {
             throw new MojoExecutionException("weaving failed due to " + e.getMessage(), e);
         }
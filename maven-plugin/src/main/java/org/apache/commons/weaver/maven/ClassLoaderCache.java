@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.weaver.utils.URLArray;
+
+/**
+ * Cache of {@link ClassLoader}s over dependency JARs, shared by the mojo executions of a build, and of successive
+ * builds within a single JVM, e.g. a Maven daemon. Loaders are keyed by classpath and are reused for as long as the
+ * size and modification time of every entry remain unchanged. Each loader is reference-counted: a loader found stale
+ * is closed once its last lease is released, and at most {@value #MAX_IDLE} unleased loaders are retained, the least
+ * recently used being closed first.
+ */
+final class ClassLoaderCache {
+
+    /**
+     * Lease of a cached {@link ClassLoader}, to be {@link #close() closed} once the loader is no longer needed.
+     */
+    final class Lease implements AutoCloseable {
+        private final Entry entry;
+        private boolean released;
+
+        private Lease(final Entry entry) {
+            this.entry = entry;
+        }
+
+        /**
+         * Gets the leased {@link ClassLoader}.
+         * @return {@link ClassLoader}
+         */
+        ClassLoader getClassLoader() {
+            return entry.classLoader;
+        }
+
+        @Override
+        public void close() throws IOException {
+            synchronized (ClassLoaderCache.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                release(entry);
+            }
+        }
+    }
+
+    private static final class Entry {
+        final List<Long> stamps;
+        final URLClassLoader classLoader;
+        int leases;
+        boolean stale;
+
+        Entry(final List<Long> stamps, final URLClassLoader classLoader) {
+            this.stamps = stamps;
+            this.classLoader = classLoader;
+        }
+    }
+
+    /**
+     * Maximum number of unleased loaders retained.
+     */
+    static final int MAX_IDLE = 8;
+
+    private static final ClassLoaderCache INSTANCE = new ClassLoaderCache();
+
+    /**
+     * Gets the shared {@link ClassLoaderCache}.
+     * @return {@link ClassLoaderCache}
+     */
+    static ClassLoaderCache getInstance() {
+        return INSTANCE;
+    }
+
+    private static List<Long> stamps(final List<String> classpath) {
+        final List<Long> result = new ArrayList<>(classpath.size() * 2);
+        for (final String entry : classpath) {
+            final File file = new File(entry);
+            result.add(Long.valueOf(file.lastModified()));
+            result.add(Long.valueOf(file.length()));
+        }
+        return result;
+    }
+
+    private final Map<List<String>, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private ClassLoaderCache() {
+    }
+
+    /**
+     * Lease a {@link ClassLoader} over the specified classpath.
+     * @param classpath JAR files
+     * @return {@link Lease}
+     * @throws IOException on error closing a loader found stale or evicted
+     */
+    synchronized Lease acquire(final List<String> classpath) throws IOException {
+        final List<String> key = Collections.unmodifiableList(new ArrayList<>(classpath));
+        final List<Long> stamps = stamps(key);
+
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.stamps.equals(stamps)) {
+            entries.remove(key);
+            entry.stale = true;
+            if (entry.leases == 0) {
+                entry.classLoader.close();
+            }
+            entry = null;
+        }
+        if (entry == null) {
+            entry = new Entry(stamps, new URLClassLoader(URLArray.fromPaths(key)));
+            entries.put(key, entry);
+        }
+        entry.leases++;
+        evictIdle();
+        return new Lease(entry);
+    }
+
+    private void release(final Entry entry) throws IOException {
+        entry.leases--;
+        if (entry.leases == 0 && entry.stale) {
+            entry.classLoader.close();
+        }
+        evictIdle();
+    }
+
+    private void evictIdle() throws IOException {
+        int idle = 0;
+        for (final Entry entry : entries.values()) {
+            if (entry.leases == 0) {
+                idle++;
+            }
+        }
+        // iterate from least to most recently used:
+        for (final Iterator<Entry> iter = entries.values().iterator(); idle > MAX_IDLE && iter.hasNext();) {
+            final Entry entry = iter.next();
+            if (entry.leases == 0) {
+                iter.remove();
+                idle--;
+                entry.classLoader.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.maven;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ClassLoaderCacheTest {
+    private static final String MARKER = "commons-weaver-test/marker.txt";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static void writeJar(final File jar, final String content) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar.toPath()))) {
+            out.putNextEntry(new ZipEntry(MARKER));
+            out.write(content.getBytes("UTF-8"));
+            out.closeEntry();
+        }
+    }
+
+    /**
+     * A closed {@link java.net.URLClassLoader} no longer finds resources of its own classpath.
+     */
+    private static boolean isOpen(final ClassLoaderCache.Lease lease) {
+        return lease.getClassLoader().getResource(MARKER) != null;
+    }
+
+    private List<String> classpath(final String name) throws IOException {
+        final File jar = temporaryFolder.newFile(name);
+        writeJar(jar, name);
+        return Collections.singletonList(jar.getAbsolutePath());
+    }
+
+    @Test
+    public void testLeaseCounting() throws IOException {
+        final ClassLoaderCache cache = ClassLoaderCache.getInstance();
+        final List<String> classpath = classpath("counting.jar");
+        final File jar = new File(classpath.get(0));
+
+        final ClassLoaderCache.Lease first = cache.acquire(classpath);
+        final ClassLoaderCache.Lease second = cache.acquire(classpath);
+        assertSame(first.getClassLoader(), second.getClassLoader());
+        second.close();
+        assertTrue(isOpen(second));
+
+        // an idle loader is reused for an unchanged classpath:
+        final ClassLoaderCache.Lease third = cache.acquire(classpath);
+        assertSame(first.getClassLoader(), third.getClassLoader());
+
+        third.close();
+        // closing a lease twice must not release the loader on behalf of another:
+        third.close();
+        writeJar(jar, "modified content");
+        assertTrue(jar.setLastModified(jar.lastModified() + 2000L));
+        cache.acquire(classpath).close();
+        assertTrue(isOpen(first));
+
+        first.close();
+        assertFalse(isOpen(first));
+    }
+
+    @Test
+    public void testStaleLoaderClosedAfterLastRelease() throws IOException {
+        final ClassLoaderCache cache = ClassLoaderCache.getInstance();
+        final List<String> classpath = classpath("stale.jar");
+        final File jar = new File(classpath.get(0));
+
+        final ClassLoaderCache.Lease first = cache.acquire(classpath);
+        final ClassLoaderCache.Lease second = cache.acquire(classpath);
+
+        writeJar(jar, "modified content");
+        assertTrue(jar.setLastModified(jar.lastModified() + 2000L));
+
+        final ClassLoaderCache.Lease current = cache.acquire(classpath);
+        assertNotSame(first.getClassLoader(), current.getClassLoader());
+
+        first.close();
+        assertTrue(isOpen(second));
+        second.close();
+        assertFalse(isOpen(second));
+        assertTrue(isOpen(current));
+        current.close();
+        assertTrue(isOpen(current));
+    }
+
+    @Test
+    public void testEvictionBeyondMaxIdle() throws IOException {
+        final ClassLoaderCache cache = ClassLoaderCache.getInstance();
+        final List<ClassLoaderCache.Lease> leases = new ArrayList<>();
+        for (int i = 0; i <= ClassLoaderCache.MAX_IDLE; i++) {
+            leases.add(cache.acquire(classpath("idle" + i + ".jar")));
+        }
+        final ClassLoaderCache.Lease held = cache.acquire(classpath("held.jar"));
+
+        for (final ClassLoaderCache.Lease lease : leases) {
+            lease.close();
+        }
+        // the least recently used idle loader is evicted; leased loaders are never evicted:
+        assertFalse(isOpen(leases.get(0)));
+        for (final ClassLoaderCache.Lease lease : leases.subList(1, leases.size())) {
+            assertTrue(isOpen(lease));
+        }
+        assertTrue(isOpen(held));
+        held.close();
+        assertFalse(isOpen(leases.get(1)));
+        assertTrue(isOpen(held));
+    }
+}
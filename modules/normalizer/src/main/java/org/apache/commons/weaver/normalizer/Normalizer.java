@@ -25,11 +25,14 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang3.ArrayUtils;
@@ -45,6 +48,7 @@ import org.apache.commons.weaver.model.Scanner;
 import org.apache.commons.weaver.model.WeavableClass;
 import org.apache.commons.weaver.model.WeaveEnvironment;
 import org.apache.commons.weaver.spi.Weaver;
+import org.apache.commons.weaver.utils.WeaveEvent;
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
@@ -224,6 +228,62 @@ public class Normalizer {
     private @interface Marker {
     }
 
+    /**
+     * Rewriting of an enclosing class such that it references a normalized class in place of the anonymous classes
+     * merged into it.
+     */
+    private final class Rewrite {
+        final String outer;
+        final String target;
+
+        /**
+         * Map of merged class to its {@link ClassWrapper}.
+         */
+        final Map<String, ClassWrapper> merged;
+
+        private final Map<String, String> classMap = new HashMap<>();
+
+        Rewrite(final String outer, final String target, final Map<String, ClassWrapper> merged) {
+            this.outer = outer;
+            this.target = target;
+            this.merged = merged;
+            merged.keySet().forEach(name -> classMap.put(name, target));
+        }
+
+        ClassVisitor remap(final ClassVisitor wrapped) {
+            return new Remap(wrapped, new SimpleRemapper(classMap), classMap, merged);
+        }
+
+        /**
+         * Rewrite the enclosing class in memory.
+         * @param bytecode classfile content
+         * @return rewritten classfile content
+         */
+        byte[] apply(final byte[] bytecode) {
+            final ClassReader reader = new ClassReader(bytecode);
+            final ClassWriter writer = new CustomClassWriter(reader, 0);
+            reader.accept(remap(writer), 0);
+            completed();
+            return writer.toByteArray();
+        }
+
+        /**
+         * Delete the merged classes, now unreferenced.
+         */
+        void completed() {
+            for (final String name : merged.keySet()) {
+                if (env.deleteClassfile(name)) {
+                    env.debug("Deleted class %s", name);
+                } else {
+                    env.warn("Unable to delete class %s", name);
+                }
+                // the enclosing class now references the normalized class, whose existence depends upon the merged:
+                env.addDependency(outer, target.replace('/', '.'));
+                env.addDependency(target.replace('/', '.'), name.replace('/', '.'));
+            }
+        }
+    }
+
     private static class ClassWrapper {
         final Class<?> wrapped;
         final boolean mustRewriteConstructor;
@@ -342,22 +402,80 @@ public class Normalizer {
                 env.classLoader);
     }
 
+    /**
+     * Get the {@link ScanRequest} for the subtypes of the types to normalize.
+     * @return {@link ScanRequest}
+     * @since 2.1
+     */
+    public ScanRequest getScanRequest() {
+        return new ScanRequest().addSupertypes(normalizeTypes.toArray(new Class<?>[0]));
+    }
+
     /**
      * Normalize the classes found using the specified {@link Scanner}.
      * @param scanner to scan with
      * @return whether any work was done
      */
     public boolean normalize(final Scanner scanner) {
-        boolean result = false;
+        final Map<String, List<Rewrite>> rewrites = plan(scanner);
+        rewrites.forEach((outer, outerRewrites) -> outerRewrites.forEach(rewrite -> {
+            try (WeaveEvent event = WeaveEvent.begin("normalizer.rewrite", outer);
+                InputStream enclosingBytecode = env.getClassfile(outer).getInputStream()) {
+                final ClassReader reader = new ClassReader(enclosingBytecode);
+                reader.accept(rewrite.remap(new WriteClass(reader)), 0);
+            } catch (final IOException e) {
+                throw new IllegalStateException(e);
+            }
+            rewrite.completed();
+        }));
+        return !rewrites.isEmpty();
+    }
+
+    /**
+     * Plan the normalization of the classes found using the specified {@link Scanner} as transformations of the
+     * classfiles of their enclosing classes. Normalized classes are written as they are planned, whereas merged classes
+     * are deleted as their enclosing classes are transformed.
+     * @param scanner to scan with
+     * @return {@link Map} of binary class name to a transformation of the content of its classfile
+     * @since 2.1
+     */
+    public Map<String, UnaryOperator<byte[]>> getClassfileStages(final Scanner scanner) {
+        final Map<String, UnaryOperator<byte[]>> result = new LinkedHashMap<>();
+        plan(scanner).forEach((outer, outerRewrites) -> result.put(outer, bytecode -> {
+            try (WeaveEvent event = WeaveEvent.begin("normalizer.rewrite", outer)) {
+                byte[] rewritten = bytecode;
+                for (final Rewrite rewrite : outerRewrites) {
+                    rewritten = rewrite.apply(rewritten);
+                }
+                return rewritten;
+            }
+        }));
+        return result;
+    }
+
+    /**
+     * Write the normalized classes for those found using the specified {@link Scanner}, and plan the rewriting of
+     * their enclosing classes.
+     * @param scanner to scan with
+     * @return {@link Map} of enclosing class name to {@link Rewrite}s, in order
+     */
+    private Map<String, List<Rewrite>> plan(final Scanner scanner) {
+        final Map<String, List<Rewrite>> result = new LinkedHashMap<>();
         for (final Class<?> supertype : normalizeTypes) {
             final Set<Class<?>> subtypes = getBroadlyEligibleSubclasses(supertype, scanner);
             try {
-                final Map<Pair<String, String>, Set<ClassWrapper>> segregatedSubtypes = segregate(subtypes);
+                final Map<Pair<String, String>, Set<ClassWrapper>> segregatedSubtypes;
+                try (WeaveEvent event = WeaveEvent.begin("normalizer.segregate", supertype.getName())) {
+                    segregatedSubtypes = segregate(subtypes);
+                }
                 for (final Map.Entry<Pair<String, String>, Set<ClassWrapper>> entry : segregatedSubtypes.entrySet()) {
                     final Set<ClassWrapper> likeTypes = entry.getValue();
-                    if (likeTypes.size() > 1) {
-                        result = true;
-                        rewrite(entry.getKey(), likeTypes);
+                    // a lone class joins a normalized class left by a previous, e.g. incremental, weave:
+                    if (likeTypes.size() > 1 || exists(normalizedName(entry.getKey()))) {
+                        try (WeaveEvent event = WeaveEvent.begin("normalizer.merge", entry.getKey().getLeft())) {
+                            merge(entry.getKey(), likeTypes).forEach(
+                                rewrite -> result.computeIfAbsent(rewrite.outer, k -> new ArrayList<>()).add(rewrite));
+                        }
                     }
                 }
             } catch (final RuntimeException e) {
@@ -384,40 +502,57 @@ public class Normalizer {
     }
 
     /**
-     * Rewrite classes as indicated by one entry of {@link #segregate(Iterable)}.
+     * Merge classes as indicated by one entry of {@link #segregate(Iterable)}, writing the normalized class.
      * @param key {@link String} {@link Pair} indicating supertype and constructor signature
      * @param toMerge matching classes
+     * @return {@link Rewrite}s of the enclosing classes of {@code toMerge}
      * @throws IOException on I/O error
      */
-    private void rewrite(final Pair<String, String> key, final Set<ClassWrapper> toMerge) throws IOException {
+    private List<Rewrite> merge(final Pair<String, String> key, final Set<ClassWrapper> toMerge) throws IOException {
         final String target = copy(key, toMerge.iterator().next());
         env.info("Merging %s identical %s implementations with constructor %s to type %s", toMerge.size(),
             key.getLeft(), key.getRight(), target);
 
-        final Map<String, Map<String, ClassWrapper>> byEnclosingClass = byEnclosingClass(toMerge);
-        for (final Map.Entry<String, Map<String, ClassWrapper>> entry : byEnclosingClass.entrySet()) {
-            final String outer = entry.getKey();
-            env.debug("Normalizing %s inner classes of %s", entry.getValue().size(), outer);
-            final Map<String, String> classMap = new HashMap<>();
-            for (final String merged : entry.getValue().keySet()) {
-                classMap.put(merged, target);
-            }
-            final Remapper remapper = new SimpleRemapper(classMap);
+        final List<Rewrite> result = new ArrayList<>();
+        for (final Map.Entry<String, Map<String, ClassWrapper>> entry : byEnclosingClass(toMerge).entrySet()) {
+            env.debug("Normalizing %s inner classes of %s", entry.getValue().size(), entry.getKey());
+            result.add(new Rewrite(entry.getKey(), target, entry.getValue()));
+        }
+        return result;
+    }
 
-            try (InputStream enclosingBytecode = env.getClassfile(outer).getInputStream()) {
-                final ClassReader reader = new ClassReader(enclosingBytecode);
-                reader.accept(new Remap(new WriteClass(reader), remapper, classMap, entry.getValue()), 0);
-            }
-            for (final String merged : entry.getValue().keySet()) {
-                if (env.deleteClassfile(merged)) {
-                    env.debug("Deleted class %s", merged);
-                } else {
-                    env.warn("Unable to delete class %s", merged);
-                }
-            }
+    /**
+     * Learn whether the specified class exists in the woven classpath.
+     * @param className internal name
+     * @return {@code boolean}
+     * @throws IOException on I/O error
+     */
+    private boolean exists(final String className) throws IOException {
+        try (InputStream bytecode = env.getClassfile(className).getInputStream()) {
+            return bytecode != null;
         }
     }
 
+    /**
+     * Get the name of the class to which classes are normalized in the configured target package.
+     * @param key {@link String} {@link Pair} indicating supertype and constructor signature
+     * @return internal name
+     */
+    private String normalizedName(final Pair<String, String> key) {
+        final MessageDigest md5;
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        md5.update(key.getLeft().getBytes(StandardCharsets.UTF_8));
+        md5.update(key.getRight().getBytes(StandardCharsets.UTF_8));
+
+        final long digest = Conversion.byteArrayToLong(md5.digest(), 0, 0L, 0, Long.SIZE / Byte.SIZE);
+
+        return MessageFormat.format("{0}/$normalized{1,number,0;_0}", targetPackage, digest);
+    }
+
     /**
      * <p>Find subclasses/implementors of {code supertype} that:
      * <ul>
@@ -509,18 +644,7 @@ public class Normalizer {
      */
     private String copy(final Pair<String, String> key, final ClassWrapper classWrapper) throws IOException {
         env.debug("Copying %s to %s", key, targetPackage);
-        final MessageDigest md5;
-        try {
-            md5 = MessageDigest.getInstance("MD5");
-        } catch (final NoSuchAlgorithmException e) {
-            throw new IllegalStateException(e);
-        }
-        md5.update(key.getLeft().getBytes(StandardCharsets.UTF_8));
-        md5.update(key.getRight().getBytes(StandardCharsets.UTF_8));
-
-        final long digest = Conversion.byteArrayToLong(md5.digest(), 0, 0L, 0, Long.SIZE / Byte.SIZE);
-
-        final String result = MessageFormat.format("{0}/$normalized{1,number,0;_0}", targetPackage, digest);
+        final String result = normalizedName(key);
 
         env.debug("Copying class %s to %s", classWrapper.wrapped.getName(), result);
 
@@ -18,15 +18,29 @@
  */
 package org.apache.commons.weaver.normalizer;
 
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import org.apache.commons.weaver.model.ScanRequest;
 import org.apache.commons.weaver.model.Scanner;
 import org.apache.commons.weaver.model.WeaveEnvironment;
-import org.apache.commons.weaver.spi.Weaver;
+import org.apache.commons.weaver.spi.ClassfileWeaver;
 
 /**
  * The purpose of the normalizer module is to merge identical anonymous class definitions into a single type, thereby
  * "normalizing" them and reducing their collective footprint on your archive and more importantly on your JVM.
+ * Enclosing classes are rewritten as {@link ClassfileWeaver} stages, fused with those of any adjacent classfile
+ * weavers.
  */
-public class NormalizerWeaver implements Weaver {
+public class NormalizerWeaver implements ClassfileWeaver {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ScanRequest getScanRequest(final WeaveEnvironment environment) {
+        return new Normalizer(environment).getScanRequest();
+    }
 
     /**
      * {@inheritDoc}
@@ -35,4 +49,13 @@ public class NormalizerWeaver implements Weaver {
     public boolean process(final WeaveEnvironment environment, final Scanner scanner) {
         return new Normalizer(environment).normalize(scanner);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, UnaryOperator<byte[]>> getClassfileStages(final WeaveEnvironment environment,
+        final Scanner scanner) {
+        return new Normalizer(environment).getClassfileStages(scanner);
+    }
 }
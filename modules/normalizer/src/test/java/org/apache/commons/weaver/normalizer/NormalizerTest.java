@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.normalizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.reflect.TypeLiteral;
+import org.apache.commons.weaver.Consumes;
+import org.apache.commons.weaver.WeaveProcessor;
+import org.apache.commons.weaver.model.Scanner;
+import org.apache.commons.weaver.model.WeaveEnvironment;
+import org.apache.commons.weaver.normalizer.beans.Alpha;
+import org.apache.commons.weaver.normalizer.beans.Beta;
+import org.apache.commons.weaver.normalizer.beans.Gamma;
+import org.apache.commons.weaver.spi.ClassfileWeaver;
+import org.apache.commons.weaver.spi.Weaver;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test that incremental normalization leaves the same classfiles as a full weave of the same input.
+ */
+public class NormalizerTest {
+
+    /**
+     * {@link ClassfileWeaver} recording the content of {@link Alpha} as handed to it, and as it stands in the target
+     * directory at that time.
+     */
+    @Consumes(NormalizerWeaver.class)
+    private static class Inspect implements ClassfileWeaver {
+        final File target;
+        byte[] handed;
+        byte[] stored;
+
+        Inspect(final File target) {
+            this.target = target;
+        }
+
+        @Override
+        public boolean process(final WeaveEnvironment environment, final Scanner scanner) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<String, UnaryOperator<byte[]>> getClassfileStages(final WeaveEnvironment environment,
+            final Scanner scanner) {
+            return Collections.singletonMap(Alpha.class.getName(), bytecode -> {
+                handed = bytecode;
+                try {
+                    stored = Files.readAllBytes(new File(target, resourceName(Alpha.class)).toPath());
+                } catch (final IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                return bytecode;
+            });
+        }
+    }
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testIncrementalAddition() throws IOException {
+        final File incremental = temporaryFolder.newFolder("incremental");
+        final File manifest = new File(temporaryFolder.getRoot(), "weave.mf");
+        addClasses(incremental, Alpha.class, Beta.class);
+        weave(incremental, manifest);
+        assertFalse(normalized(incremental).isEmpty());
+
+        // a class compiled since joins the existing normalized class:
+        addClasses(incremental, Gamma.class);
+        weave(incremental, manifest);
+
+        final File full = temporaryFolder.newFolder("full");
+        addClasses(full, Alpha.class, Beta.class, Gamma.class);
+        weave(full, null);
+
+        assertEquals(classfiles(full), classfiles(incremental));
+    }
+
+    @Test
+    public void testIncrementalRemoval() throws IOException {
+        final File incremental = temporaryFolder.newFolder("incremental");
+        final File manifest = new File(temporaryFolder.getRoot(), "weave.mf");
+        addClasses(incremental, Alpha.class, Beta.class);
+        weave(incremental, manifest);
+        assertFalse(normalized(incremental).isEmpty());
+
+        // leaves the anonymous class of Alpha with no like type; the normalized class must go:
+        assertTrue(new File(incremental, resourceName(Beta.class)).delete());
+        weave(incremental, manifest);
+
+        final File full = temporaryFolder.newFolder("full");
+        addClasses(full, Alpha.class);
+        weave(full, null);
+
+        assertTrue(normalized(full).isEmpty());
+        assertEquals(classfiles(full), classfiles(incremental));
+    }
+
+    @Test
+    public void testFusedWithClassfileWeaver() throws IOException {
+        final File target = temporaryFolder.newFolder("fused");
+        addClasses(target, Alpha.class, Beta.class);
+        final byte[] original = Files.readAllBytes(new File(target, resourceName(Alpha.class)).toPath());
+
+        final Inspect inspect = new Inspect(target);
+        weave(target, null, Arrays.asList(new NormalizerWeaver(), inspect));
+
+        // the normalized class was handed over in memory, and written once both stages had been applied:
+        assertNotNull(inspect.handed);
+        assertArrayEquals(original, inspect.stored);
+        final List<String> instantiated = instantiated(inspect.handed);
+        assertEquals(1, instantiated.size());
+        assertTrue(instantiated.get(0).contains("/$normalized"));
+        assertArrayEquals(inspect.handed, Files.readAllBytes(new File(target, resourceName(Alpha.class)).toPath()));
+        assertFalse(new File(target, resourceName(Alpha.class).replace(".class", "$1.class")).exists());
+    }
+
+    /**
+     * Get the types instantiated by a class.
+     * @param bytecode classfile content
+     * @return {@link List} of internal names
+     */
+    private static List<String> instantiated(final byte[] bytecode) {
+        final List<String> result = new ArrayList<>();
+        new ClassReader(bytecode).accept(new ClassVisitor(Normalizer.ASM_VERSION) {
+
+            @Override
+            public MethodVisitor visitMethod(final int access, final String name, final String descriptor,
+                final String signature, final String[] exceptions) {
+                return new MethodVisitor(Normalizer.ASM_VERSION) {
+
+                    @Override
+                    public void visitTypeInsn(final int opcode, final String type) {
+                        if (opcode == Opcodes.NEW) {
+                            result.add(type);
+                        }
+                    }
+                };
+            }
+        }, 0);
+        return result;
+    }
+
+    private static void weave(final File target, final File manifest) {
+        weave(target, manifest, Collections.<Weaver> singletonList(new NormalizerWeaver()));
+    }
+
+    private static void weave(final File target, final File manifest, final List<Weaver> weavers) {
+        final Properties config = new Properties();
+        config.setProperty(Normalizer.CONFIG_SUPER_TYPES, TypeLiteral.class.getName());
+        config.setProperty(Normalizer.CONFIG_TARGET_PACKAGE, Alpha.class.getPackage().getName());
+        if (manifest != null) {
+            config.setProperty(WeaveProcessor.CONFIG_MANIFEST, manifest.getPath());
+        }
+        new WeaveProcessor(Collections.singletonList(target.getPath()), target, config, weavers).weave();
+    }
+
+    private static String resourceName(final Class<?> type) {
+        return type.getName().replace('.', '/') + ".class";
+    }
+
+    /**
+     * Copy the classfiles of the specified classes, and of the anonymous class each declares, to a target directory.
+     * @param target directory
+     * @param types to copy
+     * @throws IOException on error
+     */
+    private static void addClasses(final File target, final Class<?>... types) throws IOException {
+        for (final Class<?> type : types) {
+            for (final String resourceName : new String[] { resourceName(type),
+                resourceName(type).replace(".class", "$1.class") }) {
+                final Path path = new File(target, resourceName).toPath();
+                Files.createDirectories(path.getParent());
+                try (InputStream bytecode = NormalizerTest.class.getClassLoader().getResourceAsStream(resourceName)) {
+                    Files.copy(bytecode, path);
+                }
+            }
+        }
+    }
+
+    private static Map<String, String> classfiles(final File target) throws IOException {
+        final Map<String, String> result = new TreeMap<>();
+        final Path root = target.toPath();
+        try (Stream<Path> files = Files.walk(root)) {
+            for (final Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                result.put(root.relativize(file).toString().replace(File.separatorChar, '/'),
+                    Base64.getEncoder().encodeToString(Files.readAllBytes(file)));
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, String> normalized(final File target) throws IOException {
+        final Map<String, String> result = classfiles(target);
+        result.keySet().removeIf(resourceName -> !resourceName.contains("/$normalized"));
+        return result;
+    }
+}
@@ -22,7 +22,6 @@ import java.io.InputStream;
 import java.lang.invoke.LambdaMetafactory;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -111,20 +110,20 @@ class BlueprintingVisitor extends Privilizer.PrivilizerClassVisitor {
      * Create a new {@link BlueprintingVisitor}.
      * @param privilizer owner
      * @param nextVisitor wrapped
-     * @param config annotation
+     * @param blueprints {@link Map} of blueprint {@link Type} to method names, where none specifies all methods
      */
     BlueprintingVisitor(@SuppressWarnings("PMD.UnusedFormalParameter") final Privilizer privilizer, //false positive
         final ClassVisitor nextVisitor,
-        final Privilizing config) {
+        final Map<Type, Set<String>> blueprints) {
         privilizer.super(new ClassNode(Privilizer.ASM_VERSION));
         this.nextVisitor = nextVisitor;
 
         // load up blueprint methods:
-        for (final Privilizing.CallTo callTo : config.value()) {
-            final Type blueprintType = Type.getType(callTo.value());
+        for (final Map.Entry<Type, Set<String>> blueprint : blueprints.entrySet()) {
+            final Type blueprintType = blueprint.getKey();
             blueprintTypes.add(blueprintType);
 
-            final Set<String> methodNames = new HashSet<>(Arrays.asList(callTo.methods()));
+            final Set<String> methodNames = blueprint.getValue();
 
             typeInfo(blueprintType).methods.entrySet().stream()
                 .filter(e -> methodNames.isEmpty() || methodNames.contains(e.getKey().getName()))
@@ -23,13 +23,20 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
+import org.apache.commons.weaver.model.BytecodeAnnotation;
 import org.apache.commons.weaver.model.WeaveEnvironment;
+import org.apache.commons.weaver.utils.WeaveEvent;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
@@ -88,26 +95,46 @@ public class Privilizer {
     }
 
     /**
-     * Convenient {@link ClassVisitor} layer to write classfiles into the {@link WeaveEnvironment}.
+     * Convenient {@link ClassVisitor} layer to capture, and optionally verify, transformed classfiles.
      */
-    class WriteClass extends PrivilizerClassVisitor {
+    class TransformClass extends PrivilizerClassVisitor {
+        byte[] bytecode;
 
-        WriteClass(final ClassReader classReader, final int flags) {
+        TransformClass(final ClassReader classReader, final int flags) {
             super(new CustomClassWriter(classReader, flags));
         }
 
-        WriteClass(final int flags) {
+        TransformClass(final int flags) {
             super(new CustomClassWriter(flags));
         }
 
         @Override
         public void visitEnd() {
             super.visitEnd();
-            final byte[] bytecode = ((ClassWriter) cv).toByteArray();
+            bytecode = ((ClassWriter) cv).toByteArray();
 
             if (verify) {
                 verify(className, bytecode);
             }
+        }
+    }
+
+    /**
+     * Convenient {@link ClassVisitor} layer to write classfiles into the {@link WeaveEnvironment}.
+     */
+    class WriteClass extends TransformClass {
+
+        WriteClass(final ClassReader classReader, final int flags) {
+            super(classReader, flags);
+        }
+
+        WriteClass(final int flags) {
+            super(flags);
+        }
+
+        @Override
+        public void visitEnd() {
+            super.visitEnd();
             final WeaveEnvironment.Resource classfile = env.getClassfile(className);
             env.debug("Writing class %s to resource %s", className, classfile.getName());
             try (OutputStream outputStream = classfile.getOutputStream()) {
@@ -144,6 +171,7 @@ public class Privilizer {
     private static final String GENERATE_NAME = "__privileged_%s";
 
     static final int ASM_VERSION = Opcodes.ASM6;
+    private static final int WRITE_FLAGS = ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS;
     static final Type[] EMPTY_TYPE_ARRAY = new Type[0];
 
     static Type wrap(final Type type) {
@@ -191,64 +219,139 @@ public class Privilizer {
         return String.format(GENERATE_NAME, simple);
     }
 
-    void blueprint(final Class<?> type, final Privilizing privilizing) {
-        final Object[] args = { type.getName(), privilizing };
-        env.debug("blueprinting class %s %s", args);
-        try (InputStream bytecode = env.getClassfile(type).getInputStream()) {
-            final ClassReader classReader = new ClassReader(bytecode);
+    /**
+     * Get the blueprint types and method names specified by a {@link Privilizing} annotation.
+     * @param privilizing {@link BytecodeAnnotation} of type {@link Privilizing}
+     * @return {@link Map} of blueprint {@link Type} to method names, where none specifies all methods
+     */
+    static Map<Type, Set<String>> blueprints(final BytecodeAnnotation privilizing) {
+        Validate.isTrue(Privilizing.class.getName().equals(privilizing.getType()), "%s is not @%s", privilizing,
+            Privilizing.class.getName());
+        final Map<Type, Set<String>> result = new LinkedHashMap<>();
+        for (final Object callTo : (List<?>) privilizing.getValue("value")) {
+            final BytecodeAnnotation.ClassLiteral blueprint =
+                (BytecodeAnnotation.ClassLiteral) ((BytecodeAnnotation) callTo).getValue("value");
+            final List<?> methods = (List<?>) ((BytecodeAnnotation) callTo).getValue("methods");
+
+            final Set<String> methodNames = result.computeIfAbsent(Type.getType(blueprint.getDescriptor()),
+                k -> new LinkedHashSet<>());
+            if (methods != null) {
+                methods.forEach(m -> methodNames.add((String) m));
+            }
+        }
+        return result;
+    }
 
-            ClassVisitor cvr;
-            cvr = new WriteClass(classReader, ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
-            cvr = new PrivilizingVisitor(this, cvr);
-            cvr = new BlueprintingVisitor(this, cvr, privilizing);
+    /**
+     * Get the blueprint types and method names specified by a loaded {@link Privilizing} annotation.
+     * @param privilizing {@link Privilizing}
+     * @return {@link Map} of blueprint {@link Type} to method names, where none specifies all methods
+     */
+    static Map<Type, Set<String>> blueprints(final Privilizing privilizing) {
+        final Map<Type, Set<String>> result = new LinkedHashMap<>();
+        for (final Privilizing.CallTo callTo : privilizing.value()) {
+            Collections.addAll(result.computeIfAbsent(Type.getType(callTo.value()), k -> new LinkedHashSet<>()),
+                callTo.methods());
+        }
+        return result;
+    }
 
-            classReader.accept(cvr, ClassReader.EXPAND_FRAMES);
+    void blueprint(final String className, final Map<Type, Set<String>> blueprints) {
+        try (WeaveEvent event = WeaveEvent.begin("privilizer.blueprint", className);
+            InputStream bytecode = env.getClassfile(className).getInputStream()) {
+            final ClassReader classReader = new ClassReader(bytecode);
+            classReader.accept(blueprinting(className, blueprints, new WriteClass(classReader, WRITE_FLAGS)),
+                ClassReader.EXPAND_FRAMES);
         } catch (final Exception e) {
             throw new IllegalStateException(e);
         }
     }
 
-    void privilize(final Class<?> type) {
-        final Object[] args = { type.getName() };
-        env.debug("privilizing class %s", args);
-        try (InputStream bytecode = env.getClassfile(type).getInputStream()) {
+    /**
+     * Blueprint a class in memory.
+     * @param className binary name of class
+     * @param blueprints as returned by {@link #blueprints(BytecodeAnnotation)}
+     * @param bytecode classfile content
+     * @return transformed classfile content
+     */
+    byte[] blueprint(final String className, final Map<Type, Set<String>> blueprints, final byte[] bytecode) {
+        try (WeaveEvent event = WeaveEvent.begin("privilizer.blueprint", className)) {
             final ClassReader classReader = new ClassReader(bytecode);
-            ClassVisitor cv; // NOPMD
-            cv = new WriteClass(classReader, ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
-            cv = new PrivilizingVisitor(this, cv);
+            final TransformClass transform = new TransformClass(classReader, WRITE_FLAGS);
+            classReader.accept(blueprinting(className, blueprints, transform), ClassReader.EXPAND_FRAMES);
+            return transform.bytecode;
+        }
+    }
+
+    private ClassVisitor blueprinting(final String className, final Map<Type, Set<String>> blueprints,
+        final TransformClass transform) {
+        final Object[] args = { className, blueprints };
+        env.debug("blueprinting class %s %s", args);
+        blueprints.keySet().forEach(blueprint -> env.addDependency(className, blueprint.getClassName()));
 
-            classReader.accept(cv, ClassReader.EXPAND_FRAMES);
+        return new BlueprintingVisitor(this, new PrivilizingVisitor(this, transform), blueprints);
+    }
+
+    void privilize(final String className) {
+        try (WeaveEvent event = WeaveEvent.begin("privilizer.privilize", className);
+            InputStream bytecode = env.getClassfile(className).getInputStream()) {
+            final ClassReader classReader = new ClassReader(bytecode);
+            classReader.accept(privilizing(className, new WriteClass(classReader, WRITE_FLAGS)),
+                ClassReader.EXPAND_FRAMES);
         } catch (final Exception e) {
             throw new IllegalStateException(e);
         }
     }
 
+    /**
+     * Privilize a class in memory.
+     * @param className binary name of class
+     * @param bytecode classfile content
+     * @return transformed classfile content
+     */
+    byte[] privilize(final String className, final byte[] bytecode) {
+        try (WeaveEvent event = WeaveEvent.begin("privilizer.privilize", className)) {
+            final ClassReader classReader = new ClassReader(bytecode);
+            final TransformClass transform = new TransformClass(classReader, WRITE_FLAGS);
+            classReader.accept(privilizing(className, transform), ClassReader.EXPAND_FRAMES);
+            return transform.bytecode;
+        }
+    }
+
+    private ClassVisitor privilizing(final String className, final TransformClass transform) {
+        final Object[] args = { className };
+        env.debug("privilizing class %s", args);
+        return new PrivilizingVisitor(this, transform);
+    }
+
     void verify(final String className, final byte[] bytecode) {
-        final ClassReader reader = new ClassReader(bytecode);
-
-        env.debug("Verifying bytecode for class %s", className);
-        final StringWriter w = new StringWriter(); //NOPMD
-        CheckClassAdapter.verify(reader, env.classLoader, false, new PrintWriter(w));
-        final String error = w.toString();
-        if (!error.isEmpty()) {
-            env.error(error);
-            final StringWriter trace = new StringWriter();
-            reader.accept(new TraceClassVisitor(new PrintWriter(trace)), ClassReader.SKIP_DEBUG);
-            env.debug(trace.toString());
-            throw new IllegalStateException();
-        }
-        Validate.validState(StringUtils.isBlank(error), error);
-
-        final ClassVisitor checkInnerClasses = new ClassVisitor(ASM_VERSION, null) {
-            final Set<String> innerNames = new HashSet<>();
-
-            @Override
-            public void visitInnerClass(final String name, final String outerName, final String innerName,
-                final int access) {
-                super.visitInnerClass(name, outerName, innerName, access);
-                Validate.validState(innerNames.add(innerName), "%s already defined", innerName);
+        try (WeaveEvent event = WeaveEvent.begin("privilizer.verify", className)) {
+            final ClassReader reader = new ClassReader(bytecode);
+
+            env.debug("Verifying bytecode for class %s", className);
+            final StringWriter w = new StringWriter(); //NOPMD
+            CheckClassAdapter.verify(reader, env.classLoader, false, new PrintWriter(w));
+            final String error = w.toString();
+            if (!error.isEmpty()) {
+                env.error(error);
+                final StringWriter trace = new StringWriter();
+                reader.accept(new TraceClassVisitor(new PrintWriter(trace)), ClassReader.SKIP_DEBUG);
+                env.debug(trace.toString());
+                throw new IllegalStateException();
             }
-        };
-        reader.accept(checkInnerClasses, ClassReader.SKIP_CODE);
+            Validate.validState(StringUtils.isBlank(error), error);
+
+            final ClassVisitor checkInnerClasses = new ClassVisitor(ASM_VERSION, null) {
+                final Set<String> innerNames = new HashSet<>();
+
+                @Override
+                public void visitInnerClass(final String name, final String outerName, final String innerName,
+                    final int access) {
+                    super.visitInnerClass(name, outerName, innerName, access);
+                    Validate.validState(innerNames.add(innerName), "%s already defined", innerName);
+                }
+            };
+            reader.accept(checkInnerClasses, ClassReader.SKIP_CODE);
+        }
     }
 }
@@ -21,8 +21,13 @@ package org.apache.commons.weaver.privilizer;
 import java.io.InputStream;
 import java.lang.annotation.ElementType;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.apache.commons.weaver.model.BytecodeAnnotation;
+import org.apache.commons.weaver.model.BytecodeClass;
+import org.apache.commons.weaver.model.BytecodeScanner;
 import org.apache.commons.weaver.model.ScanRequest;
 import org.apache.commons.weaver.model.Scanner;
 import org.apache.commons.weaver.model.WeavableClass;
@@ -37,21 +42,24 @@ import org.objectweb.asm.ClassVisitor;
  */
 public class PrivilizerCleaner implements Cleaner {
 
+    @Override
+    public ScanRequest getScanRequest(final WeaveEnvironment environment) {
+        return new ScanRequest().add(WeaveInterest.of(Privilized.class, ElementType.TYPE));
+    }
+
     @Override
     public boolean clean(final WeaveEnvironment environment, final Scanner scanner) {
         final Privilizer privilizer = new Privilizer(environment);
 
         final List<String> toDelete = new ArrayList<>();
 
-        final ScanRequest scanRequest = new ScanRequest().add(WeaveInterest.of(Privilized.class, ElementType.TYPE));
-
         environment.debug("Cleaning classes privilized with policy other than %s", privilizer.policy);
-        for (final WeavableClass<?> weavableClass : scanner.scan(scanRequest).getClasses().with(Privilized.class)) {
-            final Policy privilizedPolicy = Policy.valueOf(weavableClass.getAnnotation(Privilized.class).value());
+        for (final Map.Entry<String, Policy> privilized : privilized(environment, scanner).entrySet()) {
+            final Policy privilizedPolicy = privilized.getValue();
             if (privilizedPolicy == privilizer.policy) {
                 continue;
             }
-            final String className = weavableClass.getTarget().getName();
+            final String className = privilized.getKey();
             environment.debug("Class %s privilized with %s; deleting.", className, privilizedPolicy);
 
             try (InputStream bytecode = privilizer.env.getClassfile(className).getInputStream()) {
@@ -86,6 +94,32 @@ public class PrivilizerCleaner implements Cleaner {
         return result;
     }
 
+    /**
+     * Find the classes already privilized. A {@link BytecodeScanner} is consulted if available, such that scanned
+     * classes need not be loaded; otherwise the reflective model of {@code scanner} is used.
+     * @param environment to use
+     * @param scanner to use
+     * @return {@link Map} of class name to the {@link Policy} with which it was privilized
+     */
+    private Map<String, Policy> privilized(final WeaveEnvironment environment, final Scanner scanner) {
+        final Map<String, Policy> result = new LinkedHashMap<>();
+        if (scanner instanceof BytecodeScanner) {
+            for (final BytecodeClass type : ((BytecodeScanner) scanner).scanBytecode(getScanRequest(environment))
+                .getClasses()) {
+                final BytecodeAnnotation marker = type.getAnnotation(Privilized.class);
+                if (marker != null) {
+                    result.put(type.getName(), Policy.valueOf((String) marker.getValue("value")));
+                }
+            }
+        } else {
+            for (final WeavableClass<?> type : scanner.scan(getScanRequest(environment)).getClasses()
+                .with(Privilized.class)) {
+                result.put(type.getTarget().getName(), Policy.valueOf(type.getAnnotation(Privilized.class).value()));
+            }
+        }
+        return result;
+    }
+
     private static String toResourcePath(final String className) {
         return className.replace('.', '/') + ".class";
     }
@@ -19,63 +19,158 @@
 package org.apache.commons.weaver.privilizer;
 
 import java.lang.annotation.ElementType;
-import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 
 import org.apache.commons.lang3.Validate;
+import org.apache.commons.weaver.model.BytecodeAnnotation;
+import org.apache.commons.weaver.model.BytecodeClass;
+import org.apache.commons.weaver.model.BytecodeScanner;
 import org.apache.commons.weaver.model.ScanRequest;
 import org.apache.commons.weaver.model.Scanner;
 import org.apache.commons.weaver.model.WeavableClass;
 import org.apache.commons.weaver.model.WeaveEnvironment;
 import org.apache.commons.weaver.model.WeaveInterest;
-import org.apache.commons.weaver.spi.Weaver;
+import org.apache.commons.weaver.spi.ClassfileWeaver;
+import org.apache.commons.weaver.spi.Weaver; //NOPMD used in Javadoc
+import org.objectweb.asm.Type;
 
 /**
  * Privilizer {@link Weaver} implementation.
  */
-public class PrivilizerWeaver implements Weaver {
+public class PrivilizerWeaver implements ClassfileWeaver {
+    private static final WeaveInterest PRIVILIZING_TYPES = WeaveInterest.of(Privilizing.class, ElementType.TYPE);
+    private static final WeaveInterest PRIVILEGED_METHODS = WeaveInterest.of(Privileged.class, ElementType.METHOD);
+
+    @Override
+    public ScanRequest getScanRequest(final WeaveEnvironment environment) {
+        return new ScanRequest().add(PRIVILIZING_TYPES).add(PRIVILEGED_METHODS);
+    }
+
     @Override
     public boolean process(final WeaveEnvironment weaveEnvironment, final Scanner scanner) {
         final Privilizer privilizer = new Privilizer(weaveEnvironment);
+        final Map<String, Map<Type, Set<String>>> privilizedTypes = select(privilizer, scanner);
+
+        privilizedTypes.forEach((className, blueprints) -> {
+            if (blueprints == null) {
+                privilizer.privilize(className);
+            } else {
+                privilizer.blueprint(className, blueprints);
+            }
+        });
+        return !privilizedTypes.isEmpty();
+    }
+
+    @Override
+    public Map<String, UnaryOperator<byte[]>> getClassfileStages(final WeaveEnvironment environment,
+        final Scanner scanner) {
+        final Privilizer privilizer = new Privilizer(environment);
+        final Map<String, UnaryOperator<byte[]>> result = new LinkedHashMap<>();
 
-        final Set<Class<?>> privilizedTypes = new LinkedHashSet<>();
+        select(privilizer, scanner).forEach((className, blueprints) -> result.put(className,
+            blueprints == null ? bytecode -> privilizer.privilize(className, bytecode)
+                : bytecode -> privilizer.blueprint(className, blueprints, bytecode)));
+        return result;
+    }
+
+    /**
+     * Select the types to privilize. A {@link BytecodeScanner} is consulted if available, such that scanned classes
+     * need not be loaded; otherwise the reflective model of {@code scanner} is used.
+     * @param privilizer whose configuration to consult
+     * @param scanner to use
+     * @return {@link Map} of class name to blueprints, {@code null} for a class only declaring {@link Privileged}
+     *         methods
+     */
+    private Map<String, Map<Type, Set<String>>> select(final Privilizer privilizer, final Scanner scanner) {
+        if (!(scanner instanceof BytecodeScanner)) {
+            return selectReflectively(privilizer, scanner);
+        }
+        final BytecodeScanner bytecodeScanner = (BytecodeScanner) scanner;
+        final Map<String, Map<Type, Set<String>>> result = new LinkedHashMap<>();
 
         // handle blueprints:
-        for (final WeavableClass<?> type : scanner.scan(
-            new ScanRequest().add(WeaveInterest.of(Privilizing.class, ElementType.TYPE))).getClasses()) {
+        for (final BytecodeClass type : bytecodeScanner.scanBytecode(new ScanRequest().add(PRIVILIZING_TYPES))
+            .getClasses()) {
 
-            final Class<?> target = type.getTarget();
-            if (privilizedTypes.add(target) && validateRequest(privilizer, type)) {
-                privilizer.blueprint(target, type.getAnnotation(Privilizing.class));
+            final BytecodeAnnotation privilizing = type.getAnnotation(Privilizing.class);
+            if (privilizing != null && !result.containsKey(type.getName())
+                && validateRequest(privilizer, type.getName(), policyOf(type.getAnnotation(Privilized.class)))) {
+                result.put(type.getName(), Privilizer.blueprints(privilizing));
             }
         }
 
         // handle remaining classes declaring @Privileged methods:
 
-        for (final WeavableClass<?> type : scanner.scan(
-            new ScanRequest().add(WeaveInterest.of(Privileged.class, ElementType.METHOD))).getClasses()) {
-            final Class<?> target = type.getTarget();
-            if (privilizedTypes.add(target) && validateRequest(privilizer, type)) {
-                privilizer.privilize(target);
+        for (final BytecodeClass type : bytecodeScanner.scanBytecode(new ScanRequest().add(PRIVILEGED_METHODS))
+            .getClasses()) {
+            if (!result.containsKey(type.getName())
+                && validateRequest(privilizer, type.getName(), policyOf(type.getAnnotation(Privilized.class)))) {
+                result.put(type.getName(), null);
             }
         }
-        return !privilizedTypes.isEmpty();
+        return result;
+    }
+
+    /**
+     * Select the types to privilize using the reflective model, which loads the scanned classes.
+     * @param privilizer whose configuration to consult
+     * @param scanner to use
+     * @return {@link Map} of class name to blueprints, {@code null} for a class only declaring {@link Privileged}
+     *         methods
+     */
+    private Map<String, Map<Type, Set<String>>> selectReflectively(final Privilizer privilizer,
+        final Scanner scanner) {
+        final Map<String, Map<Type, Set<String>>> result = new LinkedHashMap<>();
+
+        // handle blueprints:
+        for (final WeavableClass<?> type : scanner.scan(new ScanRequest().add(PRIVILIZING_TYPES)).getClasses()) {
+            final String className = type.getTarget().getName();
+            final Privilizing privilizing = type.getAnnotation(Privilizing.class);
+
+            if (privilizing != null && !result.containsKey(className)
+                && validateRequest(privilizer, className, policyOf(type.getAnnotation(Privilized.class)))) {
+                result.put(className, Privilizer.blueprints(privilizing));
+            }
+        }
+
+        // handle remaining classes declaring @Privileged methods:
+
+        for (final WeavableClass<?> type : scanner.scan(new ScanRequest().add(PRIVILEGED_METHODS)).getClasses()) {
+            final String className = type.getTarget().getName();
+            if (!result.containsKey(className)
+                && validateRequest(privilizer, className, policyOf(type.getAnnotation(Privilized.class)))) {
+                result.put(className, null);
+            }
+        }
+        return result;
+    }
+
+    private static String policyOf(final BytecodeAnnotation marker) {
+        return marker == null ? null : (String) marker.getValue("value");
+    }
+
+    private static String policyOf(final Privilized marker) {
+        return marker == null ? null : marker.value();
     }
 
     /**
      * Validate a weaving request for a given target type.
      * @param privilizer whose configuration to consult
-     * @param type target
+     * @param className target
+     * @param privilizedPolicy name of the policy with which the target is already privilized, if any
      * @return whether weaving should proceed
      * @throws IllegalStateException if class has already been woven with some other policy
      */
-    private boolean validateRequest(final Privilizer privilizer, final WeavableClass<?> type) {
-        final Privilized marker = type.getAnnotation(Privilized.class);
-        if (marker == null) {
+    private boolean validateRequest(final Privilizer privilizer, final String className,
+        final String privilizedPolicy) {
+        if (privilizedPolicy == null) {
             return privilizer.policy != Policy.NEVER;
         }
-        Validate.validState(privilizer.policy.name().equals(marker.value()), "%s already privilized with policy %s",
-            type.getTarget().getName(), marker.value());
+        Validate.validState(privilizer.policy.name().equals(privilizedPolicy), "%s already privilized with policy %s",
+            className, privilizedPolicy);
 
         return false;
     }
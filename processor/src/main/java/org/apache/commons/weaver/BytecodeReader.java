@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.apache.commons.weaver.model.BytecodeAnnotation;
+import org.apache.commons.weaver.model.BytecodeClass;
+import org.apache.commons.weaver.model.BytecodeField;
+import org.apache.commons.weaver.model.BytecodeMethod;
+import org.apache.xbean.asm6.AnnotationVisitor;
+import org.apache.xbean.asm6.ClassReader;
+import org.apache.xbean.asm6.ClassVisitor;
+import org.apache.xbean.asm6.FieldVisitor;
+import org.apache.xbean.asm6.MethodVisitor;
+import org.apache.xbean.asm6.Opcodes;
+import org.apache.xbean.asm6.Type;
+
+/**
+ * Builds {@link BytecodeClass} models from classfiles, without loading any class.
+ */
+class BytecodeReader extends ClassVisitor {
+    private static final int ASM_VERSION = Opcodes.ASM6;
+
+    private static class AnnotationReader extends AnnotationVisitor {
+        private final Consumer<Object> target;
+        private final String type;
+        private final boolean visible;
+        private final Map<String, Object> values = new LinkedHashMap<>();
+
+        AnnotationReader(final String desc, final boolean visible, final Consumer<Object> target) {
+            super(ASM_VERSION);
+            this.type = desc == null ? null : toClassName(desc);
+            this.visible = visible;
+            this.target = target;
+        }
+
+        void store(final String name, final Object value) {
+            values.put(name, value);
+        }
+
+        @Override
+        public void visit(final String name, final Object value) {
+            store(name, toModel(value));
+        }
+
+        @Override
+        public void visitEnum(final String name, final String desc, final String value) {
+            store(name, new BytecodeAnnotation.EnumConstant(toClassName(desc), value));
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(final String name, final String desc) {
+            return new AnnotationReader(desc, visible, value -> store(name, value));
+        }
+
+        @Override
+        public AnnotationVisitor visitArray(final String name) {
+            final List<Object> elements = new ArrayList<>();
+            return new AnnotationReader(null, visible, elements::add) {
+
+                @Override
+                void store(final String name, final Object value) {
+                    elements.add(value);
+                }
+
+                @Override
+                public void visitEnd() {
+                    AnnotationReader.this.store(name, Collections.unmodifiableList(elements));
+                }
+            };
+        }
+
+        @Override
+        public void visitEnd() {
+            target.accept(new BytecodeAnnotation(type, visible, values));
+        }
+    }
+
+    /**
+     * Read the specified classfile.
+     * @param bytecode to read, not closed
+     * @return {@link BytecodeClass}
+     * @throws IOException on error
+     */
+    static BytecodeClass read(final InputStream bytecode) throws IOException {
+        final BytecodeReader reader = new BytecodeReader();
+        new ClassReader(bytecode).accept(reader, Finder.ASM_FLAGS);
+        return reader.result;
+    }
+
+    private static String toClassName(final String desc) {
+        return Type.getType(desc).getClassName();
+    }
+
+    private static String toClassNameOrNull(final String internalName) {
+        return internalName == null ? null : Type.getObjectType(internalName).getClassName();
+    }
+
+    private static Object toModel(final Object value) {
+        if (value instanceof Type) {
+            return new BytecodeAnnotation.ClassLiteral(((Type) value).getDescriptor());
+        }
+        if (value != null && value.getClass().isArray()) {
+            // ASM reports primitive arrays directly:
+            return Collections.unmodifiableList(IntStream.range(0, Array.getLength(value))
+                .mapToObj(i -> Array.get(value, i)).collect(Collectors.toList()));
+        }
+        return value;
+    }
+
+    private int access;
+    private String name;
+    private String superName;
+    private List<String> interfaces;
+    private final List<BytecodeAnnotation> annotations = new ArrayList<>();
+    private final List<BytecodeField> fields = new ArrayList<>();
+    private final List<BytecodeMethod> methods = new ArrayList<>();
+    private BytecodeClass result;
+
+    private BytecodeReader() {
+        super(ASM_VERSION);
+    }
+
+    @Override
+    @SuppressWarnings("PMD.UseVarargs") // overridden method
+    public void visit(final int version, final int access, final String name, final String signature,
+        final String superName, final String[] interfaces) {
+        this.access = access;
+        this.name = toClassNameOrNull(name);
+        this.superName = toClassNameOrNull(superName);
+        this.interfaces = interfaces == null ? Collections.emptyList()
+            : Stream.of(interfaces).map(BytecodeReader::toClassNameOrNull).collect(Collectors.toList());
+    }
+
+    @Override
+    public AnnotationVisitor visitAnnotation(final String desc, final boolean visible) {
+        return new AnnotationReader(desc, visible, a -> annotations.add((BytecodeAnnotation) a));
+    }
+
+    @Override
+    public FieldVisitor visitField(final int access, final String name, final String desc, final String signature,
+        final Object value) {
+        final List<BytecodeAnnotation> fieldAnnotations = new ArrayList<>();
+        return new FieldVisitor(ASM_VERSION) {
+
+            @Override
+            public AnnotationVisitor visitAnnotation(final String desc, final boolean visible) {
+                return new AnnotationReader(desc, visible, a -> fieldAnnotations.add((BytecodeAnnotation) a));
+            }
+
+            @Override
+            public void visitEnd() {
+                fields.add(new BytecodeField(BytecodeReader.this.name, access, name, desc, fieldAnnotations));
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("PMD.UseVarargs") // overridden method
+    public MethodVisitor visitMethod(final int access, final String name, final String desc,
+        final String signature, final String[] exceptions) {
+        final List<BytecodeAnnotation> methodAnnotations = new ArrayList<>();
+        final List<List<BytecodeAnnotation>> parameterAnnotations = new ArrayList<>();
+        return new MethodVisitor(ASM_VERSION) {
+
+            @Override
+            public AnnotationVisitor visitAnnotation(final String desc, final boolean visible) {
+                return new AnnotationReader(desc, visible, a -> methodAnnotations.add((BytecodeAnnotation) a));
+            }
+
+            @Override
+            public AnnotationVisitor visitParameterAnnotation(final int parameter, final String desc,
+                final boolean visible) {
+                while (parameterAnnotations.size() <= parameter) {
+                    parameterAnnotations.add(new ArrayList<>());
+                }
+                return new AnnotationReader(desc, visible,
+                    a -> parameterAnnotations.get(parameter).add((BytecodeAnnotation) a));
+            }
+
+            @Override
+            public void visitEnd() {
+                methods.add(new BytecodeMethod(BytecodeReader.this.name, access, name, desc, methodAnnotations,
+                    parameterAnnotations));
+            }
+        };
+    }
+
+    @Override
+    public void visitEnd() {
+        result = new BytecodeClass(access, name, superName, interfaces, annotations, fields, methods);
+    }
+}
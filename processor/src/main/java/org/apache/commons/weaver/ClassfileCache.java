@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Size-bounded, least-recently-used cache of classfile content shared by the weave environments and {@link Finder}
+ * of a processor run, such that a classfile read by several parties, e.g. by the scan and again by each weaver, or a
+ * blueprint type read once per privilized class, is read from disk once. Entries are invalidated as resources are
+ * written or deleted.
+ */
+final class ClassfileCache {
+
+    /**
+     * Source of classfile content upon a cache miss.
+     */
+    @FunctionalInterface
+    interface Loader {
+
+        /**
+         * Load the content of a classfile.
+         * @return {@code byte[]}, {@code null} if not found
+         * @throws IOException on error
+         */
+        byte[] load() throws IOException;
+    }
+
+    private final long capacity;
+    private final Map<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+    private long generation;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Create a new {@link ClassfileCache} instance.
+     * @param capacity maximum total size in bytes of the cached classfiles
+     */
+    ClassfileCache(final long capacity) {
+        Validate.isTrue(capacity > 0, "capacity must be positive");
+        this.capacity = capacity;
+    }
+
+    /**
+     * Get the content of the specified classfile, loading it upon a miss.
+     * @param resourceName of classfile
+     * @param loader to load the classfile on a cache miss
+     * @return {@link InputStream}, {@code null} if not found
+     * @throws IOException on error
+     */
+    InputStream get(final String resourceName, final Loader loader) throws IOException {
+        final long expected;
+        synchronized (this) {
+            final byte[] content = entries.get(resourceName);
+            if (content != null) {
+                hits.incrementAndGet();
+                return new ByteArrayInputStream(content);
+            }
+            expected = generation;
+        }
+        misses.incrementAndGet();
+        final byte[] content = loader.load();
+        if (content == null) {
+            return null;
+        }
+        put(resourceName, content, expected);
+        return new ByteArrayInputStream(content);
+    }
+
+    /**
+     * Invalidate the cached content, if any, of the specified resource.
+     * @param resourceName of resource written or deleted
+     */
+    synchronized void invalidate(final String resourceName) {
+        generation++;
+        final byte[] previous = entries.remove(resourceName);
+        if (previous != null) {
+            size -= previous.length;
+        }
+    }
+
+    /**
+     * Gets the number of reads served from the cache.
+     * @return {@code long}
+     */
+    long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of reads not served from the cache.
+     * @return {@code long}
+     */
+    long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the total size in bytes of the cached classfiles.
+     * @return {@code long}
+     */
+    synchronized long getSize() {
+        return size;
+    }
+
+    private synchronized void put(final String resourceName, final byte[] content, final long expected) {
+        // discard content loaded across an invalidation, as it may be stale:
+        if (generation != expected || content.length > capacity) {
+            return;
+        }
+        final byte[] previous = entries.put(resourceName, content);
+        size += content.length - (previous == null ? 0 : previous.length);
+
+        for (final Iterator<byte[]> eldest = entries.values().iterator(); size > capacity;) {
+            size -= eldest.next().length;
+            eldest.remove();
+        }
+    }
+}
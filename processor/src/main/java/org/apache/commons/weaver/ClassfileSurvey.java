@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Summary of a classfile obtained by reading only its constant pool and the class header that follows it: the
+ * direct supertypes of the class, and the object type descriptors it references, among which are the descriptors
+ * of any annotations present on the class or its members. A class whose survey references neither a requested
+ * annotation nor a requested supertype cannot match a {@link org.apache.commons.weaver.model.ScanRequest}, and
+ * need not be read in full.
+ */
+final class ClassfileSurvey {
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    /**
+     * Survey the classfile available from {@code bytecode}, reading no further than its implemented interfaces.
+     * @param bytecode classfile content, not closed
+     * @return {@link ClassfileSurvey}
+     * @throws IOException if {@code bytecode} is unreadable or is not a classfile
+     */
+    static ClassfileSurvey read(final InputStream bytecode) throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(bytecode));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a classfile");
+        }
+        // minor, major version:
+        in.readInt();
+
+        final int count = in.readUnsignedShort();
+        final String[] utf8 = new String[count];
+        final int[] classNames = new int[count];
+        final Set<String> descriptors = new HashSet<>();
+
+        for (int i = 1; i < count; i++) {
+            final int tag = in.readUnsignedByte();
+            switch (tag) {
+            case CONSTANT_UTF8:
+                utf8[i] = in.readUTF();
+                if (isObjectTypeDescriptor(utf8[i])) {
+                    descriptors.add(utf8[i]);
+                }
+                break;
+            case CONSTANT_CLASS:
+                classNames[i] = in.readUnsignedShort();
+                break;
+            case CONSTANT_STRING:
+            case CONSTANT_METHOD_TYPE:
+            case CONSTANT_MODULE:
+            case CONSTANT_PACKAGE:
+                in.skipBytes(2);
+                break;
+            case CONSTANT_METHOD_HANDLE:
+                in.skipBytes(3);
+                break;
+            case CONSTANT_INTEGER:
+            case CONSTANT_FLOAT:
+            case CONSTANT_FIELDREF:
+            case CONSTANT_METHODREF:
+            case CONSTANT_INTERFACE_METHODREF:
+            case CONSTANT_NAME_AND_TYPE:
+            case CONSTANT_DYNAMIC:
+            case CONSTANT_INVOKE_DYNAMIC:
+                in.skipBytes(4);
+                break;
+            case CONSTANT_LONG:
+            case CONSTANT_DOUBLE:
+                in.skipBytes(8);
+                // eight-byte constants occupy two entries:
+                i++;
+                break;
+            default:
+                throw new IOException(String.format("Unknown constant pool tag %d at index %d", tag, i));
+            }
+        }
+        // access flags:
+        in.skipBytes(2);
+
+        final String name = className(utf8, classNames, in.readUnsignedShort());
+        final List<String> supertypes = new ArrayList<>();
+        final int superclass = in.readUnsignedShort();
+        if (superclass > 0) {
+            supertypes.add(className(utf8, classNames, superclass));
+        }
+        for (int i = in.readUnsignedShort(); i > 0; i--) {
+            supertypes.add(className(utf8, classNames, in.readUnsignedShort()));
+        }
+        return new ClassfileSurvey(name, supertypes, descriptors);
+    }
+
+    private static boolean isObjectTypeDescriptor(final String utf8) {
+        return utf8.length() > 2 && utf8.charAt(0) == 'L' && utf8.charAt(utf8.length() - 1) == ';';
+    }
+
+    private static String className(final String[] utf8, final int[] classNames, final int index)
+        throws IOException {
+        if (index >= classNames.length || classNames[index] == 0 || utf8[classNames[index]] == null) {
+            throw new IOException(String.format("Invalid class reference %d", index));
+        }
+        return utf8[classNames[index]].replace('/', '.');
+    }
+
+    private final String name;
+    private final List<String> supertypes;
+    private final Set<String> descriptors;
+
+    private ClassfileSurvey(final String name, final List<String> supertypes, final Set<String> descriptors) {
+        this.name = name;
+        this.supertypes = Collections.unmodifiableList(supertypes);
+        this.descriptors = Collections.unmodifiableSet(descriptors);
+    }
+
+    /**
+     * Gets the binary name of the surveyed class.
+     * @return {@link String}
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the binary names of the direct superclass, if any, and interfaces of the surveyed class.
+     * @return {@link List} of {@link String}
+     */
+    List<String> getSupertypes() {
+        return supertypes;
+    }
+
+    /**
+     * Learn whether the constant pool of the surveyed class references any of the specified descriptors.
+     * @param candidates object type descriptors, e.g. {@code Ljava/lang/Deprecated;}
+     * @return {@code boolean}
+     */
+    boolean referencesAny(final Set<String> candidates) {
+        return !Collections.disjoint(descriptors, candidates);
+    }
+}
@@ -19,10 +19,11 @@
 package org.apache.commons.weaver;
 
 import java.io.File;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.ServiceLoader;
-import java.util.logging.Logger;
 
 import org.apache.commons.weaver.lifecycle.WeaveLifecycle; //NOPMD used in Javadoc
 import org.apache.commons.weaver.model.WeaveEnvironment;
@@ -57,6 +58,22 @@ public class CleanProcessor extends ProcessorBase<Cleaner> {
         super(classpath, target, configuration, providers);
     }
 
+    /**
+     * Create a new {@link CleanProcessor} instance using the {@link ServiceLoader} mechanism, whose class loader
+     * delegates to the specified parent, e.g. a {@link ClassLoader} over dependencies shared by several processors.
+     *
+     * @param classpath not {@code null}
+     * @param parent of the processor's {@link ClassLoader} over {@code target} and {@code classpath}; {@code null}
+     *            for the system class loader
+     * @param target not {@code null}
+     * @param configuration not {@code null}
+     * @since 2.1
+     */
+    public CleanProcessor(final List<String> classpath, final ClassLoader parent, final File target,
+        final Properties configuration) {
+        super(classpath, parent, target, configuration, getServiceInstances(Cleaner.class), null);
+    }
+
     /**
      * Clean specified targets.
      */
@@ -64,10 +81,16 @@ public class CleanProcessor extends ProcessorBase<Cleaner> {
         if (!target.exists()) {
             log.warning(() -> String.format("Target directory %s does not exist; nothing to do!", target));
         }
+        final Map<Cleaner, WeaveEnvironment> environments = new LinkedHashMap<>();
         for (final Cleaner cleaner : providers) {
-            final WeaveEnvironment env = new LocalWeaveEnvironment(target, classLoader, configuration,
-                Logger.getLogger(cleaner.getClass().getName()));
-            cleaner.clean(env, finder);
+            environments.put(cleaner, createEnvironment(cleaner));
         }
+        final ScanPlan plan = plan(environments);
+        environments.forEach((cleaner, env) -> {
+            timed(cleaner.getClass().getName(), () -> cleaner.clean(env, plan.scannerFor(cleaner)));
+            reindex(cleaner);
+        });
+        flush();
+        completed();
     }
 }
@@ -18,10 +18,12 @@
  */
 package org.apache.commons.weaver;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.ElementType;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
@@ -30,11 +32,22 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -44,11 +57,13 @@ import java.util.stream.Stream;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
+import org.apache.commons.weaver.model.BytecodeScanResult;
+import org.apache.commons.weaver.model.BytecodeScanner;
 import org.apache.commons.weaver.model.ScanRequest;
 import org.apache.commons.weaver.model.ScanResult;
-import org.apache.commons.weaver.model.Scanner;
 import org.apache.commons.weaver.model.WeaveInterest;
 import org.apache.commons.weaver.utils.Annotations;
+import org.apache.commons.weaver.utils.WeaveEvent;
 import org.apache.xbean.asm6.AnnotationVisitor;
 import org.apache.xbean.asm6.ClassReader;
 import org.apache.xbean.asm6.ClassVisitor;
@@ -64,7 +79,7 @@ import org.apache.xbean.finder.archive.Archive;
 /**
  * Scanner implementation.
  */
-class Finder extends AnnotationFinder implements Scanner {
+class Finder extends AnnotationFinder implements BytecodeScanner {
 
     private abstract class AnnotationInflater extends AnnotationCapturer {
         final Class<? extends Annotation> annotationType;
@@ -185,7 +200,7 @@ class Finder extends AnnotationFinder implements Scanner {
         @Override
         public void visitEnd() {
             super.visitEnd();
-            CLASSFILE_ANNOTATIONS.get().computeIfAbsent(info, k -> new ArrayList<>()).add(inflate());
+            classfileAnnotations.computeIfAbsent(info, k -> new ArrayList<>()).add(inflate());
         }
     }
 
@@ -307,6 +322,15 @@ class Finder extends AnnotationFinder implements Scanner {
         }
     }
 
+    /**
+     * Resolves the reflective object represented by an {@link Info}.
+     * @param <T> resolved type
+     */
+    @FunctionalInterface
+    private interface Resolver<T> {
+        T resolve() throws ClassNotFoundException;
+    }
+
     private static class IncludesClassfile<T extends AnnotatedElement> implements Annotated<T> {
         private final T annotatedElement;
         private final Annotation[] annotations;
@@ -356,6 +380,114 @@ class Finder extends AnnotationFinder implements Scanner {
         }
     }
 
+    /**
+     * {@link Archive} view that delegates class loading to a wrapped {@link Archive} but exposes no entries, so that
+     * the {@link AnnotationFinder} constructor does not itself read anything; the {@link Finder} then reads the entries
+     * of the wrapped {@link Archive} once its own state has been initialized.
+     */
+    private static class Unscanned implements Archive {
+        private final Archive wrapped;
+
+        Unscanned(final Archive wrapped) {
+            this.wrapped = wrapped;
+        }
+
+        @Override
+        public InputStream getBytecode(final String className) throws IOException, ClassNotFoundException {
+            return wrapped.getBytecode(className);
+        }
+
+        @Override
+        public Class<?> loadClass(final String className) throws ClassNotFoundException {
+            return wrapped.loadClass(className);
+        }
+
+        @Override
+        public Iterator<Entry> iterator() {
+            return Collections.emptyIterator();
+        }
+    }
+
+    /**
+     * Archive entry surveyed but not yet read.
+     */
+    private static class Unread {
+        final Archive.Entry entry;
+        final ClassfileSurvey survey;
+
+        Unread(final Archive.Entry entry, final ClassfileSurvey survey) {
+            this.entry = entry;
+            this.survey = survey;
+        }
+    }
+
+    /**
+     * Archive entry whose content, read in full when surveyed, is softly retained for its subsequent reading, such
+     * that a classfile is read from its archive only once unless memory runs short meanwhile.
+     */
+    private static class Surveyed implements Archive.Entry {
+        private final Archive.Entry entry;
+        private final SoftReference<byte[]> bytecode;
+
+        Surveyed(final Archive.Entry entry, final byte[] bytecode) {
+            this.entry = entry;
+            this.bytecode = new SoftReference<>(bytecode);
+        }
+
+        @Override
+        public String getName() {
+            return entry.getName();
+        }
+
+        @Override
+        public InputStream getBytecode() throws IOException {
+            final byte[] result = bytecode.get();
+            if (result == null) {
+                return entry.getBytecode();
+            }
+            // needed but once:
+            bytecode.clear();
+            return new ByteArrayInputStream(result);
+        }
+    }
+
+    /**
+     * Fork-join task to survey or read a contiguous range of archive entries into a private {@link Finder} "shard".
+     * Completed shards are merged left to right, so that the merged result matches that of processing the entries
+     * sequentially.
+     */
+    private class ScanTask extends RecursiveTask<Finder> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Archive.Entry> entries;
+        private final int threshold;
+        private final BiConsumer<Finder, Archive.Entry> action;
+
+        ScanTask(final List<Archive.Entry> entries, final int threshold,
+            final BiConsumer<Finder, Archive.Entry> action) {
+            this.entries = entries;
+            this.threshold = threshold;
+            this.action = action;
+        }
+
+        @Override
+        protected Finder compute() {
+            if (entries.size() <= threshold) {
+                final Finder shard = new Finder(getArchive());
+                entries.forEach(entry -> action.accept(shard, entry));
+                return shard;
+            }
+            final int mid = entries.size() / 2;
+            final ScanTask left = new ScanTask(entries.subList(0, mid), threshold, action);
+            final ScanTask right = new ScanTask(entries.subList(mid, entries.size()), threshold, action);
+            left.fork();
+            final Finder rightShard = right.compute();
+            final Finder result = left.join();
+            result.merge(rightShard);
+            return result;
+        }
+    }
+
     /**
      * Helper class for finding elements with annotations (including those with classfile-level retention).
      */
@@ -368,7 +500,7 @@ class Finder extends AnnotationFinder implements Scanner {
 
             return typed(PackageInfo.class, getAnnotationInfos(annotation.getName())::stream).map(packageInfo -> {
                 try {
-                    return new IncludesClassfile<>(packageInfo.get(), classfileAnnotationsFor(packageInfo));
+                    return includesClassfile(packageInfo, packageInfo::get);
                 } catch (final ClassNotFoundException e) {
                     return null;
                 }
@@ -395,7 +527,7 @@ class Finder extends AnnotationFinder implements Scanner {
         private List<Annotated<Class<?>>> annotate(final Collection<? extends Info> infos) {
             return typed(ClassInfo.class, infos::stream).map(classInfo -> {
                 try {
-                    return new IncludesClassfile<Class<?>>(classInfo.get(), classfileAnnotationsFor(classInfo));
+                    return includesClassfile(classInfo, classInfo::get);
                 } catch (final ClassNotFoundException e1) {
                     return null;
                 }
@@ -410,7 +542,7 @@ class Finder extends AnnotationFinder implements Scanner {
             return assignableTypes.stream().map(Class::getName).map(classInfos::get)
                 .<IncludesClassfile<Class<?>>> map(classInfo -> {
                     try {
-                        return new IncludesClassfile<>(classInfo.get(), classfileAnnotationsFor(classInfo));
+                        return includesClassfile(classInfo, classInfo::get);
                     } catch (final ClassNotFoundException e) {
                         return null;
                     }
@@ -423,8 +555,7 @@ class Finder extends AnnotationFinder implements Scanner {
             return typed(MethodInfo.class, getAnnotationInfos(annotation.getName())::stream).filter(CTOR.negate())
                 .map(methodInfo -> {
                     try {
-                        return new IncludesClassfile<>((Method) methodInfo.get(),
-                            classfileAnnotationsFor(methodInfo));
+                        return includesClassfile(methodInfo, () -> (Method) methodInfo.get());
                     } catch (final ClassNotFoundException e) {
                         return null;
                     }
@@ -440,7 +571,7 @@ class Finder extends AnnotationFinder implements Scanner {
                     try {
                         @SuppressWarnings("unchecked")
                         final Parameter<Method> parameter = (Parameter<Method>) parameterInfo.get();
-                        return new IncludesClassfile<>(parameter, classfileAnnotationsFor(parameterInfo));
+                        return includesClassfile(parameterInfo, () -> parameter);
                     } catch (final ClassNotFoundException e) {
                         return null;
                     }
@@ -453,8 +584,8 @@ class Finder extends AnnotationFinder implements Scanner {
             return typed(MethodInfo.class, getAnnotationInfos(annotation.getName())::stream).filter(CTOR)
                 .map(methodInfo -> {
                     try {
-                        final IncludesClassfile<Constructor<?>> annotated = new IncludesClassfile<>(
-                            (Constructor<?>) methodInfo.get(), classfileAnnotationsFor(methodInfo));
+                        final IncludesClassfile<Constructor<?>> annotated =
+                            includesClassfile(methodInfo, () -> (Constructor<?>) methodInfo.get());
                         return annotated;
                     } catch (final ClassNotFoundException e) {
                         return null;
@@ -471,7 +602,7 @@ class Finder extends AnnotationFinder implements Scanner {
                     try {
                         @SuppressWarnings("unchecked")
                         final Parameter<Constructor<?>> parameter = (Parameter<Constructor<?>>) parameterInfo.get();
-                        return new IncludesClassfile<>(parameter, classfileAnnotationsFor(parameterInfo));
+                        return includesClassfile(parameterInfo, () -> parameter);
                     } catch (final ClassNotFoundException e) {
                         return null;
                     }
@@ -483,22 +614,47 @@ class Finder extends AnnotationFinder implements Scanner {
 
             return typed(FieldInfo.class, getAnnotationInfos(annotation.getName())::stream).map(fieldInfo -> {
                 try {
-                    return new IncludesClassfile<>((Field) fieldInfo.get(), classfileAnnotationsFor(fieldInfo));
+                    return includesClassfile(fieldInfo, () -> (Field) fieldInfo.get());
                 } catch (final ClassNotFoundException e) {
                     return null;
                 }
             }).filter(hasAnnotation(annotation)).collect(Collectors.toList());
         }
 
+        /**
+         * Get the memoized {@link IncludesClassfile} wrapper of the element represented by {@code info}.
+         * @param info {@link Info}
+         * @param element resolves the element represented by {@code info}
+         * @return {@link IncludesClassfile}
+         * @throws ClassNotFoundException if the element cannot be resolved
+         */
+        private <T extends AnnotatedElement> IncludesClassfile<T> includesClassfile(final Info info,
+            final Resolver<T> element) throws ClassNotFoundException {
+            final Map<Info, IncludesClassfile<?>> classWrappers = wrappers.computeIfAbsent(className(info),
+                k -> Collections.synchronizedMap(new IdentityHashMap<>()));
+            @SuppressWarnings("unchecked")
+            IncludesClassfile<T> result = (IncludesClassfile<T>) classWrappers.get(info);
+            if (result == null) {
+                result = new IncludesClassfile<>(element.resolve(), classfileAnnotationsFor(info));
+                classWrappers.put(info, result);
+            }
+            return result;
+        }
+
         private List<Annotation> classfileAnnotationsFor(final Info info) {
             return classfileAnnotations.computeIfAbsent(info, k -> new ArrayList<>());
         }
     }
 
-    private static final int ASM_FLAGS = ClassReader.SKIP_CODE + ClassReader.SKIP_DEBUG + ClassReader.SKIP_FRAMES;
+    /**
+     * {@link ClassReader} flags used for scanning.
+     */
+    static final int ASM_FLAGS = ClassReader.SKIP_CODE + ClassReader.SKIP_DEBUG + ClassReader.SKIP_FRAMES;
 
     private static final String INIT = "<init>";
 
+    private static final String CLASSFILE_SUFFIX = ".class";
+
     /**
      * ASM version in use.
      */
@@ -510,12 +666,9 @@ class Finder extends AnnotationFinder implements Scanner {
     static final Predicate<MethodInfo> CTOR = methodInfo -> INIT.equals(methodInfo.getName());
 
     /**
-     * The {@link #classfileAnnotations} member stores these; however the scanning takes place in the scope of the super
-     * constructor call, thus there is no opportunity to set the reference beforehand. To work around this, we use a
-     * static ThreadLocal with an initializer and pull/clear its value when we return from the super constructor. :P
+     * Number of fork-join tasks per unit of parallelism among which a parallel scan is divided.
      */
-    static final ThreadLocal<Map<Info, List<Annotation>>> CLASSFILE_ANNOTATIONS =
-        ThreadLocal.withInitial(IdentityHashMap::new);
+    private static final int TASKS_PER_THREAD = 4;
 
     /**
      * Filter and cast {@code stream}.
@@ -552,29 +705,94 @@ class Finder extends AnnotationFinder implements Scanner {
     /**
      * Map of {@link Info} to {@link List} of classfile {@link Annotation}s.
      */
-    final Map<Info, List<Annotation>> classfileAnnotations;
+    final Map<Info, List<Annotation>> classfileAnnotations = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    /**
+     * Memoized {@link IncludesClassfile} wrappers by {@link Info}, grouped by the name of the class to whose classfile
+     * each element belongs, such that the wrappers of a modified classfile are discarded together.
+     */
+    private final Map<String, Map<Info, IncludesClassfile<?>>> wrappers = new ConcurrentHashMap<>();
+
+    /**
+     * Memoized scan results by normalized {@link ScanRequest}; see {@link #cacheKey(ScanRequest)}.
+     */
+    private final Map<Set<String>, ScanResult> scanResults = new ConcurrentHashMap<>();
+    private final Map<Set<String>, BytecodeScanResult> bytecodeScanResults = new ConcurrentHashMap<>();
+
+    /**
+     * Names of classes whose classfiles have been modified since last re-indexed.
+     */
+    private final Set<String> modifiedClasses = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Names of resources whose modifications are deferred, {@code null} unless {@link #deferModifications()} is in
+     * effect.
+     */
+    private volatile Set<String> deferred;
 
     private final WithAnnotations withAnnotations = new WithAnnotations();
-    private final Inflater inflater;
+    private final Map<String, List<String>> directSupertypes = new ConcurrentHashMap<>();
 
     /**
-     * Create a new {@link Finder} instance.
+     * Archive entries surveyed but not yet read, by class name. Guarded by {@code this}.
+     */
+    private final Map<String, Unread> unread = new LinkedHashMap<>();
+    /**
+     * {@link ForkJoinPool} across which classfiles are surveyed and read, {@code null} for sequential processing.
+     */
+    private final ForkJoinPool pool;
+    private final int surveyed;
+    private final AtomicLong inflateNanos = new AtomicLong();
+    private boolean linked;
+    private volatile Inflater inflater;
+
+    /**
+     * Create a new {@link Finder} instance that reads {@code archive} sequentially.
      * @param archive
      */
     Finder(final Archive archive) {
-        super(archive, false);
-        classfileAnnotations = CLASSFILE_ANNOTATIONS.get();
-        CLASSFILE_ANNOTATIONS.remove();
-        inflater = new Inflater(classfileAnnotations);
-        enableFindImplementations();
-        enableFindSubclasses();
+        this(archive, null);
     }
 
     /**
-     * Fluent "finder with annotations".
+     * Create a new {@link Finder} instance. Each classfile is surveyed, reading only as far as its constant pool and
+     * class header; the full reading of a classfile is deferred until it might be relevant to a scan.
+     * @param archive
+     * @param pool if not {@code null}, the {@link ForkJoinPool} across which the surveying of classfiles is
+     *            distributed, as are later reads; the pool must remain open for the life of this {@link Finder}
+     */
+    Finder(final Archive archive, final ForkJoinPool pool) {
+        super(new Unscanned(archive), false);
+        this.pool = pool;
+        final List<Archive.Entry> entries = new ArrayList<>();
+        archive.forEach(entries::add);
+        process(entries, pool, Finder::survey);
+        surveyed = entries.size();
+    }
+
+    /**
+     * Gets the number of classfiles surveyed upon construction.
+     * @return {@code int}
+     */
+    int getSurveyed() {
+        return surveyed;
+    }
+
+    /**
+     * Gets the total time spent inflating the classfile annotations of scan results.
+     * @return {@code long} nanoseconds
+     */
+    long getInflateNanos() {
+        return inflateNanos.get();
+    }
+
+    /**
+     * Fluent "finder with annotations". As this exposes all scanned classes, any classfiles not yet read are read
+     * first.
      * @return {@link WithAnnotations}
      */
     public WithAnnotations withAnnotations() {
+        readAll();
         return withAnnotations;
     }
 
@@ -590,6 +808,150 @@ class Finder extends AnnotationFinder implements Scanner {
         }
     }
 
+    /**
+     * Apply {@code action} to {@code entries}, distributing the work across {@code pool} if present.
+     * @param entries to process
+     * @param pool may be {@code null}
+     * @param action to apply
+     */
+    private void process(final List<Archive.Entry> entries, final ForkJoinPool pool,
+        final BiConsumer<Finder, Archive.Entry> action) {
+        if (pool == null) {
+            entries.forEach(entry -> action.accept(this, entry));
+        } else {
+            final int threshold = Math.max(1, entries.size() / (pool.getParallelism() * TASKS_PER_THREAD));
+            merge(pool.invoke(new ScanTask(entries, threshold, action)));
+        }
+    }
+
+    /**
+     * Survey an archive entry, deferring its full reading.
+     * @param entry to survey
+     */
+    private void survey(final Archive.Entry entry) {
+        try {
+            survey(entry.getName(), entry);
+        } catch (final IOException e) {
+            throw new IllegalStateException(String.format("Unable to read class %s", entry.getName()), e);
+        }
+    }
+
+    /**
+     * Survey an archive entry under the specified class name, retaining its content for its full reading.
+     * @param className of the entry
+     * @param entry to survey
+     * @throws IOException on error reading the entry
+     */
+    private void survey(final String className, final Archive.Entry entry) throws IOException {
+        final byte[] content;
+        try (InputStream bytecode = entry.getBytecode()) {
+            content = ScanIndex.readFully(bytecode);
+        }
+        final ClassfileSurvey survey = ClassfileSurvey.read(new ByteArrayInputStream(content));
+        directSupertypes.put(className, survey.getSupertypes());
+        unread.put(className, new Unread(new Surveyed(entry, content), survey));
+    }
+
+    /**
+     * Read, in full, the surveyed classfiles that might match {@code request}: those referencing a requested
+     * annotation type in their constant pools, and those assignable to a requested supertype.
+     * @param request constrained {@link ScanRequest}
+     */
+    synchronized void readFor(final ScanRequest request) {
+        final Set<String> descriptors = new HashSet<>();
+        request.getInterests().forEach(interest -> descriptors.add(Type.getDescriptor(interest.annotationType)));
+
+        final List<Archive.Entry> entries = new ArrayList<>();
+        for (final Iterator<Map.Entry<String, Unread>> iter = unread.entrySet().iterator(); iter.hasNext();) {
+            final Map.Entry<String, Unread> candidate = iter.next();
+            if (candidate.getValue().survey.referencesAny(descriptors) || request.getSupertypes().stream()
+                .anyMatch(supertype -> isAssignable(candidate.getKey(), supertype.getName()))) {
+                entries.add(candidate.getValue().entry);
+                iter.remove();
+            }
+        }
+        read(entries);
+    }
+
+    /**
+     * Read, in full, all surveyed classfiles not yet read, and link the resulting class hierarchy.
+     */
+    synchronized void readAll() {
+        if (linked && unread.isEmpty()) {
+            return;
+        }
+        read(unread.values().stream().map(u -> u.entry).collect(Collectors.toList()));
+        unread.clear();
+        enableFindImplementations();
+        enableFindSubclasses();
+        linked = true;
+    }
+
+    /**
+     * Read archive entries in full.
+     * @param entries to read
+     */
+    private void read(final List<Archive.Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        process(entries, entries.size() < 2 ? null : pool, Finder::read);
+        // classInfos also holds the infos of any classes linked from the classpath, which are not to be scanned:
+        for (final Archive.Entry entry : entries) {
+            final ClassInfo classInfo = classInfos.get(entry.getName());
+            if (classInfo != null) {
+                originalInfos.put(entry.getName(), classInfo);
+            }
+        }
+        inflater = null;
+    }
+
+    /**
+     * Read an archive entry.
+     * @param entry to read
+     */
+    private void read(final Archive.Entry entry) {
+        try {
+            readClassDef(entry.getBytecode());
+        } catch (final NoClassDefFoundError e) {
+            throw new NoClassDefFoundError(
+                String.format("Could not fully load class: %s%n due to: %s", entry.getName(), e.getMessage()));
+        } catch (final IOException e) {
+            throw new IllegalStateException(String.format("Unable to read class %s", entry.getName()), e);
+        }
+    }
+
+    /**
+     * Merge the results of a {@link Finder} that has read a subsequent portion of the same archive.
+     * @param shard to merge
+     */
+    private void merge(final Finder shard) {
+        classInfos.putAll(shard.classInfos);
+        // xbean's annotation lists do not support bulk addition; merge into copies:
+        shard.annotated.forEach((name, infos) -> annotated.merge(name, infos, (mine, theirs) -> {
+            final List<Info> result = new ArrayList<>(mine.size() + theirs.size());
+            result.addAll(mine);
+            result.addAll(theirs);
+            return result;
+        }));
+        classfileAnnotations.putAll(shard.classfileAnnotations);
+        directSupertypes.putAll(shard.directSupertypes);
+        unread.putAll(shard.unread);
+    }
+
+    /**
+     * Get the {@link Inflater} for the classfile annotations read so far.
+     * @return {@link Inflater}
+     */
+    private Inflater inflater() {
+        Inflater result = inflater;
+        if (result == null) {
+            result = new Inflater(classfileAnnotations);
+            inflater = result;
+        }
+        return result;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -615,74 +977,349 @@ class Finder extends AnnotationFinder implements Scanner {
     }
 
     /**
-     * {@inheritDoc}
+     * {@inheritDoc} Scans are serialized, such that weavers run concurrently may share this {@link Finder}.
      */
     @Override
-    public ScanResult scan(final ScanRequest request) {
-        final ScanResult result = new ScanResult();
+    public synchronized ScanResult scan(final ScanRequest request) {
+        final Set<String> key = cacheKey(request);
+        final ScanResult cached = scanResults.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        try (WeaveEvent event = WeaveEvent.begin("finder.scan", null)) {
+            final ScanResult result = new ScanResult();
 
-        if (!request.isConstrained() || request.getSupertypes().contains(Object.class)) {
-            for (final Annotated<Class<?>> type : this.withAnnotations().getAllClasses()) {
-                result.getWeavable(type.get()).addAnnotations(type.getAnnotations());
+            if (!request.isConstrained() || request.getSupertypes().contains(Object.class)) {
+                for (final Annotated<Class<?>> type : this.withAnnotations().getAllClasses()) {
+                    result.getWeavable(type.get()).addAnnotations(type.getAnnotations());
+                }
+            } else {
+                readFor(request);
+                for (final WeaveInterest interest : request.getInterests()) {
+                    final ElementType target = interest.target;
+                    switch (target) {
+                    case PACKAGE:
+                        for (final Annotated<Package> pkg : withAnnotations.findAnnotatedPackages(
+                            interest.annotationType)) {
+                            result.getWeavable(pkg.get()).addAnnotations(pkg.getAnnotations());
+                        }
+                        break;
+                    case TYPE:
+                        for (final Annotated<Class<?>> type : withAnnotations.findAnnotatedClasses(
+                            interest.annotationType)) {
+                            result.getWeavable(type.get()).addAnnotations(type.getAnnotations());
+                        }
+                        break;
+                    case METHOD:
+                        for (final Annotated<Method> method : withAnnotations.findAnnotatedMethods(
+                            interest.annotationType)) {
+                            result.getWeavable(method.get()).addAnnotations(method.getAnnotations());
+                        }
+                        break;
+                    case CONSTRUCTOR:
+                        for (final Annotated<Constructor<?>> ctor : withAnnotations.findAnnotatedConstructors(
+                            interest.annotationType)) {
+                            result.getWeavable(ctor.get()).addAnnotations(ctor.getAnnotations());
+                        }
+                        break;
+                    case FIELD:
+                            for (final Annotated<Field> fld : withAnnotations
+                                .findAnnotatedFields(interest.annotationType)) {
+                                result.getWeavable(fld.get()).addAnnotations(fld.getAnnotations());
+                            }
+                            break;
+                    case PARAMETER:
+                        for (final Annotated<Parameter<Method>> parameter : withAnnotations
+                            .findAnnotatedMethodParameters(interest.annotationType)) {
+                                result.getWeavable(parameter.get().getDeclaringExecutable())
+                                    .getWeavableParameter(parameter.get().getIndex())
+                                    .addAnnotations(parameter.getAnnotations());
+                            }
+                        for (final Annotated<Parameter<Constructor<?>>> parameter : withAnnotations
+                            .findAnnotatedConstructorParameters(interest.annotationType)) {
+                                result.getWeavable(parameter.get().getDeclaringExecutable())
+                                    .getWeavableParameter(parameter.get().getIndex())
+                                    .addAnnotations(parameter.getAnnotations());
+                            }
+                        break;
+                    default:
+                        // should we log something?
+                        break;
+                    }
+                }
+                final List<ClassInfo> assignableTypes = originalInfos.values().stream()
+                    .filter(classInfo -> request.getSupertypes().stream()
+                        .anyMatch(supertype -> isProperSubtype(classInfo.getName(), supertype.getName())))
+                    .collect(Collectors.toList());
+                withAnnotations.annotate(assignableTypes)
+                    .forEach(type -> result.getWeavable(type.get()).addAnnotations(type.getAnnotations()));
             }
+            final long start = System.nanoTime();
+            final ScanResult inflated = inflater().inflate(result);
+            inflateNanos.addAndGet(System.nanoTime() - start);
+            scanResults.put(key, inflated);
+            return inflated;
+        }
+    }
+
+    /**
+     * {@inheritDoc} Scans are serialized, such that weavers run concurrently may share this {@link Finder}.
+     */
+    @Override
+    public synchronized BytecodeScanResult scanBytecode(final ScanRequest request) {
+        final Set<String> key = cacheKey(request);
+        final BytecodeScanResult cached = bytecodeScanResults.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final Set<String> classNames = new TreeSet<>();
+
+        if (!request.isConstrained() || request.getSupertypes().contains(Object.class)) {
+            classNames.addAll(originalInfos.keySet());
+            classNames.addAll(unread.keySet());
         } else {
+            readFor(request);
             for (final WeaveInterest interest : request.getInterests()) {
-                final ElementType target = interest.target;
-                switch (target) {
-                case PACKAGE:
-                    for (final Annotated<Package> pkg : this.withAnnotations().findAnnotatedPackages(
-                        interest.annotationType)) {
-                        result.getWeavable(pkg.get()).addAnnotations(pkg.getAnnotations());
+                for (final Info info : getAnnotationInfos(interest.annotationType.getName())) {
+                    final String className = declaringClassName(info, interest.target);
+                    if (className != null) {
+                        classNames.add(className);
                     }
-                    break;
-                case TYPE:
-                    for (final Annotated<Class<?>> type : this.withAnnotations().findAnnotatedClasses(
-                        interest.annotationType)) {
-                        result.getWeavable(type.get()).addAnnotations(type.getAnnotations());
-                    }
-                    break;
-                case METHOD:
-                    for (final Annotated<Method> method : this.withAnnotations().findAnnotatedMethods(
-                        interest.annotationType)) {
-                        result.getWeavable(method.get()).addAnnotations(method.getAnnotations());
-                    }
-                    break;
-                case CONSTRUCTOR:
-                    for (final Annotated<Constructor<?>> ctor : this.withAnnotations().findAnnotatedConstructors(
-                        interest.annotationType)) {
-                        result.getWeavable(ctor.get()).addAnnotations(ctor.getAnnotations());
+                }
+            }
+            for (final Class<?> supertype : request.getSupertypes()) {
+                originalInfos.keySet().stream().filter(className -> isProperSubtype(className, supertype.getName()))
+                    .forEach(classNames::add);
+            }
+        }
+        final BytecodeScanResult result = new BytecodeScanResult();
+        for (final String className : classNames) {
+            try (InputStream bytecode = getArchive().getBytecode(className)) {
+                result.add(BytecodeReader.read(bytecode));
+            } catch (final IOException | ClassNotFoundException e) {
+                throw new IllegalStateException(String.format("Unable to read class %s", className), e);
+            }
+        }
+        bytecodeScanResults.put(key, result);
+        return result;
+    }
+
+    /**
+     * Invalidate memoized scan results upon the modification of the specified resource through a
+     * {@link org.apache.commons.weaver.model.WeaveEnvironment}. Wrappers of elements of a modified classfile are
+     * discarded along with all scan results, as the modification may alter which classes a request matches.
+     * @param resourceName of the resource written or deleted
+     */
+    void modified(final String resourceName) {
+        if (!resourceName.endsWith(CLASSFILE_SUFFIX)) {
+            return;
+        }
+        final Set<String> pending = deferred;
+        if (pending != null) {
+            pending.add(resourceName);
+            return;
+        }
+        final String className = StringUtils.removeEnd(resourceName, CLASSFILE_SUFFIX).replace('/', '.');
+        scanResults.clear();
+        bytecodeScanResults.clear();
+        wrappers.remove(className);
+        modifiedClasses.add(className);
+    }
+
+    /**
+     * Defer the effects of {@link #modified(String)} until {@link #applyModifications()}, such that wrappers and
+     * memoized scan results continue to reflect the classfiles as they were, e.g. while weavers run concurrently.
+     */
+    void deferModifications() {
+        deferred = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Apply, and cease deferring, the modifications deferred since {@link #deferModifications()}.
+     */
+    void applyModifications() {
+        final Set<String> pending = deferred;
+        deferred = null;
+        if (pending != null) {
+            pending.forEach(this::modified);
+        }
+    }
+
+    /**
+     * Re-index the classfiles {@link #modified(String) modified} since last re-indexed. The elements of each such
+     * classfile are removed from the index; a classfile still present is then surveyed anew, to be read
+     * in full when next relevant to a scan, while a deleted or unreadable classfile is forgotten. Classes already
+     * loaded are not reloaded, so reflective models of a modified class continue to reflect the class as loaded,
+     * whereas the bytecode model reflects the modified classfile.
+     * @return the number of classfiles re-indexed
+     */
+    synchronized int reindex() {
+        if (modifiedClasses.isEmpty()) {
+            return 0;
+        }
+        final Set<String> classNames = new HashSet<>(modifiedClasses);
+        modifiedClasses.removeAll(classNames);
+
+        final Predicate<Info> stale = info -> classNames.contains(className(info));
+        classNames.forEach(className -> {
+            classInfos.remove(className);
+            originalInfos.remove(className);
+            directSupertypes.remove(className);
+            unread.remove(className);
+            wrappers.remove(className);
+        });
+        // xbean's annotation lists do not support removal; replace those holding stale elements with filtered copies:
+        annotated.replaceAll((name, infos) -> infos.stream().anyMatch(stale)
+            ? infos.stream().filter(stale.negate()).collect(Collectors.toList()) : infos);
+        annotated.values().removeIf(List::isEmpty);
+        synchronized (classfileAnnotations) {
+            classfileAnnotations.keySet().removeIf(stale);
+        }
+        for (final String className : classNames) {
+            final Archive.Entry entry = new Archive.Entry() {
+
+                @Override
+                public String getName() {
+                    return className;
+                }
+
+                @Override
+                public InputStream getBytecode() throws IOException {
+                    try {
+                        return getArchive().getBytecode(className);
+                    } catch (final ClassNotFoundException e) {
+                        throw new IOException(e);
                     }
-                    break;
-                case FIELD:
-                        for (final Annotated<Field> fld : this.withAnnotations()
-                            .findAnnotatedFields(interest.annotationType)) {
-                            result.getWeavable(fld.get()).addAnnotations(fld.getAnnotations());
-                        }
-                        break;
-                case PARAMETER:
-                    for (final Annotated<Parameter<Method>> parameter : this.withAnnotations()
-                        .findAnnotatedMethodParameters(interest.annotationType)) {
-                            result.getWeavable(parameter.get().getDeclaringExecutable())
-                                .getWeavableParameter(parameter.get().getIndex())
-                                .addAnnotations(parameter.getAnnotations());
-                        }
-                    for (final Annotated<Parameter<Constructor<?>>> parameter : this.withAnnotations()
-                        .findAnnotatedConstructorParameters(interest.annotationType)) {
-                            result.getWeavable(parameter.get().getDeclaringExecutable())
-                                .getWeavableParameter(parameter.get().getIndex())
-                                .addAnnotations(parameter.getAnnotations());
-                        }
-                    break;
-                default:
-                    // should we log something?
-                    break;
                 }
+            };
+            try {
+                survey(className, entry);
+            } catch (final IOException e) {
+                // deleted, or not (yet) a valid classfile; leave unindexed
+                continue;
+            }
+        }
+        inflater = null;
+        scanResults.clear();
+        bytecodeScanResults.clear();
+        return classNames.size();
+    }
+
+    /**
+     * Compute the key by which the results of scanning with {@code request} are memoized. Requests matching the
+     * same elements, regardless of the order in which they specify their interests and supertypes, share a key.
+     * @param request {@link ScanRequest}
+     * @return {@link Set} of {@link String}
+     */
+    static Set<String> cacheKey(final ScanRequest request) {
+        if (!request.isConstrained() || request.getSupertypes().contains(Object.class)) {
+            return Collections.emptySet();
+        }
+        final Set<String> result = new TreeSet<>();
+        request.getInterests()
+            .forEach(interest -> result.add(interest.target + " " + interest.annotationType.getName()));
+        request.getSupertypes().forEach(supertype -> result.add("SUPERTYPE " + supertype.getName()));
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * Get the name of the class to whose classfile the element represented by {@code info} belongs.
+     * @param info {@link Info}
+     * @return {@link String}
+     */
+    private static String className(final Info info) {
+        if (info instanceof PackageInfo) {
+            return info.getName() + ".package-info";
+        }
+        if (info instanceof FieldInfo) {
+            return ((FieldInfo) info).getDeclaringClass().getName();
+        }
+        if (info instanceof MethodInfo) {
+            return ((MethodInfo) info).getDeclaringClass().getName();
+        }
+        if (info instanceof ParameterInfo) {
+            return ((ParameterInfo) info).getDeclaringMethod().getDeclaringClass().getName();
+        }
+        return info.getName();
+    }
+
+    /**
+     * Get the name of the class declaring the element represented by {@code info}, if of the specified kind.
+     * @param info annotated {@link Info}
+     * @param target kind of element sought
+     * @return {@link String} or {@code null}
+     */
+    private static String declaringClassName(final Info info, final ElementType target) {
+        switch (target) {
+        case PACKAGE:
+            return info instanceof PackageInfo ? info.getName() + ".package-info" : null;
+        case TYPE:
+            return info instanceof ClassInfo ? info.getName() : null;
+        case METHOD:
+        case CONSTRUCTOR:
+            if (info instanceof MethodInfo && CTOR.test((MethodInfo) info) == (target == ElementType.CONSTRUCTOR)) {
+                return ((MethodInfo) info).getDeclaringClass().getName();
             }
-            request.getSupertypes().stream().map(this.withAnnotations()::findAssignableTypes)
-                .flatMap(Collection::stream)
-                .forEach(type -> result.getWeavable(type.get()).addAnnotations(type.getAnnotations()));
+            return null;
+        case FIELD:
+            return info instanceof FieldInfo ? ((FieldInfo) info).getDeclaringClass().getName() : null;
+        case PARAMETER:
+            return info instanceof ParameterInfo
+                ? ((ParameterInfo) info).getDeclaringMethod().getDeclaringClass().getName() : null;
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Learn, from bytecode alone, whether the specified class is a proper subtype of the specified supertype.
+     * @param className binary name of prospective subtype
+     * @param supertype binary name of supertype
+     * @return {@code boolean}
+     */
+    boolean isProperSubtype(final String className, final String supertype) {
+        return !className.equals(supertype) && isAssignable(className, supertype);
+    }
+
+    /**
+     * Learn, from bytecode alone, whether the specified class is assignable to the specified supertype.
+     * @param className binary name of prospective subtype
+     * @param supertype binary name of supertype
+     * @return {@code boolean}
+     */
+    private boolean isAssignable(final String className, final String supertype) {
+        if (className.equals(supertype)) {
+            return true;
         }
-        return inflater.inflate(result);
+        return directSupertypes(className).stream().anyMatch(type -> isAssignable(type, supertype));
+    }
+
+    /**
+     * Get the names of the direct superclass and interfaces of the specified class, reading from an unscanned
+     * classfile if necessary.
+     * @param className binary name
+     * @return {@link List} of {@link String}
+     */
+    private List<String> directSupertypes(final String className) {
+        return directSupertypes.computeIfAbsent(className, k -> {
+            final List<String> result = new ArrayList<>();
+            final ClassInfo classInfo = classInfos.get(k);
+            if (classInfo == null) {
+                try (InputStream bytecode = getArchive().getBytecode(k)) {
+                    final ClassReader reader = new ClassReader(bytecode);
+                    Optional.ofNullable(reader.getSuperName()).map(n -> Type.getObjectType(n).getClassName())
+                        .ifPresent(result::add);
+                    Stream.of(reader.getInterfaces()).map(n -> Type.getObjectType(n).getClassName())
+                        .forEach(result::add);
+                } catch (final IOException | ClassNotFoundException e) {
+                    // unavailable; presumed unrelated
+                }
+            } else {
+                Optional.ofNullable(classInfo.getSuperType()).ifPresent(result::add);
+                result.addAll(classInfo.getInterfaces());
+            }
+            return result;
+        });
     }
 
     /**
@@ -699,7 +1336,7 @@ class Finder extends AnnotationFinder implements Scanner {
         }
         Class<?> result;
         try {
-            result = Class.forName(className);
+            result = Class.forName(className, false, Finder.class.getClassLoader());
         } catch (final ClassNotFoundException e) {
             try {
                 result = getArchive().loadClass(className);
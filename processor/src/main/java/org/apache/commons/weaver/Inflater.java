@@ -19,164 +19,136 @@
 package org.apache.commons.weaver;
 
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import org.apache.commons.weaver.model.ScanResult;
 import org.apache.commons.weaver.model.WeavableClass;
 import org.apache.commons.weaver.model.WeavableConstructor;
-import org.apache.commons.weaver.model.WeavableConstructorParameter;
 import org.apache.commons.weaver.model.WeavableField;
 import org.apache.commons.weaver.model.WeavableMethod;
-import org.apache.commons.weaver.model.WeavableMethodParameter;
 import org.apache.commons.weaver.model.WeavablePackage;
+import org.apache.commons.weaver.utils.WeaveEvent;
+import org.apache.xbean.asm6.Type;
 import org.apache.xbean.finder.AnnotationFinder.ClassInfo;
 import org.apache.xbean.finder.AnnotationFinder.FieldInfo;
 import org.apache.xbean.finder.AnnotationFinder.Info;
 import org.apache.xbean.finder.AnnotationFinder.MethodInfo;
 import org.apache.xbean.finder.AnnotationFinder.PackageInfo;
 import org.apache.xbean.finder.AnnotationFinder.ParameterInfo;
-import org.apache.xbean.finder.Parameter;
 
 /**
- * Adds all classfile annotations to a ScanResult.
+ * Adds all classfile annotations to a ScanResult. Annotations are indexed by keys computable both from the xbean
+ * {@link Info} model and from reflective targets, so that each element is matched without resolving members.
  */
 class Inflater {
-    private class InfoMatcher implements Predicate<Info> {
-        final Class<? extends Info> type;
 
-        InfoMatcher(final Class<? extends Info> type) {
-            this.type = type;
-        }
-
-        @Override
-        public boolean test(final Info info) {
-            return type.isInstance(info);
-        }
+    /**
+     * Compute the key of a field.
+     * @param className binary name of declaring class
+     * @param name of field
+     * @return {@link String}
+     */
+    static String fieldKey(final String className, final String name) {
+        return className + '.' + name;
     }
 
-    private class MethodMatcher extends InfoMatcher {
-        final boolean isCtor;
-
-        MethodMatcher(final boolean isCtor) {
-            super(MethodInfo.class);
-            this.isCtor = isCtor;
-        }
-
-        @Override
-        public boolean test(final Info info) {
-            return super.test(info) && ((MethodInfo) info).isConstructor() == isCtor;
-        }
+    /**
+     * Compute the key of a method or constructor.
+     * @param className binary name of declaring class
+     * @param name of method, {@code <init>} for a constructor
+     * @param descriptor method descriptor
+     * @return {@link String}
+     */
+    static String methodKey(final String className, final String name, final String descriptor) {
+        return className + '.' + name + descriptor;
     }
 
-    private class ParameterMatcher extends InfoMatcher {
-        final boolean isCtor;
+    /**
+     * Compute the key of a parameter.
+     * @param methodKey of declaring method or constructor
+     * @param index of parameter
+     * @return {@link String}
+     */
+    static String parameterKey(final String methodKey, final int index) {
+        return methodKey + '#' + index;
+    }
 
-        ParameterMatcher(final boolean isCtor) {
-            super(ParameterInfo.class);
-            this.isCtor = isCtor;
-        }
+    private static String methodKey(final MethodInfo info) {
+        return methodKey(info.getDeclaringClass().getName(), info.getName(), info.getDescriptor());
+    }
 
-        @Override
-        public boolean test(final Info info) {
-            return super.test(info) && ((ParameterInfo) info).getDeclaringMethod().isConstructor() == isCtor;
-        }
+    private static void add(final Map<String, List<Annotation>> index, final String key,
+        final List<Annotation> annotations) {
+        index.computeIfAbsent(key, k -> new ArrayList<>()).addAll(annotations);
     }
 
-    final Map<PackageInfo, List<Annotation>> packageAnnotations;
-    final Map<ClassInfo, List<Annotation>> classAnnotations;
-    final Map<FieldInfo, List<Annotation>> fieldAnnotations;
-    final Map<MethodInfo, List<Annotation>> ctorAnnotations;
-    final Map<MethodInfo, List<Annotation>> methodAnnotations;
-    final Map<ParameterInfo, List<Annotation>> ctorParameterAnnotations;
-    final Map<ParameterInfo, List<Annotation>> methodParameterAnnotations;
+    final Map<String, List<Annotation>> packageAnnotations = new HashMap<>();
+    final Map<String, List<Annotation>> classAnnotations = new HashMap<>();
+    final Map<String, List<Annotation>> fieldAnnotations = new HashMap<>();
+    final Map<String, List<Annotation>> ctorAnnotations = new HashMap<>();
+    final Map<String, List<Annotation>> methodAnnotations = new HashMap<>();
+    final Map<String, List<Annotation>> ctorParameterAnnotations = new HashMap<>();
+    final Map<String, List<Annotation>> methodParameterAnnotations = new HashMap<>();
 
     Inflater(final Map<Info, List<Annotation>> annotationMap) {
-        this.packageAnnotations = subMap(annotationMap, new InfoMatcher(PackageInfo.class));
-        this.classAnnotations = subMap(annotationMap, new InfoMatcher(ClassInfo.class));
-        this.fieldAnnotations = subMap(annotationMap, new InfoMatcher(FieldInfo.class));
-        this.ctorAnnotations = subMap(annotationMap, new MethodMatcher(true));
-        this.methodAnnotations = subMap(annotationMap, new MethodMatcher(false));
-        this.ctorParameterAnnotations = subMap(annotationMap, new ParameterMatcher(true));
-        this.methodParameterAnnotations = subMap(annotationMap, new ParameterMatcher(false));
+        annotationMap.forEach((info, annotations) -> {
+            if (info instanceof PackageInfo) {
+                add(packageAnnotations, info.getName(), annotations);
+            } else if (info instanceof ClassInfo) {
+                add(classAnnotations, info.getName(), annotations);
+            } else if (info instanceof FieldInfo) {
+                add(fieldAnnotations, fieldKey(((FieldInfo) info).getDeclaringClass().getName(), info.getName()),
+                    annotations);
+            } else if (info instanceof MethodInfo) {
+                final MethodInfo methodInfo = (MethodInfo) info;
+                add(methodInfo.isConstructor() ? ctorAnnotations : methodAnnotations, methodKey(methodInfo),
+                    annotations);
+            } else if (info instanceof ParameterInfo) {
+                final MethodInfo methodInfo = ((ParameterInfo) info).getDeclaringMethod();
+                add(methodInfo.isConstructor() ? ctorParameterAnnotations : methodParameterAnnotations,
+                    parameterKey(methodKey(methodInfo), Integer.parseInt(info.getName())), annotations);
+            }
+        });
     }
 
-    static <I extends Info> Map<I, List<Annotation>> subMap(final Map<Info, List<Annotation>> source,
-        final InfoMatcher matcher) {
-        @SuppressWarnings("unchecked")
-        final Map<I, List<Annotation>> result = source.entrySet().stream().filter(e -> matcher.test(e.getKey()))
-            .collect(Collectors.toMap(t -> (I) t.getKey(), Map.Entry::getValue));
+    ScanResult inflate(final ScanResult scanResult) {
+        try (WeaveEvent event = WeaveEvent.begin("inflate", null)) {
+            for (final WeavablePackage pkg : scanResult.getPackages()) {
+                pkg.addAnnotations(packageAnnotations.get(pkg.getTarget().getName()));
 
-        return result;
-    }
+                for (final WeavableClass<?> cls : pkg.getClasses()) {
+                    final String className = cls.getTarget().getName();
+                    cls.addAnnotations(classAnnotations.get(className));
 
-    ScanResult inflate(final ScanResult scanResult) {
-        for (final WeavablePackage pkg : scanResult.getPackages()) {
-            packageAnnotations.forEach((k, v) -> {
-                if (k.getName().equals(pkg.getTarget().getName())) {
-                    pkg.addAnnotations(v);
-                }
-            });
-            for (final WeavableClass<?> cls : pkg.getClasses()) {
-                classAnnotations.forEach((k, v) -> {
-                    if (k.getName().equals(cls.getTarget().getName())) {
-                        cls.addAnnotations(v);
+                    for (final WeavableField<?> fld : cls.getFields()) {
+                        fld.addAnnotations(fieldAnnotations.get(fieldKey(className, fld.getTarget().getName())));
                     }
-                });
-                for (final WeavableField<?> fld : cls.getFields()) {
-                    fieldAnnotations.forEach((k, v) -> {
-                        try {
-                            if (k.get().equals(fld.getTarget())) {
-                                fld.addAnnotations(v);
+                    for (final WeavableConstructor<?> ctor : cls.getConstructors()) {
+                        final String key =
+                            methodKey(className, "<init>", Type.getConstructorDescriptor(ctor.getTarget()));
+                        ctor.addAnnotations(ctorAnnotations.get(key));
+
+                        for (int i = 0; i < ctor.getParameterCount(); i++) {
+                            final List<Annotation> annotations = ctorParameterAnnotations.get(parameterKey(key, i));
+                            if (annotations != null) {
+                                ctor.getWeavableParameter(i).addAnnotations(annotations);
                             }
-                        } catch (final ClassNotFoundException ignored) {
                         }
-                    });
-                }
-                for (final WeavableConstructor<?> ctor : cls.getConstructors()) {
-                    ctorAnnotations.forEach((k, v) -> {
-                        try {
-                            if (k.get().equals(ctor.getTarget())) {
-                                ctor.addAnnotations(v);
-                            }
-                        } catch (final ClassNotFoundException ignored) {
-                        }
-                    });
-                    for (final WeavableConstructorParameter<?> param : ctor.getParameters()) {
-                        ctorParameterAnnotations.forEach((k, v) -> {
-                            try {
-                                final Parameter<?> parameter = k.get();
-                                if (parameter.getDeclaringExecutable().equals(ctor.getTarget())
-                                    && param.getTarget().intValue() == parameter.getIndex()) {
-                                    param.addAnnotations(v);
-                                }
-                            } catch (final ClassNotFoundException ignored) {
-                            }
-                        });
                     }
-                }
-                for (final WeavableMethod<?> methd : cls.getMethods()) {
-                    methodAnnotations.forEach((k, v) -> {
-                        try {
-                            if (k.get().equals(methd.getTarget())) {
-                                methd.addAnnotations(v);
+                    for (final WeavableMethod<?> methd : cls.getMethods()) {
+                        final String key = methodKey(className, methd.getTarget().getName(),
+                            Type.getMethodDescriptor(methd.getTarget()));
+                        methd.addAnnotations(methodAnnotations.get(key));
+
+                        for (int i = 0; i < methd.getParameterCount(); i++) {
+                            final List<Annotation> annotations = methodParameterAnnotations.get(parameterKey(key, i));
+                            if (annotations != null) {
+                                methd.getWeavableParameter(i).addAnnotations(annotations);
                             }
-                        } catch (final ClassNotFoundException ignored) {
                         }
-                    });
-                    for (final WeavableMethodParameter<?> param : methd.getParameters()) {
-                        methodParameterAnnotations.forEach((k, v) -> {
-                            try {
-                                final Parameter<?> parameter = k.get();
-                                if (parameter.getDeclaringExecutable().equals(methd.getTarget())
-                                    && param.getTarget().intValue() == parameter.getIndex()) {
-                                    param.addAnnotations(v);
-                                }
-                            } catch (final ClassNotFoundException ignored) {
-                            }
-                        });
                     }
                 }
             }
@@ -18,41 +18,185 @@
  */
 package org.apache.commons.weaver;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.util.Properties;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.weaver.model.WeaveEnvironment;
+import org.apache.commons.weaver.utils.WeaveEvent;
 
 class LocalWeaveEnvironment extends WeaveEnvironment {
 
+    private static final String CLASSFILE_SUFFIX = ".class";
+
+    /**
+     * Read the specified resource directly from a directory, bypassing class loader resource lookup.
+     * @param directory to read from
+     * @param resourceName relative to {@code directory}
+     * @return content of the resource, {@code null} if no such file exists
+     * @throws IOException on error
+     * @since 2.1
+     */
+    static byte[] readDirect(final File directory, final String resourceName) throws IOException {
+        final Path path = directory.toPath().resolve(resourceName);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(path);
+        } catch (final NoSuchFileException e) {
+            return null;
+        }
+    }
+
     private final File target;
+    private final Consumer<String> listener;
+    private final StagingArea staging;
+    private final ClassfileCache cache;
+    private final WeaveMetrics metrics;
 
     protected LocalWeaveEnvironment(final File target, final ClassLoader classLoader, final Properties config,
         final Logger log) {
         super(classLoader, config, log);
         Validate.notNull(target, "target");
         this.target = target;
+        this.listener = resourceName -> {
+        };
+        this.staging = null;
+        this.cache = null;
+        this.metrics = null;
+    }
+
+    /**
+     * Create a new {@link LocalWeaveEnvironment} instance for the specified processor: resources written or deleted
+     * are marked modified in its {@link Finder}, and are staged, cached and counted per its configuration.
+     * @param processor whose target, class loader, configuration, staging area, cache and metrics are used
+     * @param log {@link Logger}
+     * @since 2.1
+     */
+    LocalWeaveEnvironment(final ProcessorBase<?> processor, final Logger log) {
+        super(processor.classLoader, processor.configuration, log);
+        this.target = processor.target;
+        this.listener = processor.finder::modified;
+        this.staging = processor.staging;
+        this.cache = processor.cache;
+        this.metrics = processor.metrics;
     }
 
+    /**
+     * {@inheritDoc} Any cached content is invalidated both before and after the deletion, such that content read
+     * meanwhile is not retained.
+     */
     @Override
     public boolean deleteResource(final String name) {
-        return new File(target, name).delete();
+        invalidate(name);
+        final boolean result;
+        try {
+            result = staging == null ? new File(target, name).delete() : staging.delete(name);
+        } finally {
+            invalidate(name);
+        }
+        if (result) {
+            listener.accept(name);
+        }
+        return result;
     }
 
+    /**
+     * {@inheritDoc} Any cached content is invalidated both upon opening and upon closing the stream, such that
+     * content read while the resource is being written, e.g. a truncated file, is not retained.
+     */
     @Override
     protected OutputStream getOutputStream(final String resourceName) throws IOException {
+        invalidate(resourceName);
+        if (staging != null) {
+            listener.accept(resourceName);
+            return instrument(resourceName, staging.getOutputStream(resourceName));
+        }
         final File file = new File(target, resourceName);
         final File parent = file.getParentFile();
         if (parent.exists()) {
             Validate.validState(parent.isDirectory(), "Cannot write %s to non-directory parent", file);
         } else {
-            Validate.validState(parent.mkdirs(), "Unable to create output directory %s", parent);
+            // tolerate concurrent creation by another writer:
+            Validate.validState(parent.mkdirs() || parent.isDirectory(), "Unable to create output directory %s",
+                parent);
+        }
+        listener.accept(resourceName);
+        return instrument(resourceName, new FileOutputStream(file));
+    }
+
+    /**
+     * {@inheritDoc} Resources of a target directory are read directly, the {@link #classLoader} being consulted only
+     * for resources elsewhere on the classpath.
+     */
+    @Override
+    protected InputStream getInputStream(final String resourceName) throws IOException {
+        final InputStream result = WeaveEvent.reading(resourceName, read(resourceName));
+        return metrics == null ? result : metrics.reading(result);
+    }
+
+    private InputStream read(final String resourceName) throws IOException {
+        if (staging != null && staging.isStaged(resourceName)) {
+            return staging.getInputStream(resourceName);
+        }
+        if (cache != null && resourceName.endsWith(CLASSFILE_SUFFIX)) {
+            return cache.get(resourceName, () -> load(resourceName));
+        }
+        final byte[] content = target.isDirectory() ? readDirect(target, resourceName) : null;
+        return content == null ? super.getInputStream(resourceName) : new ByteArrayInputStream(content);
+    }
+
+    private byte[] load(final String resourceName) throws IOException {
+        if (target.isDirectory()) {
+            final byte[] result = readDirect(target, resourceName);
+            if (result != null) {
+                return result;
+            }
+        }
+        try (InputStream bytecode = super.getInputStream(resourceName)) {
+            return bytecode == null ? null : ScanIndex.readFully(bytecode);
+        }
+    }
+
+    private OutputStream instrument(final String resourceName, final OutputStream stream) {
+        final OutputStream event = WeaveEvent.writing(resourceName, stream);
+        final OutputStream result = metrics == null ? event : metrics.writing(event);
+        if (cache == null) {
+            return result;
+        }
+        return new FilterOutputStream(result) {
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    invalidate(resourceName);
+                }
+            }
+        };
+    }
+
+    private void invalidate(final String resourceName) {
+        if (cache != null) {
+            cache.invalidate(resourceName);
         }
-        return new FileOutputStream(file);
     }
 }
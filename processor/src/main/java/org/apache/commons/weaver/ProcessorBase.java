@@ -18,22 +18,39 @@
  */
 package org.apache.commons.weaver;
 
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
+import java.util.stream.StreamSupport;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.weaver.lifecycle.WeaveLifecycle;
+import org.apache.commons.weaver.model.ScanRequest;
+import org.apache.commons.weaver.model.WeaveEnvironment;
 import org.apache.commons.weaver.spi.WeaveLifecycleProvider;
+import org.apache.commons.weaver.spi.WeaveListener;
 import org.apache.commons.weaver.utils.Providers;
 import org.apache.commons.weaver.utils.URLArray;
+import org.apache.commons.weaver.utils.WeaveEvent;
+import org.apache.xbean.finder.archive.Archive;
 import org.apache.xbean.finder.archive.FileArchive;
 
 /**
@@ -42,7 +59,58 @@ import org.apache.xbean.finder.archive.FileArchive;
  * @param <P> managed {@link WeaveLifecycleProvider} type
  * @since 1.2
  */
-class ProcessorBase<P extends WeaveLifecycleProvider<?>> {
+class ProcessorBase<P extends WeaveLifecycleProvider<?>> implements Closeable {
+
+    /**
+     * Configuration key specifying the number of threads with which to scan the target. Values less than {@code 2}
+     * (the default) specify a sequential scan.
+     * @since 2.1
+     */
+    public static final String CONFIG_SCAN_PARALLELISM = "weaver.scanParallelism";
+
+    /**
+     * Configuration key specifying the location of a persistent index of the target's classfiles, allowing
+     * unchanged classfiles to be scanned from the index on subsequent runs. By default no index is used.
+     * @since 2.1
+     */
+    public static final String CONFIG_SCAN_INDEX = "weaver.scanIndex";
+
+    /**
+     * Configuration key specifying whether resources written and deleted during processing are staged in memory,
+     * the target directory being updated at once only upon successful completion. Defaults to {@code false}.
+     * @since 2.1
+     */
+    public static final String CONFIG_STAGING = "weaver.staging";
+
+    /**
+     * Configuration key specifying the maximum total size, in bytes, of the classfile content cached across the
+     * reads of a processor run. By default no content is cached.
+     * @since 2.1
+     */
+    public static final String CONFIG_CLASSFILE_CACHE_SIZE = "weaver.classfileCacheSize";
+
+    /**
+     * {@link URLClassLoader} counting the classes it defines.
+     */
+    private static class CountingClassLoader extends URLClassLoader {
+        static {
+            registerAsParallelCapable();
+        }
+
+        private final WeaveMetrics metrics;
+
+        CountingClassLoader(final URL[] urls, final ClassLoader parent, final WeaveMetrics metrics) {
+            super(urls, parent);
+            this.metrics = metrics;
+        }
+
+        @Override
+        protected Class<?> findClass(final String name) throws ClassNotFoundException {
+            final Class<?> result = super.findClass(name);
+            metrics.classLoaded();
+            return result;
+        }
+    }
 
     /**
      * Use the {@link ServiceLoader} to discover available {@code type} implementations.
@@ -76,7 +144,7 @@ class ProcessorBase<P extends WeaveLifecycleProvider<?>> {
     protected final List<String> classpath;
 
     /**
-     * The actual path to be woven, replacing any affected classes.
+     * The actual path to be woven, replacing any affected classes: a directory or, since 2.1, a JAR or zip file.
      */
     protected final File target;
 
@@ -100,6 +168,33 @@ class ProcessorBase<P extends WeaveLifecycleProvider<?>> {
      */
     protected final Finder finder;
 
+    /**
+     * {@link StagingArea} for {@link #target}, {@code null} unless {@link #CONFIG_STAGING} or
+     * {@link WeaveProcessor#CONFIG_WEAVER_PARALLELISM} is set or {@link #target} is an archive.
+     */
+    final StagingArea staging;
+
+    /**
+     * {@link ClassfileCache} for the run, {@code null} unless {@link #CONFIG_CLASSFILE_CACHE_SIZE} is set.
+     */
+    final ClassfileCache cache;
+
+    /**
+     * {@link WeaveMetrics} of the run.
+     */
+    final WeaveMetrics metrics = new WeaveMetrics();
+
+    /**
+     * {@link ZipArchive} of {@link #target}, {@code null} unless {@link #target} is an archive.
+     */
+    private final ZipArchive archive;
+
+    /**
+     * {@link ForkJoinPool} across which {@link #finder} surveys and reads classfiles, {@code null} unless
+     * {@link #CONFIG_SCAN_PARALLELISM} is set; shut down by {@link #close()}.
+     */
+    private final ForkJoinPool scanPool;
+
     /**
      * Create a new {@link ProcessorBase} instance.
      *
@@ -110,19 +205,316 @@ class ProcessorBase<P extends WeaveLifecycleProvider<?>> {
      */
     protected ProcessorBase(final List<String> classpath, final File target, final Properties configuration,
         final Iterable<P> providers) {
+        this(classpath, null, target, configuration, providers, null);
+    }
+
+    /**
+     * Create a new {@link ProcessorBase} instance.
+     *
+     * @param classpath not {@code null}
+     * @param parent if not {@code null}, the parent of {@link #classLoader}, e.g. a {@link ClassLoader} over further,
+     *            shared, classpath entries
+     * @param target not {@code null}
+     * @param configuration not {@code null}
+     * @param providers not empty
+     * @param scope if not {@code null}, restricts the scanned classes by name
+     * @since 2.1
+     */
+    ProcessorBase(final List<String> classpath, final ClassLoader parent, final File target,
+        final Properties configuration, final Iterable<P> providers, final Predicate<String> scope) {
         this.classpath = Validate.notNull(classpath, "classpath");
         this.target = Validate.notNull(target, "target");
-        Validate.isTrue(!target.exists() || target.isDirectory(), "%s is not a directory", target);
+        Validate.isTrue(!target.exists() || target.isDirectory() || ZipArchive.isArchive(target),
+            "%s is neither a directory nor an archive", target);
         this.configuration = Validate.notNull(configuration, "configuration");
         this.providers = Providers.sort(providers);
-        this.classLoader = createClassLoader();
-        this.finder = new Finder(new FileArchive(classLoader, target));
+        getServiceInstances(WeaveListener.class).forEach(metrics::addListener);
+        final long start = System.nanoTime();
+        try (WeaveEvent event = WeaveEvent.begin(WeaveMetrics.PHASE_CLASS_LOADER, target.getPath())) {
+            this.classLoader = createClassLoader(parent);
+        }
+        metrics.phaseCompleted(WeaveMetrics.PHASE_CLASS_LOADER, System.nanoTime() - start);
+        final long cacheSize = Long.parseLong(configuration.getProperty(CONFIG_CLASSFILE_CACHE_SIZE, "0").trim());
+        this.cache = cacheSize > 0 ? new ClassfileCache(cacheSize) : null;
+        if (target.isFile()) {
+            // an archive is rewritten once, from staged entries:
+            this.archive = new ZipArchive(classLoader, target);
+            this.staging = new StagingArea(target, archive);
+        } else {
+            this.archive = null;
+            // concurrent weavers must not read a resource in the midst of being written:
+            this.staging = Boolean.parseBoolean(configuration.getProperty(CONFIG_STAGING, "false").trim())
+                || getParallelism(WeaveProcessor.CONFIG_WEAVER_PARALLELISM) > 1 ? new StagingArea(target) : null;
+        }
+        final int scanParallelism = getParallelism(CONFIG_SCAN_PARALLELISM);
+        this.scanPool = scanParallelism < 2 ? null : new ForkJoinPool(scanParallelism);
+        final long scanStart = System.nanoTime();
+        try (WeaveEvent event = WeaveEvent.begin(WeaveMetrics.PHASE_FINDER, target.getPath())) {
+            this.finder = createFinder(scope);
+        }
+        metrics.phaseCompleted(WeaveMetrics.PHASE_FINDER, System.nanoTime() - scanStart);
+        metrics.classesScanned(finder.getSurveyed());
+    }
+
+    /**
+     * Gets the {@link WeaveMetrics} of this processor's run, complete once the run has completed.
+     * @return {@link WeaveMetrics}
+     * @since 2.1
+     */
+    public WeaveMetrics getMetrics() {
+        return metrics;
     }
 
-    private ClassLoader createClassLoader() {
+    /**
+     * Add a {@link WeaveListener} to this processor, in addition to those discovered using the {@link ServiceLoader}
+     * mechanism. A listener so added is not notified of the phases completed during construction, which are
+     * nonetheless recorded by {@link #getMetrics()}.
+     * @param listener to add
+     * @since 2.1
+     */
+    public void addListener(final WeaveListener listener) {
+        metrics.addListener(listener);
+    }
+
+    /**
+     * Perform the specified action, recording its elapsed time as a phase of the run and spanning it with a
+     * {@link WeaveEvent}.
+     * @param phase name
+     * @param action to perform
+     * @since 2.1
+     */
+    void timed(final String phase, final Runnable action) {
+        final long start = System.nanoTime();
+        try (WeaveEvent event = WeaveEvent.begin(phase, target.getPath())) {
+            action.run();
+        }
+        metrics.phaseCompleted(phase, System.nanoTime() - start);
+    }
+
+    /**
+     * Record the successful completion of the run.
+     * @since 2.1
+     */
+    void completed() {
+        final long inflateNanos = finder.getInflateNanos();
+        if (inflateNanos > 0) {
+            metrics.phaseCompleted(WeaveMetrics.PHASE_INFLATE, inflateNanos);
+        }
+        log.fine(metrics::getSummary);
+        metrics.completed();
+    }
+
+    /**
+     * Plan the scanning of the specified providers from the {@link ScanRequest}s they declare.
+     * @param environments in which each provider will process, by provider
+     * @return {@link ScanPlan}
+     * @see WeaveLifecycleProvider#getScanRequest(WeaveEnvironment)
+     * @since 2.1
+     */
+    ScanPlan plan(final Map<P, ? extends WeaveEnvironment> environments) {
+        final Map<P, ScanRequest> declared = new LinkedHashMap<>();
+        environments.forEach((provider, env) -> {
+            final ScanRequest request = provider.getScanRequest(env);
+            if (request != null) {
+                declared.put(provider, request);
+            }
+        });
+        if (!declared.isEmpty()) {
+            log.fine(() -> String.format("Planned union scan for %d of %d providers", declared.size(),
+                environments.size()));
+        }
+        return new ScanPlan(finder, declared);
+    }
+
+    /**
+     * Re-index the classfiles modified by the specified provider(s), such that subsequent providers scan them as
+     * modified.
+     * @param modifier provider, or {@link java.util.Collection} of providers, having just processed
+     * @since 2.1
+     */
+    void reindex(final Object modifier) {
+        final int count = finder.reindex();
+        if (count > 0) {
+            log.fine(() -> String.format("Re-indexed %d classfiles modified by %s", count, modifier));
+        }
+    }
+
+    /**
+     * Create a {@link LocalWeaveEnvironment} for the specified provider, writing through {@link #staging} if
+     * configured.
+     * @param provider to process in the environment
+     * @return {@link LocalWeaveEnvironment}
+     * @since 2.1
+     */
+    LocalWeaveEnvironment createEnvironment(final P provider) {
+        return new LocalWeaveEnvironment(this, Logger.getLogger(provider.getClass().getName()));
+    }
+
+    /**
+     * Write any staged resources to {@link #target}.
+     * @since 2.1
+     */
+    void flush() {
+        if (cache != null) {
+            log.fine(() -> String.format("Classfile cache: %d hits, %d misses, %d bytes cached", cache.getHits(),
+                cache.getMisses(), cache.getSize()));
+        }
+        if (staging == null) {
+            return;
+        }
+        try (WeaveEvent event = WeaveEvent.begin("flush", target.getPath())) {
+            final int count = staging.flush();
+            log.fine(() -> String.format("Flushed %d staged resources to %s", count, target));
+        } catch (final IOException e) {
+            throw new IllegalStateException(String.format("Unable to write staged resources to %s", target), e);
+        }
+    }
+
+    /**
+     * Release the resources held by this processor, i.e. its {@link #classLoader}, any open archive and any scan
+     * thread pool. The processor is unusable thereafter.
+     * @throws IOException on error
+     * @since 2.1
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (archive != null) {
+                archive.close();
+            }
+        } finally {
+            if (scanPool != null) {
+                scanPool.shutdown();
+            }
+            ((URLClassLoader) classLoader).close();
+        }
+    }
+
+    private ClassLoader createClassLoader(final ClassLoader parent) {
         final Set<String> finderClasspath = new LinkedHashSet<>();
         finderClasspath.add(target.getAbsolutePath());
         finderClasspath.addAll(classpath);
-        return new URLClassLoader(URLArray.fromPaths(finderClasspath));
+        final URL[] urls = URLArray.fromPaths(finderClasspath);
+        return new CountingClassLoader(urls, parent == null ? ClassLoader.getSystemClassLoader() : parent, metrics);
+    }
+
+    private Finder createFinder(final Predicate<String> scope) {
+        final String indexPath = configuration.getProperty(CONFIG_SCAN_INDEX);
+        if (archive != null) {
+            if (StringUtils.isNotBlank(indexPath)) {
+                log.warning(() -> String.format("Ignoring scan index %s for archive %s", indexPath, target));
+            }
+            return createFinder(scope(stage(archive), scope));
+        }
+        if (StringUtils.isBlank(indexPath)) {
+            return createFinder(scope(stage(direct(new FileArchive(classLoader, target))), scope));
+        }
+        final ScanIndex scanIndex = ScanIndex.load(new File(indexPath.trim()), target);
+        final Finder result =
+            createFinder(scope(scanIndex.index(stage(direct(new FileArchive(classLoader, target)))), scope));
+
+        // each classfile was looked up, once, as it was surveyed:
+        log.fine(() -> String.format("Scanned %d indexed and %d new or modified classfiles", scanIndex.getReused(),
+            scanIndex.getRead()));
+        try {
+            scanIndex.store();
+        } catch (final IOException e) {
+            log.warning(() -> String.format("Unable to store scan index %s: %s", indexPath, e.getMessage()));
+        }
+        return result;
+    }
+
+    /**
+     * Wrap the specified {@link FileArchive} of {@link #target} such that classfiles are read directly from the target
+     * directory rather than by class loader resource lookup.
+     * @param archive to wrap
+     * @return {@link Archive}
+     */
+    private Archive direct(final FileArchive archive) {
+        return new Archive() {
+
+            @Override
+            public InputStream getBytecode(final String className) throws IOException, ClassNotFoundException {
+                final InputStream result = readDirect(className);
+                return result == null ? archive.getBytecode(className) : result;
+            }
+
+            @Override
+            public Class<?> loadClass(final String className) throws ClassNotFoundException {
+                return archive.loadClass(className);
+            }
+
+            @Override
+            public Iterator<Entry> iterator() {
+                return StreamSupport.stream(archive.spliterator(), false).<Entry> map(e -> new Entry() {
+
+                    @Override
+                    public String getName() {
+                        return e.getName();
+                    }
+
+                    @Override
+                    public InputStream getBytecode() throws IOException {
+                        final InputStream result = readDirect(e.getName());
+                        return result == null ? e.getBytecode() : result;
+                    }
+                }).iterator();
+            }
+        };
+    }
+
+    private InputStream readDirect(final String className) throws IOException {
+        final String resourceName = className.replace('.', '/') + ".class";
+        if (cache == null) {
+            final byte[] content = LocalWeaveEnvironment.readDirect(target, resourceName);
+            return content == null ? null : new ByteArrayInputStream(content);
+        }
+        return cache.get(resourceName, () -> LocalWeaveEnvironment.readDirect(target, resourceName));
+    }
+
+    private Archive stage(final Archive archive) {
+        return staging == null ? archive : staging.wrap(archive);
+    }
+
+    private static Archive scope(final Archive archive, final Predicate<String> scope) {
+        if (scope == null) {
+            return archive;
+        }
+        return new Archive() {
+
+            @Override
+            public InputStream getBytecode(final String className) throws IOException, ClassNotFoundException {
+                return archive.getBytecode(className);
+            }
+
+            @Override
+            public Class<?> loadClass(final String className) throws ClassNotFoundException {
+                return archive.loadClass(className);
+            }
+
+            @Override
+            public Iterator<Entry> iterator() {
+                return StreamSupport.stream(archive.spliterator(), false).filter(e -> scope.test(e.getName()))
+                    .iterator();
+            }
+        };
+    }
+
+    /**
+     * Get the parallelism configured by the specified key.
+     * @param key configuration key
+     * @return {@code int}, less than {@code 2} where sequential processing is configured
+     * @since 2.1
+     */
+    int getParallelism(final String key) {
+        return Integer.parseInt(configuration.getProperty(key, "1").trim());
+    }
+
+    private Finder createFinder(final Archive archive) {
+        if (scanPool == null) {
+            return new Finder(archive);
+        }
+        log.fine(() -> String.format("Scanning %s with parallelism %d", target, scanPool.getParallelism()));
+        return new Finder(archive, scanPool);
     }
 }
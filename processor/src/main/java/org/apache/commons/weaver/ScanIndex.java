@@ -0,0 +1,334 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.xbean.asm6.ClassReader;
+import org.apache.xbean.asm6.ClassWriter;
+import org.apache.xbean.finder.archive.Archive;
+
+/**
+ * Persistent index of the classfiles of a target directory, reused across processor runs. For each classfile, the
+ * index records its size, modification time and content hash along with a "skeleton" of the class, i.e. the class
+ * stripped of everything the {@link Finder} skips. Unchanged classfiles are thus scanned from a single index file,
+ * read in one pass, rather than being read individually from the target directory. The index file is not mapped, as
+ * a mapping held by the loaded records would prevent the file being replaced upon {@link #store()} on some
+ * platforms.
+ */
+class ScanIndex {
+
+    private static final class Record {
+        final long size;
+        final long lastModified;
+        final byte[] hash;
+        final ByteBuffer skeleton;
+
+        Record(final long size, final long lastModified, final byte[] hash, final ByteBuffer skeleton) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+            this.skeleton = skeleton;
+        }
+
+        byte[] skeleton() {
+            final ByteBuffer buffer = skeleton.duplicate();
+            final byte[] result = new byte[buffer.remaining()];
+            buffer.get(result);
+            return result;
+        }
+    }
+
+    private class IndexedArchive implements Archive {
+        private final Archive wrapped;
+
+        IndexedArchive(final Archive wrapped) {
+            this.wrapped = wrapped;
+        }
+
+        @Override
+        public InputStream getBytecode(final String className) throws IOException, ClassNotFoundException {
+            return wrapped.getBytecode(className);
+        }
+
+        @Override
+        public Class<?> loadClass(final String className) throws ClassNotFoundException {
+            return wrapped.loadClass(className);
+        }
+
+        @Override
+        public Iterator<Entry> iterator() {
+            final Iterator<Entry> entries = wrapped.iterator();
+            return new Iterator<Entry>() {
+
+                @Override
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+
+                @Override
+                public Entry next() {
+                    final Entry entry = entries.next();
+                    seen.add(resourceName(entry));
+                    return new Entry() {
+
+                        @Override
+                        public String getName() {
+                            return entry.getName();
+                        }
+
+                        @Override
+                        public InputStream getBytecode() throws IOException {
+                            return read(entry);
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    private static final int MAGIC = 0x43575349;
+    private static final int VERSION = 1;
+    private static final String HASH_ALGORITHM = "SHA-1";
+
+    /**
+     * Load the index stored in {@code file}, if any, for the classfiles of {@code target}. An unreadable or
+     * incompatible index is ignored.
+     * @param file index location
+     * @param target directory whose classfiles are indexed
+     * @return {@link ScanIndex}
+     */
+    static ScanIndex load(final File file, final File target) {
+        long timestamp = Long.MIN_VALUE;
+        final Map<String, Record> records = new HashMap<>();
+        if (file.isFile()) {
+            try {
+                final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+                if (buffer.getInt() == MAGIC && buffer.getInt() == VERSION) {
+                    timestamp = buffer.getLong();
+                    final int count = buffer.getInt();
+                    final String[] names = new String[count];
+                    final long[][] attributes = new long[count][];
+                    final byte[][] hashes = new byte[count][];
+                    for (int i = 0; i < count; i++) {
+                        names[i] = new String(bytes(buffer, buffer.getShort() & 0xFFFF), StandardCharsets.UTF_8);
+                        attributes[i] = new long[] { buffer.getLong(), buffer.getLong(), buffer.getInt() };
+                        hashes[i] = bytes(buffer, buffer.get() & 0xFF);
+                    }
+                    for (int i = 0; i < count; i++) {
+                        final ByteBuffer skeleton = buffer.slice();
+                        skeleton.limit((int) attributes[i][2]);
+                        buffer.position(buffer.position() + skeleton.limit());
+                        records.put(names[i], new Record(attributes[i][0], attributes[i][1], hashes[i], skeleton));
+                    }
+                }
+            } catch (final IOException | BufferUnderflowException | IllegalArgumentException e) {
+                records.clear();
+                timestamp = Long.MIN_VALUE;
+            }
+        }
+        return new ScanIndex(file, target, timestamp, records);
+    }
+
+    private static byte[] bytes(final ByteBuffer buffer, final int length) {
+        final byte[] result = new byte[length];
+        buffer.get(result);
+        return result;
+    }
+
+    private static byte[] hash(final byte[] bytecode) {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM).digest(bytecode);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] skeleton(final byte[] bytecode) {
+        final ClassWriter writer = new ClassWriter(0);
+        new ClassReader(bytecode).accept(writer, Finder.ASM_FLAGS);
+        return writer.toByteArray();
+    }
+
+    private final File file;
+    private final File target;
+    private final long timestamp;
+    private final long started = System.currentTimeMillis();
+    private final Map<String, Record> previous;
+    private final Map<String, Record> current = new ConcurrentHashMap<>();
+    private final Set<String> seen = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger reused = new AtomicInteger();
+    private final AtomicInteger read = new AtomicInteger();
+
+    private ScanIndex(final File file, final File target, final long timestamp, final Map<String, Record> previous) {
+        this.file = Validate.notNull(file, "file");
+        this.target = Validate.notNull(target, "target");
+        this.timestamp = timestamp;
+        this.previous = Collections.unmodifiableMap(previous);
+    }
+
+    /**
+     * Wrap {@code archive} such that its entries are read through this {@link ScanIndex}.
+     * @param archive over the target directory
+     * @return {@link Archive}
+     */
+    Archive index(final Archive archive) {
+        return new IndexedArchive(archive);
+    }
+
+    /**
+     * Gets the number of classfiles that were read from the index.
+     * @return {@code int}
+     */
+    int getReused() {
+        return reused.get();
+    }
+
+    /**
+     * Gets the number of classfiles that were read from the target directory.
+     * @return {@code int}
+     */
+    int getRead() {
+        return read.get();
+    }
+
+    /**
+     * Write the classfiles encountered since this index was loaded to its file, replacing any prior content.
+     * @throws IOException on error
+     */
+    void store() throws IOException {
+        final Map<String, Record> records = new TreeMap<>(current);
+
+        // retain records of classfiles present but not read, e.g. when only part of the target is scanned:
+        seen.stream().filter(previous::containsKey).forEach(name -> records.putIfAbsent(name, previous.get(name)));
+        final Path path = file.getAbsoluteFile().toPath();
+        Files.createDirectories(path.getParent());
+        final Path temp = Files.createTempFile(path.getParent(), file.getName(), ".tmp");
+        try {
+            try (DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(started);
+                out.writeInt(records.size());
+                for (final Map.Entry<String, Record> e : records.entrySet()) {
+                    final byte[] name = e.getKey().getBytes(StandardCharsets.UTF_8);
+                    out.writeShort(name.length);
+                    out.write(name);
+                    out.writeLong(e.getValue().size);
+                    out.writeLong(e.getValue().lastModified);
+                    out.writeInt(e.getValue().skeleton.remaining());
+                    out.writeByte(e.getValue().hash.length);
+                    out.write(e.getValue().hash);
+                }
+                for (final Record record : records.values()) {
+                    out.write(record.skeleton());
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Read an archive entry through this index. Each classfile is looked up, and counted, but once; should the same
+     * entry be read again, its recorded skeleton is returned.
+     * @param entry to read
+     * @return {@link InputStream}
+     * @throws IOException on error
+     */
+    private InputStream read(final Archive.Entry entry) throws IOException {
+        final String name = resourceName(entry);
+        final Record recorded = current.get(name);
+        if (recorded != null) {
+            return new ByteArrayInputStream(recorded.skeleton());
+        }
+        final File classfile = new File(target, name);
+        final long size = classfile.length();
+        final long lastModified = classfile.lastModified();
+        final Record prior = previous.get(name);
+
+        // a file modified no earlier than the prior scan began may have changed without affecting its timestamp:
+        if (prior != null && prior.size == size && prior.lastModified == lastModified && lastModified < timestamp) {
+            current.put(name, prior);
+            reused.incrementAndGet();
+            return new ByteArrayInputStream(prior.skeleton());
+        }
+        final byte[] bytecode;
+        try (InputStream in = entry.getBytecode()) {
+            bytecode = readFully(in);
+        }
+        final byte[] hash = hash(bytecode);
+        if (prior != null && Arrays.equals(prior.hash, hash)) {
+            current.put(name, new Record(size, lastModified, hash, prior.skeleton));
+            reused.incrementAndGet();
+            return new ByteArrayInputStream(prior.skeleton());
+        }
+        current.put(name, new Record(size, lastModified, hash, ByteBuffer.wrap(skeleton(bytecode))));
+        read.incrementAndGet();
+        return new ByteArrayInputStream(bytecode);
+    }
+
+    private static String resourceName(final Archive.Entry entry) {
+        return entry.getName().replace('.', '/') + ".class";
+    }
+
+    /**
+     * Read the remaining content of {@code in}.
+     * @param in to read, not closed
+     * @return {@code byte[]}
+     * @throws IOException on error
+     */
+    static byte[] readFully(final InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        int length = 0;
+        int count;
+        while ((count = in.read(buffer, length, buffer.length - length)) >= 0) {
+            length += count;
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.weaver.model.BytecodeClass;
+import org.apache.commons.weaver.model.BytecodeMethod;
+import org.apache.commons.weaver.model.BytecodeScanResult;
+import org.apache.commons.weaver.model.BytecodeScanner;
+import org.apache.commons.weaver.model.ScanRequest;
+import org.apache.commons.weaver.model.ScanResult;
+import org.apache.commons.weaver.model.Scanner;
+import org.apache.commons.weaver.model.WeavableClass;
+import org.apache.commons.weaver.model.WeavableConstructor;
+import org.apache.commons.weaver.model.WeavableConstructorParameter;
+import org.apache.commons.weaver.model.WeavableField;
+import org.apache.commons.weaver.model.WeavableMethod;
+import org.apache.commons.weaver.model.WeavableMethodParameter;
+import org.apache.commons.weaver.model.WeavablePackage;
+import org.apache.commons.weaver.model.WeaveInterest;
+import org.apache.xbean.asm6.Type;
+
+/**
+ * Plan for the scanning performed by the providers of a lifecycle stage. The {@link ScanRequest}s declared by the
+ * providers ahead of processing are combined into a single union request, the classfiles relevant to which are read
+ * in one pass. The {@link Scanner} handed to each declaring provider then answers requests covered by the union from
+ * the union results, rather than walking the scanned elements once per request.
+ */
+class ScanPlan {
+
+    /**
+     * {@link BytecodeScanner} view of the union results.
+     */
+    private class View implements BytecodeScanner {
+
+        @Override
+        public ScanResult scan(final ScanRequest request) {
+            if (!covers(request)) {
+                return finder.scan(request);
+            }
+            return filter(finder.scan(union), request);
+        }
+
+        @Override
+        public BytecodeScanResult scanBytecode(final ScanRequest request) {
+            if (!covers(request)) {
+                return finder.scanBytecode(request);
+            }
+            final BytecodeScanResult all = finder.scanBytecode(union);
+            final BytecodeScanResult result = new BytecodeScanResult();
+            all.getClasses().stream().filter(cls -> matches(cls, request)).forEach(result::add);
+            return result;
+        }
+    }
+
+    private static final String PACKAGE_INFO = "package-info";
+
+    private static boolean isUnconstrained(final ScanRequest request) {
+        return !request.isConstrained() || request.getSupertypes().contains(Object.class);
+    }
+
+    /**
+     * Filter the union {@link ScanResult} to the elements matched by {@code request}. Each element retained, along
+     * with its enclosing elements, carries the annotations it bears in the union result.
+     * @param all union {@link ScanResult}
+     * @param request constrained {@link ScanRequest}
+     * @return {@link ScanResult}
+     */
+    private static ScanResult filter(final ScanResult all, final ScanRequest request) {
+        final ScanResult result = new ScanResult();
+
+        for (final WeaveInterest interest : request.getInterests()) {
+            final Class<? extends Annotation> annotationType = interest.annotationType;
+            switch (interest.target) {
+            case PACKAGE:
+                all.getPackages().with(annotationType).forEach(pkg -> result.getWeavable(pkg.getTarget()));
+                break;
+            case TYPE:
+                all.getClasses().with(annotationType).forEach(cls -> result.getWeavable(cls.getTarget()));
+                break;
+            case METHOD:
+                all.getMethods().with(annotationType).forEach(methd -> result.getWeavable(methd.getTarget()));
+                break;
+            case CONSTRUCTOR:
+                all.getConstructors().with(annotationType).forEach(ctor -> result.getWeavable(ctor.getTarget()));
+                break;
+            case FIELD:
+                all.getFields().with(annotationType).forEach(fld -> result.getWeavable(fld.getTarget()));
+                break;
+            case PARAMETER:
+                all.getMethodParameters().with(annotationType).forEach(param -> result
+                    .getWeavable(param.getParent().getTarget()).getWeavableParameter(param.getTarget().intValue()));
+                all.getConstructorParameters().with(annotationType).forEach(param -> result
+                    .getWeavable(param.getParent().getTarget()).getWeavableParameter(param.getTarget().intValue()));
+                break;
+            default:
+                break;
+            }
+        }
+        for (final Class<?> supertype : request.getSupertypes()) {
+            all.getClassesAssignableTo(supertype).forEach(cls -> {
+                if (!supertype.equals(cls.getTarget())) {
+                    result.getWeavable(cls.getTarget());
+                }
+            });
+        }
+        copyAnnotations(all, result);
+        return result;
+    }
+
+    private static void copyAnnotations(final ScanResult from, final ScanResult to) {
+        for (final WeavablePackage pkg : to.getPackages()) {
+            pkg.addAnnotations(from.getWeavable(pkg.getTarget()).getAnnotations());
+
+            for (final WeavableClass<?> cls : pkg.getClasses()) {
+                final WeavableClass<?> source = from.getWeavable(cls.getTarget());
+                cls.addAnnotations(source.getAnnotations());
+
+                for (final WeavableField<?> fld : cls.getFields()) {
+                    fld.addAnnotations(from.getWeavable(fld.getTarget()).getAnnotations());
+                }
+                for (final WeavableConstructor<?> ctor : cls.getConstructors()) {
+                    final WeavableConstructor<?> sourceCtor = from.getWeavable(ctor.getTarget());
+                    ctor.addAnnotations(sourceCtor.getAnnotations());
+
+                    for (final WeavableConstructorParameter<?> param : ctor.getParameters()) {
+                        param.addAnnotations(
+                            sourceCtor.getWeavableParameter(param.getTarget().intValue()).getAnnotations());
+                    }
+                }
+                for (final WeavableMethod<?> methd : cls.getMethods()) {
+                    final WeavableMethod<?> sourceMethod = from.getWeavable(methd.getTarget());
+                    methd.addAnnotations(sourceMethod.getAnnotations());
+
+                    for (final WeavableMethodParameter<?> param : methd.getParameters()) {
+                        param.addAnnotations(
+                            sourceMethod.getWeavableParameter(param.getTarget().intValue()).getAnnotations());
+                    }
+                }
+            }
+        }
+    }
+
+    private final Finder finder;
+    private final ScanRequest union = new ScanRequest();
+    private final Set<String> unionKey;
+    private final Map<?, ScanRequest> declared;
+    private final View view = new View();
+
+    /**
+     * Create a new {@link ScanPlan} instance, reading the classfiles relevant to the union of the declared requests.
+     * @param finder {@link Finder}
+     * @param declared {@link ScanRequest}s by declaring provider
+     */
+    ScanPlan(final Finder finder, final Map<?, ScanRequest> declared) {
+        this.finder = Validate.notNull(finder, "finder");
+        this.declared = Validate.notNull(declared, "declared");
+
+        boolean anyUnconstrained = false;
+        for (final ScanRequest request : declared.values()) {
+            if (isUnconstrained(request)) {
+                // e.g. supertype Object would render the union unconstrained:
+                anyUnconstrained = true;
+                continue;
+            }
+            request.getInterests().forEach(union::add);
+            union.addSupertypes(request.getSupertypes().toArray(new Class<?>[0]));
+        }
+        unionKey = Finder.cacheKey(union);
+        if (!declared.isEmpty() && !anyUnconstrained) {
+            finder.readFor(union);
+        }
+    }
+
+    /**
+     * Read the classfiles relevant to the requests declared by the specified providers ahead of processing them,
+     * e.g. before running them concurrently with providers that modify classfiles.
+     * @param providers to prepare for
+     */
+    void prepare(final Collection<?> providers) {
+        boolean constrained = false;
+        for (final Object provider : providers) {
+            final ScanRequest request = declared.get(provider);
+            if (request == null) {
+                continue;
+            }
+            if (isUnconstrained(request)) {
+                finder.readAll();
+                return;
+            }
+            constrained = true;
+        }
+        if (constrained) {
+            finder.readFor(union);
+        }
+    }
+
+    /**
+     * Get the {@link Scanner} to hand the specified provider.
+     * @param provider {@link org.apache.commons.weaver.spi.WeaveLifecycleProvider}
+     * @return {@link Scanner}
+     */
+    Scanner scannerFor(final Object provider) {
+        return declared.containsKey(provider) ? view : finder;
+    }
+
+    /**
+     * Learn whether {@code request} can be answered by filtering the union results. An unconstrained request never
+     * can, as the union comprises only the constrained declarations; it is answered by the {@link Finder} itself,
+     * which memoizes the result for any other provider making the same request.
+     * @param request to test
+     * @return {@code boolean}
+     */
+    private boolean covers(final ScanRequest request) {
+        return !declared.isEmpty() && !isUnconstrained(request) && unionKey.containsAll(Finder.cacheKey(request));
+    }
+
+    private boolean matches(final BytecodeClass cls, final ScanRequest request) {
+        final boolean packageInfo = cls.getName().endsWith(PACKAGE_INFO);
+
+        for (final WeaveInterest interest : request.getInterests()) {
+            final Class<? extends Annotation> annotationType = interest.annotationType;
+            switch (interest.target) {
+            case PACKAGE:
+                if (packageInfo && cls.isAnnotationPresent(annotationType)) {
+                    return true;
+                }
+                break;
+            case TYPE:
+                if (!packageInfo && cls.isAnnotationPresent(annotationType)) {
+                    return true;
+                }
+                break;
+            case METHOD:
+            case CONSTRUCTOR:
+                if (cls.getMethods().stream()
+                    .filter(methd -> methd.isConstructor() == (interest.target == ElementType.CONSTRUCTOR))
+                    .anyMatch(methd -> methd.isAnnotationPresent(annotationType))) {
+                    return true;
+                }
+                break;
+            case FIELD:
+                if (cls.getFields().stream().anyMatch(fld -> fld.isAnnotationPresent(annotationType))) {
+                    return true;
+                }
+                break;
+            case PARAMETER:
+                if (cls.getMethods().stream().anyMatch(methd -> hasParameterAnnotation(methd, annotationType))) {
+                    return true;
+                }
+                break;
+            default:
+                break;
+            }
+        }
+        return request.getSupertypes().stream()
+            .anyMatch(supertype -> finder.isProperSubtype(cls.getName(), supertype.getName()));
+    }
+
+    private static boolean hasParameterAnnotation(final BytecodeMethod methd,
+        final Class<? extends Annotation> annotationType) {
+        return IntStream.range(0, Type.getArgumentTypes(methd.getDescriptor()).length)
+            .anyMatch(i -> methd.getParameterAnnotations(i).stream()
+                .anyMatch(anno -> anno.getType().equals(annotationType.getName())));
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.xbean.finder.archive.Archive;
+
+/**
+ * In-memory staging of the resources written and deleted in a target directory or archive during a processor run.
+ * Staged content is served to subsequent reads in place of that of the target, which is left untouched until the
+ * staged state is {@link #flush() flushed}. A directory is updated by first writing all staged content to temporary
+ * files, which are then renamed over their destinations; an archive is rewritten once, with only the staged entries
+ * written anew. A run failing before the flush thus leaves the target as it was, and each resource is written to
+ * disk at most once however often it is rewritten.
+ */
+final class StagingArea {
+    private static final String CLASSFILE_SUFFIX = ".class";
+    private static final byte[] DELETED = new byte[0];
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * {@link OutputStream} staging its content upon close.
+     */
+    private class StagingOutputStream extends ByteArrayOutputStream {
+        private final String resourceName;
+        private boolean closed;
+
+        StagingOutputStream(final String resourceName) {
+            this.resourceName = resourceName;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                staged.put(resourceName, toByteArray());
+            }
+        }
+    }
+
+    private final File target;
+    private final ZipArchive archive;
+    private final Map<String, byte[]> staged = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new {@link StagingArea} instance for a target directory.
+     * @param target directory
+     */
+    StagingArea(final File target) {
+        this(target, null);
+    }
+
+    /**
+     * Create a new {@link StagingArea} instance.
+     * @param target directory or archive
+     * @param archive if not {@code null}, the {@link ZipArchive} of {@code target}, which is closed before it is
+     *            rewritten
+     */
+    StagingArea(final File target, final ZipArchive archive) {
+        this.target = Validate.notNull(target, "target");
+        this.archive = archive;
+    }
+
+    /**
+     * Get an {@link OutputStream} for writing the specified resource. The content written is staged when the stream is
+     * closed.
+     * @param resourceName of resource
+     * @return {@link OutputStream}
+     */
+    OutputStream getOutputStream(final String resourceName) {
+        return new StagingOutputStream(resourceName);
+    }
+
+    /**
+     * Learn whether the specified resource has been written or deleted since last flushed.
+     * @param resourceName of resource
+     * @return {@code boolean}
+     */
+    boolean isStaged(final String resourceName) {
+        return staged.containsKey(resourceName);
+    }
+
+    /**
+     * Get an {@link InputStream} for reading the staged content of the specified resource.
+     * @param resourceName of {@link #isStaged(String) staged} resource
+     * @return {@link InputStream}, {@code null} if the resource has been deleted
+     */
+    InputStream getInputStream(final String resourceName) {
+        final byte[] content = staged.get(resourceName);
+        Validate.validState(content != null, "%s is not staged", resourceName);
+        return content == DELETED ? null : new ByteArrayInputStream(content);
+    }
+
+    /**
+     * Stage the deletion of the specified resource.
+     * @param resourceName of resource
+     * @return whether the resource existed
+     */
+    boolean delete(final String resourceName) {
+        final byte[] previous = staged.put(resourceName, DELETED);
+        if (previous != null) {
+            return previous != DELETED;
+        }
+        if (archive == null) {
+            return new File(target, resourceName).isFile();
+        }
+        try (ZipFile zip = new ZipFile(target)) {
+            return zip.getEntry(resourceName) != null;
+        } catch (final IOException e) {
+            throw new IllegalStateException(String.format("Unable to read %s", target), e);
+        }
+    }
+
+    /**
+     * Wrap the specified {@link Archive} of the target directory such that staged classfiles are read in place of
+     * their counterparts in {@code archive}.
+     * @param archive to wrap
+     * @return {@link Archive}
+     */
+    Archive wrap(final Archive archive) {
+        return new Archive() {
+
+            @Override
+            public InputStream getBytecode(final String className) throws IOException, ClassNotFoundException {
+                final String resourceName = className.replace('.', '/') + CLASSFILE_SUFFIX;
+                if (!isStaged(resourceName)) {
+                    return archive.getBytecode(className);
+                }
+                final InputStream result = getInputStream(resourceName);
+                if (result == null) {
+                    throw new ClassNotFoundException(className);
+                }
+                return result;
+            }
+
+            @Override
+            public Class<?> loadClass(final String className) throws ClassNotFoundException {
+                return archive.loadClass(className);
+            }
+
+            @Override
+            public Iterator<Entry> iterator() {
+                return archive.iterator();
+            }
+        };
+    }
+
+    /**
+     * Write the staged state to the target and clear it.
+     * @return number of resources written or deleted
+     * @throws IOException on error
+     */
+    int flush() throws IOException {
+        final Map<String, byte[]> resources = new TreeMap<>(staged);
+        if (archive == null) {
+            flushDirectory(resources);
+        } else {
+            flushArchive(resources);
+        }
+        staged.keySet().removeAll(resources.keySet());
+        return resources.size();
+    }
+
+    /**
+     * Write the specified resources to the target directory. Staged content is written to temporary files alongside
+     * their destinations before any destination is replaced; should this fail, the temporary files are removed and the
+     * target directory is left unchanged.
+     * @param resources to write
+     * @throws IOException on error
+     */
+    private void flushDirectory(final Map<String, byte[]> resources) throws IOException {
+        final Map<Path, Path> moves = new LinkedHashMap<>();
+        final List<Path> deletions = new ArrayList<>();
+        try {
+            for (final Map.Entry<String, byte[]> e : resources.entrySet()) {
+                final Path path = new File(target, e.getKey()).toPath();
+                if (e.getValue() == DELETED) {
+                    deletions.add(path);
+                    continue;
+                }
+                Files.createDirectories(path.getParent());
+                final Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), TEMP_SUFFIX);
+                moves.put(temp, path);
+                Files.write(temp, e.getValue());
+            }
+        } catch (final IOException e) {
+            for (final Path temp : moves.keySet()) {
+                Files.deleteIfExists(temp);
+            }
+            throw e;
+        }
+        for (final Map.Entry<Path, Path> move : moves.entrySet()) {
+            try {
+                Files.move(move.getKey(), move.getValue(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(move.getKey(), move.getValue(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        for (final Path path : deletions) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Write the specified resources to the target archive by way of the zip {@link FileSystem} provider, which, upon
+     * close, writes a new archive alongside the original, copying unmodified entries without recompressing them, and
+     * then replaces the original.
+     * @param resources to write
+     * @throws IOException on error
+     */
+    private void flushArchive(final Map<String, byte[]> resources) throws IOException {
+        archive.close();
+        try (FileSystem zip = FileSystems.newFileSystem(target.toPath(), (ClassLoader) null)) {
+            for (final Map.Entry<String, byte[]> e : resources.entrySet()) {
+                final Path path = zip.getPath(e.getKey());
+                if (e.getValue() == DELETED) {
+                    Files.deleteIfExists(path);
+                    continue;
+                }
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                Files.write(path, e.getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,391 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.weaver.spi.Weaver;
+
+/**
+ * Records, for each unit of a woven target directory, what the {@link Weaver}s touched and upon which other units the
+ * weaving depended, such that a subsequent weave need only consider units whose inputs have since changed. A unit
+ * comprises a top-level class and its nested classes, which a compiler always emits together. The original content of
+ * each resource is retained before it is first modified, allowing a unit to be woven again when only one of its
+ * dependencies has changed.
+ */
+class WeaveManifest {
+
+    private static final class Unit {
+        String fingerprint;
+        final Set<String> created = new TreeSet<>();
+        final Set<String> originals = new TreeSet<>();
+        final Set<String> dependencies = new TreeSet<>();
+        final Map<String, Set<String>> touched = new TreeMap<>();
+    }
+
+    private static final String HEADER = "# Apache Commons Weaver manifest";
+    private static final String VERSION = "version 1";
+    private static final String CONFIG_PREFIX = "weaver.";
+    private static final String CLASSFILE_SUFFIX = ".class";
+
+    private static final Logger LOG = Logger.getLogger(WeaveManifest.class.getName());
+
+    /**
+     * Prepare an incremental weave of {@code target} if configured by {@link WeaveProcessor#CONFIG_MANIFEST}. Units
+     * that must be woven again have their generated resources deleted and, if otherwise unchanged, their original
+     * content restored.
+     * @param target directory to weave
+     * @param configuration of the weave
+     * @param providers that will weave
+     * @return {@link WeaveManifest}, or {@code null} if no manifest is configured
+     */
+    static WeaveManifest prepare(final File target, final Properties configuration,
+        final Iterable<? extends Weaver> providers) {
+        Validate.notNull(target, "target");
+        Validate.notNull(configuration, "configuration");
+        Validate.notNull(providers, "providers");
+
+        final String path = configuration.getProperty(WeaveProcessor.CONFIG_MANIFEST);
+        if (StringUtils.isBlank(path)) {
+            return null;
+        }
+        if (target.isFile()) {
+            LOG.warning(() -> String.format("Ignoring manifest %s; archive %s is woven in full", path, target));
+            return null;
+        }
+        final WeaveManifest result = new WeaveManifest(new File(path.trim()), target,
+            fingerprint(configuration, providers));
+        try {
+            result.load();
+            result.restore();
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return result;
+    }
+
+    private static String fingerprint(final Properties configuration, final Iterable<? extends Weaver> providers) {
+        final MessageDigest digest = digest();
+        new TreeMap<>(configuration).forEach((k, v) -> {
+            if (!k.toString().startsWith(CONFIG_PREFIX)) {
+                update(digest, k.toString(), v.toString());
+            }
+        });
+        final Set<String> providerNames = new TreeSet<>();
+        providers.forEach(p -> providerNames.add(p.getClass().getName()));
+        providerNames.forEach(n -> update(digest, n));
+        return hex(digest.digest());
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void update(final MessageDigest digest, final String... values) {
+        for (final String value : values) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+    }
+
+    private static String hex(final byte[] bytes) {
+        final StringBuilder buf = new StringBuilder(bytes.length * 2);
+        for (final byte b : bytes) {
+            buf.append(Character.forDigit(b >> 4 & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Get the unit to which the specified resource belongs. A class whose simple name begins with {@code $}, e.g. one
+     * generated by a {@link Weaver}, is taken to be a top-level class forming a unit of its own.
+     * @param resourceName of resource
+     * @return {@link String}
+     */
+    static String unitOf(final String resourceName) {
+        if (!resourceName.endsWith(CLASSFILE_SUFFIX)) {
+            return resourceName;
+        }
+        final String className = resourceName.substring(0, resourceName.length() - CLASSFILE_SUFFIX.length());
+        final int nested = className.indexOf('$', className.lastIndexOf('/') + 2);
+        return nested < 0 ? className : className.substring(0, nested);
+    }
+
+    private final File file;
+    private final File originals;
+    private final File target;
+    private final String configuration;
+    private final Map<String, Unit> units = new TreeMap<>();
+    private final Map<String, String> fingerprints;
+    private final Set<String> dirty = new HashSet<>();
+
+    private WeaveManifest(final File file, final File target, final String configuration) {
+        this.file = file.getAbsoluteFile();
+        this.originals = new File(this.file.getParentFile(), this.file.getName() + ".originals");
+        this.target = target;
+        this.configuration = configuration;
+        this.fingerprints = fingerprintUnits();
+    }
+
+    /**
+     * Learn whether the specified class must be woven.
+     * @param className binary name
+     * @return {@code boolean}
+     */
+    boolean isDirty(final String className) {
+        return dirty.contains(unitOf(className.replace('.', '/') + CLASSFILE_SUFFIX));
+    }
+
+    /**
+     * Gets the number of units to be woven.
+     * @return {@code int}
+     */
+    int getDirtyCount() {
+        return dirty.size();
+    }
+
+    /**
+     * Gets the number of units in the target directory.
+     * @return {@code int}
+     */
+    int getUnitCount() {
+        return fingerprints.size();
+    }
+
+    /**
+     * Record the impending modification or deletion of a resource by a {@link Weaver}, first retaining its original
+     * content.
+     * @param weaver responsible
+     * @param resourceName of resource
+     * @throws IOException on error
+     */
+    synchronized void modifying(final Weaver weaver, final String resourceName) throws IOException {
+        final Unit unit = units.computeIfAbsent(unitOf(resourceName), k -> new Unit());
+        unit.touched.computeIfAbsent(weaver.getClass().getName(), k -> new TreeSet<>()).add(resourceName);
+
+        if (unit.created.contains(resourceName) || unit.originals.contains(resourceName)) {
+            return;
+        }
+        final File resource = new File(target, resourceName);
+        if (resource.isFile()) {
+            final Path original = new File(originals, resourceName).toPath();
+            Files.createDirectories(original.getParent());
+            Files.copy(resource.toPath(), original, StandardCopyOption.REPLACE_EXISTING);
+            unit.originals.add(resourceName);
+        } else {
+            unit.created.add(resourceName);
+        }
+    }
+
+    /**
+     * Record that the weaving of one class depends upon another.
+     * @param className binary name of dependent class
+     * @param dependency binary name of class depended upon
+     */
+    synchronized void addDependency(final String className, final String dependency) {
+        final String from = unitOf(className.replace('.', '/') + CLASSFILE_SUFFIX);
+        final String to = unitOf(dependency.replace('.', '/') + CLASSFILE_SUFFIX);
+        if (!from.equals(to)) {
+            units.computeIfAbsent(from, k -> new Unit()).dependencies.add(to);
+        }
+    }
+
+    /**
+     * Write this manifest, recording the state of the target directory after weaving.
+     * @throws IOException on error
+     */
+    synchronized void store() throws IOException {
+        final Map<String, String> woven = fingerprintUnits();
+        for (final Map.Entry<String, Unit> e : units.entrySet()) {
+            if (!woven.containsKey(e.getKey())) {
+                for (final String resourceName : e.getValue().originals) {
+                    Files.deleteIfExists(new File(originals, resourceName).toPath());
+                }
+            }
+        }
+
+        final Path path = file.toPath();
+        Files.createDirectories(path.getParent());
+        final Path temp = Files.createTempFile(path.getParent(), file.getName(), ".tmp");
+        try {
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(temp, StandardCharsets.UTF_8))) {
+                out.println(HEADER);
+                out.println(VERSION);
+                out.println("configuration " + configuration);
+                for (final Map.Entry<String, String> e : woven.entrySet()) {
+                    out.println("unit " + e.getValue() + ' ' + e.getKey());
+                    final Unit unit = units.get(e.getKey());
+                    if (unit == null) {
+                        continue;
+                    }
+                    unit.created.forEach(r -> out.println("created " + r));
+                    unit.originals.forEach(r -> out.println("original " + r));
+                    unit.dependencies.forEach(d -> out.println("dependency " + d));
+                    unit.touched.forEach((w, resources) ->
+                        resources.forEach(r -> out.println("touched " + w + ' ' + r)));
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Map<String, String> fingerprintUnits() {
+        final Map<String, MessageDigest> digests = new TreeMap<>();
+        if (target.isDirectory()) {
+            final Path root = target.toPath();
+            try (Stream<Path> files = Files.walk(root)) {
+                files.filter(Files::isRegularFile).sorted().forEach(f -> {
+                    final String resourceName = root.relativize(f).toString().replace(File.separatorChar, '/');
+                    final File resource = f.toFile();
+                    update(digests.computeIfAbsent(unitOf(resourceName), k -> digest()), resourceName,
+                        Long.toString(resource.length()), Long.toString(resource.lastModified()));
+                });
+            } catch (final IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        final Map<String, String> result = new TreeMap<>();
+        digests.forEach((k, v) -> result.put(k, hex(v.digest())));
+        return result;
+    }
+
+    private void load() throws IOException {
+        if (file.isFile()) {
+            try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                if (HEADER.equals(reader.readLine()) && VERSION.equals(reader.readLine())
+                    && ("configuration " + configuration).equals(reader.readLine())) {
+                    read(reader);
+                    return;
+                }
+                LOG.fine(() -> String.format("Ignoring manifest %s recorded for a different configuration", file));
+            } catch (final IllegalStateException e) {
+                LOG.warning(() -> String.format("Ignoring manifest %s: %s", file, e.getMessage()));
+                units.clear();
+            }
+        }
+        // weave everything:
+        dirty.addAll(fingerprints.keySet());
+    }
+
+    private void read(final BufferedReader reader) throws IOException {
+        Unit unit = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            final String[] fields = StringUtils.split(line, ' ');
+            final int expected = "unit".equals(fields[0]) || "touched".equals(fields[0]) ? 3 : 2;
+            Validate.validState(fields.length == expected && (unit != null || "unit".equals(fields[0])),
+                "Malformed manifest entry '%s'", line);
+            switch (fields[0]) {
+            case "unit":
+                unit = new Unit();
+                unit.fingerprint = fields[1];
+                units.put(fields[2], unit);
+                break;
+            case "created":
+                unit.created.add(fields[1]);
+                break;
+            case "original":
+                unit.originals.add(fields[1]);
+                break;
+            case "dependency":
+                unit.dependencies.add(fields[1]);
+                break;
+            case "touched":
+                unit.touched.computeIfAbsent(fields[1], k -> new TreeSet<>()).add(fields[2]);
+                break;
+            default:
+                throw new IllegalStateException(String.format("Unknown manifest entry '%s'", line));
+            }
+        }
+        final Deque<String> changed = new ArrayDeque<>();
+        units.forEach((k, v) -> {
+            if (!v.fingerprint.equals(fingerprints.get(k))) {
+                changed.add(k);
+            }
+        });
+        fingerprints.keySet().stream().filter(k -> !units.containsKey(k)).forEach(changed::add);
+
+        // dirty units are those changed or depending upon a changed unit:
+        while (!changed.isEmpty()) {
+            final String next = changed.pop();
+            if (dirty.add(next)) {
+                units.forEach((k, v) -> {
+                    if (v.dependencies.contains(next)) {
+                        changed.add(k);
+                    }
+                });
+            }
+        }
+    }
+
+    private void restore() throws IOException {
+        for (final String name : dirty) {
+            final Unit unit = units.get(name);
+            if (unit == null) {
+                continue;
+            }
+            for (final String resourceName : unit.created) {
+                Files.deleteIfExists(new File(target, resourceName).toPath());
+            }
+            // an unchanged unit can be restored to its original content; that of a changed unit is already original:
+            final boolean unchanged = unit.fingerprint.equals(fingerprints.get(name));
+            for (final String resourceName : unit.originals) {
+                final Path original = new File(originals, resourceName).toPath();
+                if (unchanged) {
+                    final Path resource = new File(target, resourceName).toPath();
+                    Files.createDirectories(resource.getParent());
+                    Files.copy(original, resource, StandardCopyOption.REPLACE_EXISTING);
+                }
+                Files.deleteIfExists(original);
+            }
+            unit.created.clear();
+            unit.originals.clear();
+            unit.dependencies.clear();
+            unit.touched.clear();
+        }
+        LOG.fine(() -> String.format("Weaving %d of %d units of %s", dirty.size(), fingerprints.size(), target));
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.weaver.spi.WeaveListener;
+
+/**
+ * Metrics of a weave or clean run: the time spent in each phase, the time spent weaving each class in a fused
+ * read-transform-write pass, and counts of the classes scanned and loaded and of the bytes read and written through
+ * the {@link org.apache.commons.weaver.model.WeaveEnvironment}s of the run. Phases and classes woven are reported to
+ * any registered {@link WeaveListener}s as they complete.
+ * @since 2.1
+ */
+public final class WeaveMetrics {
+
+    /**
+     * Phase of creating the processor {@link ClassLoader}.
+     */
+    public static final String PHASE_CLASS_LOADER = "classLoader";
+
+    /**
+     * Phase of constructing the {@link Finder}, i.e. surveying the classfiles of the target.
+     */
+    public static final String PHASE_FINDER = "finder";
+
+    /**
+     * Phase of inflating the classfile annotations of scan results, accumulated over all scans of the run.
+     */
+    public static final String PHASE_INFLATE = "inflate";
+
+    /**
+     * {@link InputStream} counting the bytes read.
+     */
+    private class CountingInputStream extends FilterInputStream {
+
+        CountingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int result = super.read();
+            if (result >= 0) {
+                bytesRead.incrementAndGet();
+            }
+            return result;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int result = super.read(b, off, len);
+            if (result > 0) {
+                bytesRead.addAndGet(result);
+            }
+            return result;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long result = super.skip(n);
+            bytesRead.addAndGet(result);
+            return result;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+
+    /**
+     * {@link OutputStream} counting the bytes written.
+     */
+    private class CountingOutputStream extends FilterOutputStream {
+
+        CountingOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            bytesWritten.incrementAndGet();
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            bytesWritten.addAndGet(len);
+        }
+    }
+
+    private static String json(final String value) {
+        final StringBuilder result = new StringBuilder(value.length() + 2).append('"');
+        for (final char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                result.append('\\').append(c);
+            } else if (c < ' ') {
+                result.append(String.format("\\u%04x", Integer.valueOf(c)));
+            } else {
+                result.append(c);
+            }
+        }
+        return result.append('"').toString();
+    }
+
+    private static void json(final StringBuilder buf, final Map<String, Long> values) {
+        buf.append('{');
+        boolean first = true;
+        for (final Map.Entry<String, Long> e : values.entrySet()) {
+            if (!first) {
+                buf.append(',');
+            }
+            first = false;
+            buf.append(json(e.getKey())).append(':').append(e.getValue());
+        }
+        buf.append('}');
+    }
+
+    private static long millis(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private final List<WeaveListener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+    private final Map<String, Long> classNanos = new TreeMap<>();
+    private final AtomicLong classesScanned = new AtomicLong();
+    private final AtomicLong classesLoaded = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    /**
+     * Create a new {@link WeaveMetrics} instance.
+     */
+    WeaveMetrics() {
+    }
+
+    /**
+     * Add a {@link WeaveListener}.
+     * @param listener to add
+     */
+    void addListener(final WeaveListener listener) {
+        listeners.add(Validate.notNull(listener, "listener"));
+    }
+
+    /**
+     * Record the completion of a phase. Time recorded for a phase already completed is added to that phase.
+     * @param phase name
+     * @param nanos elapsed time in nanoseconds
+     */
+    void phaseCompleted(final String phase, final long nanos) {
+        synchronized (this) {
+            phaseNanos.merge(phase, Long.valueOf(nanos), Long::sum);
+        }
+        listeners.forEach(listener -> listener.phaseCompleted(phase, nanos));
+    }
+
+    /**
+     * Record the weaving of a class.
+     * @param className binary name of class woven
+     * @param nanos elapsed time in nanoseconds
+     */
+    void classWoven(final String className, final long nanos) {
+        synchronized (this) {
+            classNanos.merge(className, Long.valueOf(nanos), Long::sum);
+        }
+        listeners.forEach(listener -> listener.classWoven(className, nanos));
+    }
+
+    /**
+     * Record the successful completion of the run.
+     */
+    void completed() {
+        listeners.forEach(listener -> listener.completed(this));
+    }
+
+    /**
+     * Record the scanning of classes.
+     * @param count of classes scanned
+     */
+    void classesScanned(final long count) {
+        classesScanned.addAndGet(count);
+    }
+
+    /**
+     * Record the loading of a class by the processor {@link ClassLoader}.
+     */
+    void classLoaded() {
+        classesLoaded.incrementAndGet();
+    }
+
+    /**
+     * Wrap the specified {@link InputStream} such that the bytes read are counted.
+     * @param in to wrap
+     * @return {@link InputStream}, {@code null} if {@code in} is {@code null}
+     */
+    InputStream reading(final InputStream in) {
+        return in == null ? null : new CountingInputStream(in);
+    }
+
+    /**
+     * Wrap the specified {@link OutputStream} such that the bytes written are counted.
+     * @param out to wrap
+     * @return {@link OutputStream}
+     */
+    OutputStream writing(final OutputStream out) {
+        return new CountingOutputStream(out);
+    }
+
+    /**
+     * Gets the time spent in each completed phase, in order of first completion.
+     * @return {@link Map} of phase name to elapsed time in nanoseconds
+     */
+    public synchronized Map<String, Long> getPhaseNanos() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(phaseNanos));
+    }
+
+    /**
+     * Gets the time spent weaving each class in a fused read-transform-write pass.
+     * @return {@link Map} of binary class name to elapsed time in nanoseconds
+     */
+    public synchronized Map<String, Long> getClassNanos() {
+        return Collections.unmodifiableMap(new TreeMap<>(classNanos));
+    }
+
+    /**
+     * Gets the number of classfiles scanned.
+     * @return {@code long}
+     */
+    public long getClassesScanned() {
+        return classesScanned.get();
+    }
+
+    /**
+     * Gets the number of classes loaded by the processor {@link ClassLoader}.
+     * @return {@code long}
+     */
+    public long getClassesLoaded() {
+        return classesLoaded.get();
+    }
+
+    /**
+     * Gets the number of bytes read through weave environments.
+     * @return {@code long}
+     */
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    /**
+     * Gets the number of bytes written through weave environments.
+     * @return {@code long}
+     */
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    /**
+     * Gets a concise, single-line summary of these metrics.
+     * @return {@link String}
+     */
+    public synchronized String getSummary() {
+        final StringBuilder result = new StringBuilder();
+        phaseNanos.forEach((phase, nanos) -> result.append(result.length() == 0 ? "" : ", ").append(phase)
+            .append(' ').append(millis(nanos.longValue())).append(" ms"));
+        result.append(String.format("; %d classes scanned, %d loaded, %d woven; %d bytes read, %d written",
+            Long.valueOf(getClassesScanned()), Long.valueOf(getClassesLoaded()), Integer.valueOf(classNanos.size()),
+            Long.valueOf(getBytesRead()), Long.valueOf(getBytesWritten())));
+        classNanos.entrySet().stream().max(Map.Entry.comparingByValue())
+            .ifPresent(e -> result.append(String.format("; slowest class %s, %d ms", e.getKey(),
+                Long.valueOf(millis(e.getValue().longValue())))));
+        return result.toString();
+    }
+
+    /**
+     * Render these metrics as a JSON object, with times in nanoseconds.
+     * @return {@link String}
+     */
+    public synchronized String toJson() {
+        final StringBuilder result = new StringBuilder("{\"phaseNanos\":");
+        json(result, phaseNanos);
+        result.append(",\"classesScanned\":").append(getClassesScanned());
+        result.append(",\"classesLoaded\":").append(getClassesLoaded());
+        result.append(",\"bytesRead\":").append(getBytesRead());
+        result.append(",\"bytesWritten\":").append(getBytesWritten());
+        result.append(",\"classNanos\":");
+        json(result, classNanos);
+        return result.append('}').toString();
+    }
+
+    @Override
+    public String toString() {
+        return getSummary();
+    }
+}
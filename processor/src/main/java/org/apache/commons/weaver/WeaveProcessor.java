@@ -19,20 +19,129 @@
 package org.apache.commons.weaver;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.ServiceLoader;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 import java.util.logging.Logger;
 
+import org.apache.commons.lang3.Validate;
 import org.apache.commons.weaver.lifecycle.WeaveLifecycle; //NOPMD used in Javadoc
 import org.apache.commons.weaver.model.WeaveEnvironment;
+import org.apache.commons.weaver.spi.ClassfileWeaver;
 import org.apache.commons.weaver.spi.Weaver;
+import org.apache.commons.weaver.utils.Providers;
+import org.apache.commons.weaver.utils.WeaveEvent;
 
 /**
  * Implements {@link WeaveLifecycle#WEAVE}.
  */
 public class WeaveProcessor extends ProcessorBase<Weaver> {
 
+    /**
+     * Configuration key specifying the location of a manifest recording the results of weaving, enabling incremental
+     * weaving: on subsequent runs only classes whose inputs have changed, or whose dependencies have changed, are
+     * woven. By default all classes are considered.
+     * @since 2.1
+     */
+    public static final String CONFIG_MANIFEST = "weaver.manifest";
+
+    /**
+     * Configuration key specifying the number of threads across which the classfiles transformed by consecutive
+     * {@link ClassfileWeaver}s are woven. Values less than {@code 2} (the default) specify sequential weaving.
+     * @since 2.1
+     */
+    public static final String CONFIG_WEAVE_PARALLELISM = "weaver.weaveParallelism";
+
+    /**
+     * Configuration key specifying the number of threads across which weavers are run. Weavers are grouped into levels
+     * by their {@link Consumes} and {@link Produces} declarations; weavers of a single level, being unconstrained
+     * with respect to one another, are run concurrently, each in its own {@link WeaveEnvironment}, and fail should
+     * any two of them modify the same resource. Writes to a target directory are then staged regardless of
+     * {@link #CONFIG_STAGING}. Values less than {@code 2} (the default) specify that weavers be run one after another.
+     * @since 2.1
+     */
+    public static final String CONFIG_WEAVER_PARALLELISM = "weaver.weaverParallelism";
+
+    /**
+     * {@link LocalWeaveEnvironment} of a single {@link Weaver}, recording its modifications to the
+     * {@link WeaveManifest}, if any, and claiming each resource it modifies while weavers run concurrently.
+     */
+    private class WeaverEnvironment extends LocalWeaveEnvironment {
+        private final Weaver weaver;
+
+        WeaverEnvironment(final Weaver weaver) {
+            super(WeaveProcessor.this, Logger.getLogger(weaver.getClass().getName()));
+            this.weaver = weaver;
+        }
+
+        @Override
+        public boolean deleteResource(final String name) {
+            try {
+                modifying(weaver, name);
+            } catch (final IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return super.deleteResource(name);
+        }
+
+        @Override
+        protected OutputStream getOutputStream(final String resourceName) throws IOException {
+            modifying(weaver, resourceName);
+            return super.getOutputStream(resourceName);
+        }
+
+        @Override
+        public void addDependency(final String className, final String dependency) {
+            if (manifest == null) {
+                super.addDependency(className, dependency);
+            } else {
+                manifest.addDependency(className, dependency);
+            }
+        }
+    }
+
+    /**
+     * Transformation stage contributed by a {@link ClassfileWeaver} for a single class.
+     */
+    private static class Stage {
+        final ClassfileWeaver weaver;
+        final WeaveEnvironment env;
+        final UnaryOperator<byte[]> transformation;
+        final AtomicLong nanos;
+
+        Stage(final ClassfileWeaver weaver, final WeaveEnvironment env, final UnaryOperator<byte[]> transformation,
+            final AtomicLong nanos) {
+            this.weaver = weaver;
+            this.env = env;
+            this.transformation = Validate.notNull(transformation, "transformation");
+            this.nanos = nanos;
+        }
+    }
+
+    private final WeaveManifest manifest;
+
+    /**
+     * Resources modified by the weavers of the level being run concurrently, if any, by modifying weaver.
+     */
+    private volatile Map<String, Weaver> claims;
+
     /**
      * Create a new {@link WeaveProcessor} instance using the {@link ServiceLoader} mechanism.
      *
@@ -41,7 +150,7 @@ public class WeaveProcessor extends ProcessorBase<Weaver> {
      * @param configuration not {@code null}
      */
     public WeaveProcessor(final List<String> classpath, final File target, final Properties configuration) {
-        super(classpath, target, configuration, getServiceInstances(Weaver.class));
+        this(classpath, target, configuration, getServiceInstances(Weaver.class));
     }
 
     /**
@@ -54,7 +163,35 @@ public class WeaveProcessor extends ProcessorBase<Weaver> {
      */
     public WeaveProcessor(final List<String> classpath, final File target, final Properties configuration,
         final Iterable<Weaver> providers) {
-        super(classpath, target, configuration, providers);
+        this(classpath, null, target, configuration, providers);
+    }
+
+    /**
+     * Create a new {@link WeaveProcessor} instance using the {@link ServiceLoader} mechanism, whose class loader
+     * delegates to the specified parent, e.g. a {@link ClassLoader} over dependencies shared by several processors.
+     *
+     * @param classpath not {@code null}
+     * @param parent of the processor's {@link ClassLoader} over {@code target} and {@code classpath}; {@code null}
+     *            for the system class loader
+     * @param target not {@code null}
+     * @param configuration not {@code null}
+     * @since 2.1
+     */
+    public WeaveProcessor(final List<String> classpath, final ClassLoader parent, final File target,
+        final Properties configuration) {
+        this(classpath, parent, target, configuration, getServiceInstances(Weaver.class));
+    }
+
+    private WeaveProcessor(final List<String> classpath, final ClassLoader parent, final File target,
+        final Properties configuration, final Iterable<Weaver> providers) {
+        this(classpath, parent, target, configuration, providers,
+            WeaveManifest.prepare(target, configuration, providers));
+    }
+
+    private WeaveProcessor(final List<String> classpath, final ClassLoader parent, final File target,
+        final Properties configuration, final Iterable<Weaver> providers, final WeaveManifest manifest) {
+        super(classpath, parent, target, configuration, providers, manifest == null ? null : manifest::isDirty);
+        this.manifest = manifest;
     }
 
     /**
@@ -64,10 +201,264 @@ public class WeaveProcessor extends ProcessorBase<Weaver> {
         if (!target.exists()) {
             log.warning(() -> String.format("Target directory %s does not exist; nothing to do!", target));
         }
+        if (manifest != null) {
+            log.info(() -> String.format("Incrementally weaving %d of %d units", manifest.getDirtyCount(),
+                manifest.getUnitCount()));
+        }
+        final Map<Weaver, WeaveEnvironment> environments = new LinkedHashMap<>();
         for (final Weaver weaver : providers) {
-            final WeaveEnvironment env = new LocalWeaveEnvironment(target, classLoader, configuration,
-                Logger.getLogger(weaver.getClass().getName()));
-            weaver.process(env, finder);
+            environments.put(weaver, new WeaverEnvironment(weaver));
+        }
+        final ScanPlan plan = plan(environments);
+        final Map<ClassfileWeaver, WeaveEnvironment> fusible = new LinkedHashMap<>();
+        final int parallelism = getParallelism(CONFIG_WEAVER_PARALLELISM);
+        if (parallelism < 2) {
+            environments.forEach((weaver, env) -> process(weaver, env, fusible, plan));
+        } else {
+            for (final List<Weaver> level : Providers.levels(providers)) {
+                // classfile weavers alone are better fused with those of adjacent levels:
+                if (level.size() < 2 || level.stream().allMatch(ClassfileWeaver.class::isInstance)) {
+                    level.forEach(weaver -> process(weaver, environments.get(weaver), fusible, plan));
+                } else {
+                    fuse(fusible, plan);
+                    processConcurrently(level, environments, plan, parallelism);
+                }
+            }
+        }
+        fuse(fusible, plan);
+        flush();
+        if (manifest != null) {
+            try {
+                manifest.store();
+            } catch (final IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        completed();
+    }
+
+    /**
+     * Process a single weaver: a {@link ClassfileWeaver} is deferred to be fused with any that follow it, whereas any
+     * other weaver is run once the deferred weavers have been applied.
+     * @param weaver to process
+     * @param env {@link WeaveEnvironment} of {@code weaver}
+     * @param fusible deferred {@link ClassfileWeaver}s
+     * @param plan {@link ScanPlan}
+     */
+    private void process(final Weaver weaver, final WeaveEnvironment env,
+        final Map<ClassfileWeaver, WeaveEnvironment> fusible, final ScanPlan plan) {
+        if (weaver instanceof ClassfileWeaver) {
+            fusible.put((ClassfileWeaver) weaver, env);
+            return;
+        }
+        fuse(fusible, plan);
+        timed(weaver.getClass().getName(), () -> weaver.process(env, plan.scannerFor(weaver)));
+        reindex(weaver);
+    }
+
+    /**
+     * Run the weavers of a single level concurrently, the {@link ClassfileWeaver}s among them fused into one task.
+     * Each weaver claims the resources it modifies; a resource modified by two tasks fails the later. Every task is
+     * attempted, and failures are reported together once all have completed. The classfiles relevant to the scans
+     * declared by the level's weavers are read beforehand, and modifications are applied to the {@link Finder} and
+     * re-indexed only once the level has completed, such that those scans reflect the classfiles as left by preceding
+     * levels. Writes are staged (see {@link ProcessorBase#CONFIG_STAGING}), so that no weaver reads a resource that
+     * another is in the midst of writing; a resource read directly may nonetheless reflect the completed write of a
+     * concurrent weaver.
+     * @param level weavers unconstrained with respect to one another
+     * @param environments by weaver
+     * @param plan {@link ScanPlan}
+     * @param parallelism maximum number of concurrent tasks
+     */
+    private void processConcurrently(final List<Weaver> level, final Map<Weaver, WeaveEnvironment> environments,
+        final ScanPlan plan, final int parallelism) {
+        final Map<ClassfileWeaver, WeaveEnvironment> fusible = new LinkedHashMap<>();
+        final Map<String, Runnable> tasks = new LinkedHashMap<>();
+        for (final Weaver weaver : level) {
+            final WeaveEnvironment env = environments.get(weaver);
+            if (weaver instanceof ClassfileWeaver) {
+                fusible.put((ClassfileWeaver) weaver, env);
+                continue;
+            }
+            tasks.put(weaver.getClass().getName(),
+                () -> timed(weaver.getClass().getName(), () -> weaver.process(env, plan.scannerFor(weaver))));
+        }
+        if (!fusible.isEmpty()) {
+            tasks.put(fusible.keySet().stream().map(weaver -> weaver.getClass().getName())
+                .collect(Collectors.joining(", ", "[", "]")), () -> applyFused(fusible, plan));
+        }
+        log.fine(() -> String.format("Running %d weavers concurrently with parallelism %d: %s", level.size(),
+            parallelism, tasks.keySet()));
+
+        final Map<String, RuntimeException> failures = Collections.synchronizedMap(new TreeMap<>());
+        final List<Callable<Void>> attempts = new ArrayList<>();
+        tasks.forEach((name, task) -> attempts.add(() -> {
+            try {
+                task.run();
+            } catch (final RuntimeException e) {
+                failures.put(name, e);
+            }
+            return null;
+        }));
+        plan.prepare(level);
+        final ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, attempts.size()));
+        claims = new ConcurrentHashMap<>();
+        finder.deferModifications();
+        try {
+            for (final Future<Void> attempt : pool.invokeAll(attempts)) {
+                attempt.get();
+            }
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            claims = null;
+            pool.shutdown();
+            finder.applyModifications();
+            reindex(level);
+        }
+        fail(failures, "%d concurrent weavers failed: %s");
+    }
+
+    /**
+     * Record the modification of the specified resource by the specified weaver, failing should the weaver be run
+     * concurrently with another that has already modified it.
+     * @param weaver modifying
+     * @param resourceName modified
+     * @throws IOException on error recording the modification in the {@link WeaveManifest}
+     */
+    private void modifying(final Weaver weaver, final String resourceName) throws IOException {
+        final Map<String, Weaver> claimed = claims;
+        if (claimed != null) {
+            final Weaver previous = claimed.putIfAbsent(resourceName, weaver);
+            Validate.validState(previous == null || previous == weaver, "Weavers %s and %s, run concurrently, "
+                + "both modified %s; declare their order with @Consumes or @Produces", previous, weaver, resourceName);
+        }
+        if (manifest != null) {
+            manifest.modifying(weaver, resourceName);
+        }
+    }
+
+    /**
+     * Apply the stages of consecutive {@link ClassfileWeaver}s, then re-index the classfiles they modified.
+     * @param weavers to fuse, cleared once applied
+     * @param plan {@link ScanPlan}
+     * @see #applyFused(Map, ScanPlan)
+     */
+    private void fuse(final Map<ClassfileWeaver, WeaveEnvironment> weavers, final ScanPlan plan) {
+        if (weavers.isEmpty()) {
+            return;
+        }
+        final List<ClassfileWeaver> fused = new ArrayList<>(weavers.keySet());
+        try {
+            applyFused(weavers, plan);
+        } finally {
+            reindex(fused.get(fused.size() - 1));
+        }
+    }
+
+    /**
+     * Apply the stages of consecutive {@link ClassfileWeaver}s in a single read-transform-write pass per class. Where
+     * {@link #CONFIG_WEAVE_PARALLELISM} is configured, classes are woven concurrently; in either case every class is
+     * attempted, and failures are reported together once all classes have been processed. The time recorded for each
+     * weaver comprises the planning of its stages and their application to every class.
+     * @param weavers to fuse, cleared once applied
+     * @param plan {@link ScanPlan}
+     */
+    private void applyFused(final Map<ClassfileWeaver, WeaveEnvironment> weavers, final ScanPlan plan) {
+        final Map<String, List<Stage>> stages = new LinkedHashMap<>();
+        final Map<ClassfileWeaver, AtomicLong> elapsed = new LinkedHashMap<>();
+        for (final Map.Entry<ClassfileWeaver, WeaveEnvironment> e : weavers.entrySet()) {
+            final long start = System.nanoTime();
+            final AtomicLong nanos = new AtomicLong();
+            e.getKey().getClassfileStages(e.getValue(), plan.scannerFor(e.getKey())).forEach(
+                (className, transformation) -> stages.computeIfAbsent(className, k -> new ArrayList<>())
+                    .add(new Stage(e.getKey(), e.getValue(), transformation, nanos)));
+            nanos.addAndGet(System.nanoTime() - start);
+            elapsed.put(e.getKey(), nanos);
+        }
+        log.fine(() -> String.format("Fused %d weavers over %d classes", weavers.size(), stages.size()));
+        weavers.clear();
+
+        final Map<String, RuntimeException> failures = Collections.synchronizedMap(new TreeMap<>());
+        final int parallelism = getParallelism(CONFIG_WEAVE_PARALLELISM);
+        if (parallelism < 2 || stages.size() < 2) {
+            stages.forEach((className, classStages) -> transform(className, classStages, failures));
+        } else {
+            log.fine(() -> String.format("Weaving %d classes with parallelism %d", stages.size(), parallelism));
+            final ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.submit(() -> stages.entrySet().parallelStream()
+                    .forEach(e -> transform(e.getKey(), e.getValue(), failures))).join();
+            } finally {
+                pool.shutdown();
+            }
+        }
+        elapsed.forEach((weaver, nanos) -> metrics.phaseCompleted(weaver.getClass().getName(), nanos.get()));
+        fail(failures, "Unable to weave %d classes: %s");
+    }
+
+    /**
+     * Report the specified failures, if any. A single failure is rethrown as is; several are aggregated, in key
+     * order, into an {@link IllegalStateException}.
+     * @param failures by failed class or weaver name
+     * @param format of the aggregate message, given the number of failures and their keys
+     */
+    private static void fail(final Map<String, RuntimeException> failures, final String format) {
+        if (failures.isEmpty()) {
+            return;
+        }
+        final Iterator<RuntimeException> errors = failures.values().iterator();
+        final RuntimeException first = errors.next();
+        if (!errors.hasNext()) {
+            throw first;
+        }
+        final IllegalStateException result = new IllegalStateException(
+            String.format(format, failures.size(), failures.keySet()), first);
+        errors.forEachRemaining(result::addSuppressed);
+        throw result;
+    }
+
+    private void transform(final String className, final List<Stage> stages,
+        final Map<String, RuntimeException> failures) {
+        final long start = System.nanoTime();
+        try (WeaveEvent event = WeaveEvent.begin("weave", className)) {
+            transform(className, stages);
+            metrics.classWoven(className, System.nanoTime() - start);
+        } catch (final RuntimeException e) {
+            failures.put(className, e);
+        }
+    }
+
+    private void transform(final String className, final List<Stage> stages) {
+        final WeaveEnvironment.Resource classfile = stages.get(0).env.getClassfile(className);
+        byte[] bytecode;
+        try (InputStream in = classfile.getInputStream()) {
+            bytecode = ScanIndex.readFully(in);
+        } catch (final IOException e) {
+            throw new IllegalStateException(String.format("Unable to read class %s", className), e);
+        }
+        for (final Stage stage : stages) {
+            final long start = System.nanoTime();
+            bytecode = stage.transformation.apply(bytecode);
+            stage.nanos.addAndGet(System.nanoTime() - start);
+            Validate.notNull(bytecode, "%s transformed %s to null", stage.weaver, className);
+        }
+        final Stage writer = stages.get(stages.size() - 1);
+        try {
+            if (manifest != null) {
+                // the writing environment records the modification by its own weaver:
+                for (final Stage stage : stages.subList(0, stages.size() - 1)) {
+                    manifest.modifying(stage.weaver, classfile.getName());
+                }
+            }
+            try (OutputStream out = writer.env.getClassfile(className).getOutputStream()) {
+                out.write(bytecode);
+            }
+        } catch (final IOException e) {
+            throw new IllegalStateException(String.format("Unable to write class %s", className), e);
         }
     }
 }
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.apache.xbean.finder.archive.Archive;
+
+/**
+ * {@link Archive} of the classfiles of a JAR or zip file. Entries are read from a single, lazily opened
+ * {@link ZipFile}, such that classfiles may be read concurrently and in any order without extracting the archive.
+ * The {@link ZipFile} is released by {@link #close()}, e.g. before the archive is rewritten, and reopened upon
+ * subsequent access.
+ */
+final class ZipArchive implements Archive, Closeable {
+    private static final String CLASSFILE_SUFFIX = ".class";
+    private static final String META_INF = "META-INF/";
+
+    /**
+     * Learn whether the specified file is a zip archive, i.e. a regular file readable as such.
+     * @param file to test
+     * @return {@code boolean}
+     */
+    static boolean isArchive(final File file) {
+        if (!file.isFile()) {
+            return false;
+        }
+        try (ZipFile zip = new ZipFile(file)) {
+            return true;
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    private final ClassLoader classLoader;
+    private final File file;
+    private ZipFile zip;
+
+    /**
+     * Create a new {@link ZipArchive} instance.
+     * @param classLoader with which to load classes
+     * @param file archive
+     */
+    ZipArchive(final ClassLoader classLoader, final File file) {
+        this.classLoader = Validate.notNull(classLoader, "classLoader");
+        this.file = Validate.notNull(file, "file");
+    }
+
+    @Override
+    public InputStream getBytecode(final String className) throws IOException, ClassNotFoundException {
+        final ZipFile zipFile = zip();
+        final ZipEntry entry = zipFile.getEntry(className.replace('.', '/') + CLASSFILE_SUFFIX);
+        if (entry == null) {
+            throw new ClassNotFoundException(className);
+        }
+        return zipFile.getInputStream(entry);
+    }
+
+    @Override
+    public Class<?> loadClass(final String className) throws ClassNotFoundException {
+        return classLoader.loadClass(className);
+    }
+
+    @Override
+    public Iterator<Entry> iterator() {
+        final ZipFile zipFile;
+        try {
+            zipFile = zip();
+        } catch (final IOException e) {
+            throw new IllegalStateException(String.format("Unable to read %s", file), e);
+        }
+        final List<Entry> result = new ArrayList<>();
+        Collections.list(zipFile.entries()).forEach(zipEntry -> {
+            final String name = zipEntry.getName();
+            // skip e.g. versioned classfiles of multi-release JARs:
+            if (zipEntry.isDirectory() || !name.endsWith(CLASSFILE_SUFFIX) || name.startsWith(META_INF)) {
+                return;
+            }
+            final String className = StringUtils.removeEnd(name, CLASSFILE_SUFFIX).replace('/', '.');
+            result.add(new Entry() {
+
+                @Override
+                public String getName() {
+                    return className;
+                }
+
+                @Override
+                public InputStream getBytecode() throws IOException {
+                    final ZipFile current = zip();
+                    final ZipEntry entry = current.getEntry(name);
+                    if (entry == null) {
+                        throw new IOException(String.format("%s not found in %s", name, file));
+                    }
+                    return current.getInputStream(entry);
+                }
+            });
+        });
+        return result.iterator();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (zip != null) {
+            try {
+                zip.close();
+            } finally {
+                zip = null;
+            }
+        }
+    }
+
+    private synchronized ZipFile zip() throws IOException {
+        if (zip == null) {
+            zip = new ZipFile(file);
+        }
+        return zip;
+    }
+}
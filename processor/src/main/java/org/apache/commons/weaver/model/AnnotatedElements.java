@@ -21,6 +21,8 @@ package org.apache.commons.weaver.model;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.RetentionPolicy; //NOPMD used in Javadoc
 import java.lang.reflect.AnnotatedElement;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Interface defining a means of iterating over a particular type of
@@ -37,4 +39,22 @@ public interface AnnotatedElements<T extends AnnotatedElement> extends Iterable<
      * @return {@link AnnotatedElements}, narrowed
      */
     AnnotatedElements<T> with(Class<? extends Annotation> annotationType);
+
+    /**
+     * Stream the elements sequentially.
+     * @return {@link Stream}
+     * @since 2.1
+     */
+    default Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Stream the elements in parallel. Elements are split across threads as far as the {@link #spliterator()} allows.
+     * @return {@link Stream}
+     * @since 2.1
+     */
+    default Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
 }
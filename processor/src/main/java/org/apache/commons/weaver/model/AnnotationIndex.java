@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.model;
+
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Inverted index of the {@link Weavable}s of a {@link ScanResult} by annotation type. Weavables are indexed by kind,
+ * i.e. by concrete {@link Weavable} class, and are kept in natural order such that each indexed set iterates in the
+ * same order as the corresponding {@link ScanResult} projection.
+ */
+final class AnnotationIndex {
+    private final Map<Class<?>, Map<Class<? extends Annotation>, Set<Weavable<?, ?>>>> weavables =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Index {@code weavable} under each of {@code annotations}.
+     * @param weavable to index
+     * @param annotations present on {@code weavable}
+     */
+    void add(final Weavable<?, ?> weavable, final Iterable<Annotation> annotations) {
+        final Map<Class<? extends Annotation>, Set<Weavable<?, ?>>> byType =
+            weavables.computeIfAbsent(weavable.getClass(), k -> new ConcurrentHashMap<>());
+
+        for (final Annotation ann : annotations) {
+            byType.computeIfAbsent(ann.annotationType(), k -> new ConcurrentSkipListSet<>()).add(weavable);
+        }
+    }
+
+    /**
+     * Gets the weavables of the specified kind on which an annotation of the specified type is present.
+     * @param kind {@link Weavable} class
+     * @param annotationType sought
+     * @param <W> weavable type
+     * @return {@link Iterable}, unmodifiable
+     */
+    <W> Iterable<W> get(final Class<?> kind, final Class<? extends Annotation> annotationType) {
+        final Map<Class<? extends Annotation>, Set<Weavable<?, ?>>> byType = weavables.get(kind);
+        if (byType == null) {
+            return Collections.emptySet();
+        }
+        @SuppressWarnings("unchecked")
+        final Set<W> result = (Set<W>) byType.get(annotationType);
+        return result == null ? Collections.emptySet() : Collections.unmodifiableSet(result);
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.model;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bytecode-level model of an annotation. Element values are represented as follows:
+ * <ul>
+ * <li>primitive values as their wrapper types</li>
+ * <li>{@link String} values as themselves</li>
+ * <li>class literals as {@link ClassLiteral}s</li>
+ * <li>enum constants as {@link EnumConstant}s</li>
+ * <li>nested annotations as {@link BytecodeAnnotation}s</li>
+ * <li>arrays as {@link java.util.List}s of the above</li>
+ * </ul>
+ * As the classfile records only explicitly specified elements, defaulted elements are absent.
+ * @since 2.1
+ */
+public final class BytecodeAnnotation {
+
+    /**
+     * Represents a class literal annotation element value.
+     */
+    public static final class ClassLiteral {
+        private final String descriptor;
+
+        /**
+         * Create a new {@link ClassLiteral} instance.
+         * @param descriptor of type
+         */
+        public ClassLiteral(final String descriptor) {
+            this.descriptor = Objects.requireNonNull(descriptor, "descriptor");
+        }
+
+        /**
+         * Gets the type descriptor, e.g. {@code Ljava/lang/String;}.
+         * @return {@link String}
+         */
+        public String getDescriptor() {
+            return descriptor;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof ClassLiteral && ((ClassLiteral) obj).descriptor.equals(descriptor);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return descriptor.hashCode();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return descriptor;
+        }
+    }
+
+    /**
+     * Represents an enum constant annotation element value.
+     */
+    public static final class EnumConstant {
+        private final String type;
+        private final String name;
+
+        /**
+         * Create a new {@link EnumConstant} instance.
+         * @param type binary name of enum type
+         * @param name of constant
+         */
+        public EnumConstant(final String type, final String name) {
+            this.type = Objects.requireNonNull(type, "type");
+            this.name = Objects.requireNonNull(name, "name");
+        }
+
+        /**
+         * Gets the binary name of the enum type.
+         * @return {@link String}
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * Gets the constant name.
+         * @return {@link String}
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof EnumConstant)) {
+                return false;
+            }
+            final EnumConstant other = (EnumConstant) obj;
+            return other.type.equals(type) && other.name.equals(name);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, name);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return type + '.' + name;
+        }
+    }
+
+    private final String type;
+    private final boolean visible;
+    private final Map<String, Object> values;
+
+    /**
+     * Create a new {@link BytecodeAnnotation} instance.
+     * @param type binary name of annotation type
+     * @param visible whether the annotation is visible at runtime
+     * @param values explicitly specified element values
+     */
+    public BytecodeAnnotation(final String type, final boolean visible, final Map<String, Object> values) {
+        this.type = Objects.requireNonNull(type, "type");
+        this.visible = visible;
+        this.values = Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * Gets the binary name of the annotation type.
+     * @return {@link String}
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Learn whether this annotation is visible at runtime.
+     * @return {@code boolean}
+     */
+    public boolean isVisible() {
+        return visible;
+    }
+
+    /**
+     * Gets the explicitly specified element values.
+     * @return {@link Map} of element name to value
+     */
+    public Map<String, Object> getValues() {
+        return values;
+    }
+
+    /**
+     * Gets the value of the specified element.
+     * @param name of element
+     * @return value, or {@code null} if not explicitly specified
+     */
+    public Object getValue(final String name) {
+        return values.get(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "@" + type + values;
+    }
+}
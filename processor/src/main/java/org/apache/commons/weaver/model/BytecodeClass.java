@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bytecode-level model of a class.
+ * @since 2.1
+ */
+public final class BytecodeClass extends BytecodeElement {
+    private final String name;
+    private final String superName;
+    private final List<String> interfaces;
+    private final List<BytecodeField> fields;
+    private final List<BytecodeMethod> methods;
+
+    /**
+     * Create a new {@link BytecodeClass} instance.
+     * @param access flags
+     * @param name binary name
+     * @param superName binary name of superclass, {@code null} for {@link Object}
+     * @param interfaces binary names of directly implemented interfaces
+     * @param annotations declared
+     * @param fields declared
+     * @param methods declared, including constructors
+     */
+    public BytecodeClass(final int access, final String name, final String superName, final List<String> interfaces,
+        final List<BytecodeAnnotation> annotations, final List<BytecodeField> fields,
+        final List<BytecodeMethod> methods) {
+        super(access, annotations);
+        this.name = name;
+        this.superName = superName;
+        this.interfaces = Collections.unmodifiableList(interfaces);
+        this.fields = Collections.unmodifiableList(fields);
+        this.methods = Collections.unmodifiableList(methods);
+    }
+
+    /**
+     * Gets the binary name of this class, as would be returned by {@link Class#getName()}.
+     * @return {@link String}
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the binary name of the superclass.
+     * @return {@link String}, {@code null} for {@link Object}
+     */
+    public String getSuperName() {
+        return superName;
+    }
+
+    /**
+     * Gets the binary names of the directly implemented interfaces.
+     * @return {@link List} of {@link String}
+     */
+    public List<String> getInterfaces() {
+        return interfaces;
+    }
+
+    /**
+     * Gets the declared fields.
+     * @return {@link List} of {@link BytecodeField}
+     */
+    public List<BytecodeField> getFields() {
+        return fields;
+    }
+
+    /**
+     * Gets the declared methods and constructors.
+     * @return {@link List} of {@link BytecodeMethod}
+     */
+    public List<BytecodeMethod> getMethods() {
+        return methods;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.model;
+
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Base class of bytecode-level models of annotated elements.
+ * @since 2.1
+ */
+public abstract class BytecodeElement {
+    private final int access;
+    private final List<BytecodeAnnotation> annotations;
+
+    /**
+     * Create a new {@link BytecodeElement} instance.
+     * @param access flags
+     * @param annotations declared
+     */
+    protected BytecodeElement(final int access, final List<BytecodeAnnotation> annotations) {
+        this.access = access;
+        this.annotations = Collections.unmodifiableList(annotations);
+    }
+
+    /**
+     * Gets the access flags of this element, as defined by the JVM specification.
+     * @return {@code int}
+     */
+    public int getAccess() {
+        return access;
+    }
+
+    /**
+     * Gets the annotations of this element, irrespective of retention.
+     * @return {@link List} of {@link BytecodeAnnotation}
+     */
+    public List<BytecodeAnnotation> getAnnotations() {
+        return annotations;
+    }
+
+    /**
+     * Gets the annotation of the specified type, if present.
+     * @param annotationType binary name of annotation type
+     * @return {@link BytecodeAnnotation} or {@code null}
+     */
+    public BytecodeAnnotation getAnnotation(final String annotationType) {
+        for (final BytecodeAnnotation annotation : annotations) {
+            if (annotation.getType().equals(annotationType)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the annotation of the specified type, if present. {@code annotationType} is used only by name.
+     * @param annotationType annotation type
+     * @return {@link BytecodeAnnotation} or {@code null}
+     */
+    public BytecodeAnnotation getAnnotation(final Class<? extends Annotation> annotationType) {
+        return getAnnotation(annotationType.getName());
+    }
+
+    /**
+     * Learn whether an annotation of the specified type is present.
+     * @param annotationType annotation type
+     * @return {@code boolean}
+     */
+    public boolean isAnnotationPresent(final Class<? extends Annotation> annotationType) {
+        return getAnnotation(annotationType) != null;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.model;
+
+import java.util.List;
+
+/**
+ * Bytecode-level model of a field.
+ * @since 2.1
+ */
+public final class BytecodeField extends BytecodeElement {
+    private final String declaringClassName;
+    private final String name;
+    private final String descriptor;
+
+    /**
+     * Create a new {@link BytecodeField} instance.
+     * @param declaringClassName binary name of declaring class
+     * @param access flags
+     * @param name of field
+     * @param descriptor of field type
+     * @param annotations declared
+     */
+    public BytecodeField(final String declaringClassName, final int access, final String name,
+        final String descriptor, final List<BytecodeAnnotation> annotations) {
+        super(access, annotations);
+        this.declaringClassName = declaringClassName;
+        this.name = name;
+        this.descriptor = descriptor;
+    }
+
+    /**
+     * Gets the binary name of the declaring class.
+     * @return {@link String}
+     */
+    public String getDeclaringClassName() {
+        return declaringClassName;
+    }
+
+    /**
+     * Gets the field name.
+     * @return {@link String}
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the type descriptor of the field.
+     * @return {@link String}
+     */
+    public String getDescriptor() {
+        return descriptor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return declaringClassName + '.' + name;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bytecode-level model of a method or constructor.
+ * @since 2.1
+ */
+public final class BytecodeMethod extends BytecodeElement {
+    private static final String CONSTRUCTOR_NAME = "<init>";
+
+    private final String declaringClassName;
+    private final String name;
+    private final String descriptor;
+    private final List<List<BytecodeAnnotation>> parameterAnnotations;
+
+    /**
+     * Create a new {@link BytecodeMethod} instance.
+     * @param declaringClassName binary name of declaring class
+     * @param access flags
+     * @param name of method
+     * @param descriptor of method
+     * @param annotations declared
+     * @param parameterAnnotations declared, by parameter index
+     */
+    public BytecodeMethod(final String declaringClassName, final int access, final String name,
+        final String descriptor, final List<BytecodeAnnotation> annotations,
+        final List<List<BytecodeAnnotation>> parameterAnnotations) {
+        super(access, annotations);
+        this.declaringClassName = declaringClassName;
+        this.name = name;
+        this.descriptor = descriptor;
+        this.parameterAnnotations = Collections.unmodifiableList(parameterAnnotations);
+    }
+
+    /**
+     * Gets the binary name of the declaring class.
+     * @return {@link String}
+     */
+    public String getDeclaringClassName() {
+        return declaringClassName;
+    }
+
+    /**
+     * Gets the method name, {@code <init>} for a constructor.
+     * @return {@link String}
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the method descriptor.
+     * @return {@link String}
+     */
+    public String getDescriptor() {
+        return descriptor;
+    }
+
+    /**
+     * Learn whether this {@link BytecodeMethod} represents a constructor.
+     * @return {@code boolean}
+     */
+    public boolean isConstructor() {
+        return CONSTRUCTOR_NAME.equals(name);
+    }
+
+    /**
+     * Gets the annotations of the parameter at the specified index.
+     * @param index of parameter
+     * @return {@link List} of {@link BytecodeAnnotation}, empty for an index without annotations
+     */
+    public List<BytecodeAnnotation> getParameterAnnotations(final int index) {
+        return index < parameterAnnotations.size() ? Collections.unmodifiableList(parameterAnnotations.get(index))
+            : Collections.emptyList();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return declaringClassName + '.' + name + descriptor;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.model;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Result of a {@link BytecodeScanner} scan: the classes relevant to a {@link ScanRequest}, modeled from their
+ * bytecode and ordered by name.
+ * @since 2.1
+ */
+public class BytecodeScanResult {
+    private final Map<String, BytecodeClass> classes = new TreeMap<>();
+
+    /**
+     * Add a {@link BytecodeClass}.
+     * @param cls to add
+     * @return whether added
+     */
+    public boolean add(final BytecodeClass cls) {
+        return classes.putIfAbsent(cls.getName(), cls) == null;
+    }
+
+    /**
+     * Gets the scanned classes.
+     * @return {@link Collection} of {@link BytecodeClass}
+     */
+    public Collection<BytecodeClass> getClasses() {
+        return Collections.unmodifiableCollection(classes.values());
+    }
+
+    /**
+     * Gets the scanned class having the specified name, if any.
+     * @param className binary name
+     * @return {@link BytecodeClass} or {@code null}
+     */
+    public BytecodeClass getType(final String className) {
+        return classes.get(className);
+    }
+}
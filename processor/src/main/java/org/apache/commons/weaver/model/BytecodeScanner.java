@@ -0,0 +1,35 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.model;
+
+/**
+ * {@link Scanner} additionally able to perform scans that model the scanned classes purely from their bytecode,
+ * without loading them.
+ * @since 2.1
+ */
+public interface BytecodeScanner extends Scanner {
+
+    /**
+     * Perform the requested scan without loading any scanned class.
+     *
+     * @param request to process
+     * @return {@link BytecodeScanResult}
+     */
+    BytecodeScanResult scanBytecode(ScanRequest request);
+}
@@ -52,6 +52,14 @@ public abstract class NestedWeavable
         return parent;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    AnnotationIndex getIndex() {
+        return parent == null ? null : parent.getIndex();
+    }
+
     /**
      * Implement {@link Comparable}.
      * @param obj {@code SELF}
@@ -24,11 +24,20 @@ import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.weaver.WeaveProcessor;
@@ -57,12 +66,13 @@ import org.apache.commons.weaver.spi.Weaver;
  * </p>
  */
 public class ScanResult {
-    private abstract static class Projection<PARENT, CHILD extends AnnotatedElement> implements
-        AnnotatedElements<CHILD> {
+    private abstract class Projection<PARENT, CHILD extends AnnotatedElement> implements AnnotatedElements<CHILD> {
         private final Iterable<PARENT> parents;
+        private final Class<?> kind;
 
-        Projection(final Iterable<PARENT> parents) {
+        Projection(final Iterable<PARENT> parents, final Class<?> kind) {
             this.parents = parents;
+            this.kind = kind;
         }
 
         protected abstract Iterable<CHILD> childrenOf(PARENT parent);
@@ -109,8 +119,42 @@ public class ScanResult {
             };
         }
 
+        /**
+         * Splits across parents, then across the children of a single parent; see {@link FlatMapSpliterator}.
+         * @return {@link Spliterator}
+         */
+        @Override
+        public Spliterator<CHILD> spliterator() {
+            final List<PARENT> snapshot = new ArrayList<>();
+            parents.forEach(snapshot::add);
+            return new FlatMapSpliterator<>(snapshot, parent -> collection(childrenOf(parent)));
+        }
+
         @Override
         public AnnotatedElements<CHILD> with(final Class<? extends Annotation> annotationType) {
+            return new Indexed<>(index.get(kind, annotationType));
+        }
+    }
+
+    private static class Indexed<W extends AnnotatedElement> implements AnnotatedElements<W> {
+        final Iterable<W> wrapped;
+
+        Indexed(final Iterable<W> wrapped) {
+            this.wrapped = wrapped;
+        }
+
+        @Override
+        public Iterator<W> iterator() {
+            return wrapped.iterator();
+        }
+
+        @Override
+        public Spliterator<W> spliterator() {
+            return wrapped.spliterator();
+        }
+
+        @Override
+        public AnnotatedElements<W> with(final Class<? extends Annotation> annotationType) {
             return new AnnotatedWith<>(this, annotationType);
         }
     }
@@ -164,6 +208,12 @@ public class ScanResult {
             };
         }
 
+        @Override
+        public Spliterator<W> spliterator() {
+            return new FilteringSpliterator<>(wrapped.spliterator(),
+                element -> element.isAnnotationPresent(annotationType));
+        }
+
         @Override
         public AnnotatedElements<W> with(final Class<? extends Annotation> annotationType) {
             return new AnnotatedWith<>(this, annotationType);
@@ -171,11 +221,209 @@ public class ScanResult {
 
     }
 
+    /**
+     * {@link Spliterator} over the children of a list of parents. Splits first across the parents, then across the
+     * children of the last parent remaining; either way, the children of a parent are reached only as it is traversed.
+     * The parents are captured, and the children counted, upon creation: the spliterator is sized as of that moment,
+     * a {@link ScanResult} not being expected to change while its elements are streamed.
+     * @param <PARENT> parent type
+     * @param <CHILD> child type
+     */
+    private static final class FlatMapSpliterator<PARENT, CHILD> implements Spliterator<CHILD> {
+        private static final int CHARACTERISTICS = ORDERED | NONNULL | SIZED | SUBSIZED;
+
+        private static <PARENT> long[] ends(final List<PARENT> parents,
+            final Function<? super PARENT, ? extends Collection<?>> children) {
+            final long[] result = new long[parents.size()];
+            long count = 0;
+            for (int i = 0; i < result.length; i++) {
+                count += children.apply(parents.get(i)).size();
+                result[i] = count;
+            }
+            return result;
+        }
+
+        private final List<PARENT> parents;
+        private final Function<? super PARENT, ? extends Collection<CHILD>> children;
+
+        /**
+         * Cumulative child counts, such that {@code ends[i]} counts the children of {@code parents[0..i]}.
+         */
+        private final long[] ends;
+        private final int fence;
+        private int next;
+        private Spliterator<CHILD> current;
+
+        FlatMapSpliterator(final List<PARENT> parents,
+            final Function<? super PARENT, ? extends Collection<CHILD>> children) {
+            this(parents, children, ends(parents, children), 0, parents.size());
+        }
+
+        private FlatMapSpliterator(final List<PARENT> parents,
+            final Function<? super PARENT, ? extends Collection<CHILD>> children, final long[] ends, final int origin,
+            final int fence) {
+            this.parents = parents;
+            this.children = children;
+            this.ends = ends;
+            this.next = origin;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super CHILD> action) {
+            while (current == null || !current.tryAdvance(action)) {
+                if (next == fence) {
+                    current = null;
+                    return false;
+                }
+                current = childrenOf(next++);
+            }
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super CHILD> action) {
+            if (current != null) {
+                current.forEachRemaining(action);
+                current = null;
+            }
+            while (next < fence) {
+                children.apply(parents.get(next++)).forEach(action);
+            }
+        }
+
+        @Override
+        public Spliterator<CHILD> trySplit() {
+            if (fence - next > 1) {
+                final int mid = (next + fence) >>> 1;
+                final FlatMapSpliterator<PARENT, CHILD> prefix =
+                    new FlatMapSpliterator<>(parents, children, ends, next, mid);
+                // the remaining children of the parent being traversed precede those of the prefix:
+                prefix.current = current;
+                current = null;
+                next = mid;
+                return prefix;
+            }
+            if (current == null) {
+                if (next == fence) {
+                    return null;
+                }
+                current = childrenOf(next++);
+            }
+            return current.trySplit();
+        }
+
+        @Override
+        public long estimateSize() {
+            final long pending = next == fence ? 0 : ends[fence - 1] - (next == 0 ? 0 : ends[next - 1]);
+            return current == null ? pending : pending + current.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+
+        private Spliterator<CHILD> childrenOf(final int index) {
+            return Spliterators.spliterator(children.apply(parents.get(index)), ORDERED | NONNULL);
+        }
+    }
+
+    /**
+     * {@link Spliterator} over the elements of another that satisfy a {@link Predicate}, splitting as the other does.
+     * @param <T> element type
+     */
+    private static final class FilteringSpliterator<T> implements Spliterator<T>, Consumer<T> {
+        private final Spliterator<T> source;
+        private final Predicate<? super T> filter;
+        private T candidate;
+
+        FilteringSpliterator(final Spliterator<T> source, final Predicate<? super T> filter) {
+            this.source = source;
+            this.filter = filter;
+        }
+
+        /**
+         * Receive a candidate element from {@link #source}.
+         * @param element candidate
+         */
+        @Override
+        public void accept(final T element) {
+            candidate = element;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super T> action) {
+            try {
+                while (source.tryAdvance(this)) {
+                    if (filter.test(candidate)) {
+                        action.accept(candidate);
+                        return true;
+                    }
+                }
+                return false;
+            } finally {
+                candidate = null;
+            }
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super T> action) {
+            source.forEachRemaining(element -> {
+                if (filter.test(element)) {
+                    action.accept(element);
+                }
+            });
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            final Spliterator<T> prefix = source.trySplit();
+            return prefix == null ? null : new FilteringSpliterator<>(prefix, filter);
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics() & ~(SIZED | SUBSIZED);
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return source.getComparator();
+        }
+    }
+
+    /**
+     * Obtain a {@link Collection} of the elements of {@code iterable}, copying them only if necessary.
+     * @param iterable source
+     * @param <T> element type
+     * @return {@link Collection}
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Collection<T> collection(final Iterable<T> iterable) {
+        if (iterable instanceof Collection<?>) {
+            return (Collection<T>) iterable;
+        }
+        final List<T> result = new ArrayList<>();
+        iterable.forEach(result::add);
+        return result;
+    }
+
     /**
      * Weavable packages by name.
      */
     final ConcurrentNavigableMap<String, WeavablePackage> packages = new ConcurrentSkipListMap<>();
 
+    /**
+     * Weavables by annotation type, maintained as annotations are added.
+     */
+    final AnnotationIndex index = new AnnotationIndex();
+
     /**
      * Public for use by {@link WeaveProcessor}.
      * @param pkg to wrap
@@ -185,12 +433,8 @@ public class ScanResult {
         final String key =
             Optional.ofNullable(pkg).map(Package::getName).orElse("");
 
-        if (packages.containsKey(key)) {
-            return packages.get(key);
-        }
-        final WeavablePackage result = new WeavablePackage(pkg);
-        final WeavablePackage faster = packages.putIfAbsent(key, result);
-        return faster == null ? result : faster;
+        final WeavablePackage result = packages.get(key);
+        return result == null ? Weavable.register(packages, key, new WeavablePackage(pkg, index)) : result;
     }
 
     /**
@@ -243,9 +487,14 @@ public class ScanResult {
                 return packages.values().iterator();
             }
 
+            @Override
+            public Spliterator<WeavablePackage> spliterator() {
+                return packages.values().spliterator();
+            }
+
             @Override
             public AnnotatedElements<WeavablePackage> with(final Class<? extends Annotation> annotationType) {
-                return new AnnotatedWith<>(packages.values(), annotationType);
+                return new Indexed<>(index.get(WeavablePackage.class, annotationType));
             }
         };
     }
@@ -255,7 +504,7 @@ public class ScanResult {
      * @return {@link AnnotatedElements}
      */
     public AnnotatedElements<WeavableClass<?>> getClasses() {
-        return new Projection<WeavablePackage, WeavableClass<?>>(getPackages()) {
+        return new Projection<WeavablePackage, WeavableClass<?>>(getPackages(), WeavableClass.class) {
 
             @Override
             protected Iterable<WeavableClass<?>> childrenOf(final WeavablePackage parent) {
@@ -272,7 +521,7 @@ public class ScanResult {
     public AnnotatedElements<WeavableClass<?>> getClassesAssignableTo(final Class<?> supertype) {
         Validate.notNull(supertype, "supertype");
 
-        return new Projection<WeavablePackage, WeavableClass<?>>(getPackages()) {
+        return new Projection<WeavablePackage, WeavableClass<?>>(getPackages(), WeavableClass.class) {
 
             @Override
             protected Iterable<WeavableClass<?>> childrenOf(final WeavablePackage parent) {
@@ -320,6 +569,29 @@ public class ScanResult {
                     }
                 };
             }
+
+            @Override
+            public Spliterator<WeavableClass<?>> spliterator() {
+                return new FilteringSpliterator<>(super.spliterator(),
+                    cls -> supertype.isAssignableFrom(cls.getTarget()));
+            }
+
+            @Override
+            public AnnotatedElements<WeavableClass<?>> with(final Class<? extends Annotation> annotationType) {
+                return new Indexed<WeavableClass<?>>(super.with(annotationType)) {
+
+                    @Override
+                    public Iterator<WeavableClass<?>> iterator() {
+                        return Spliterators.iterator(spliterator());
+                    }
+
+                    @Override
+                    public Spliterator<WeavableClass<?>> spliterator() {
+                        return new FilteringSpliterator<>(wrapped.spliterator(),
+                            cls -> supertype.isAssignableFrom(cls.getTarget()));
+                    }
+                };
+            }
         };
     }
 
@@ -328,7 +600,7 @@ public class ScanResult {
      * @return {@link AnnotatedElements}
      */
     public AnnotatedElements<WeavableField<?>> getFields() {
-        return new Projection<WeavableClass<?>, WeavableField<?>>(getClasses()) {
+        return new Projection<WeavableClass<?>, WeavableField<?>>(getClasses(), WeavableField.class) {
 
             @Override
             protected Iterable<WeavableField<?>> childrenOf(final WeavableClass<?> parent) {
@@ -344,7 +616,7 @@ public class ScanResult {
      * @return {@link AnnotatedElements}
      */
     public AnnotatedElements<WeavableConstructor<?>> getConstructors() {
-        return new Projection<WeavableClass<?>, WeavableConstructor<?>>(getClasses()) {
+        return new Projection<WeavableClass<?>, WeavableConstructor<?>>(getClasses(), WeavableConstructor.class) {
 
             @Override
             protected Iterable<WeavableConstructor<?>> childrenOf(final WeavableClass<?> parent) {
@@ -360,7 +632,7 @@ public class ScanResult {
      * @return {@link AnnotatedElements}
      */
     public AnnotatedElements<WeavableMethod<?>> getMethods() {
-        return new Projection<WeavableClass<?>, WeavableMethod<?>>(getClasses()) {
+        return new Projection<WeavableClass<?>, WeavableMethod<?>>(getClasses(), WeavableMethod.class) {
 
             @Override
             protected Iterable<WeavableMethod<?>> childrenOf(final WeavableClass<?> parent) {
@@ -376,7 +648,8 @@ public class ScanResult {
      * @return {@link AnnotatedElements}
      */
     public AnnotatedElements<WeavableMethodParameter<?>> getMethodParameters() {
-        return new Projection<WeavableMethod<?>, WeavableMethodParameter<?>>(getMethods()) {
+        return new Projection<WeavableMethod<?>, WeavableMethodParameter<?>>(getMethods(),
+            WeavableMethodParameter.class) {
 
             @Override
             protected Iterable<WeavableMethodParameter<?>> childrenOf(final WeavableMethod<?> parent) {
@@ -393,7 +666,8 @@ public class ScanResult {
      */
     public AnnotatedElements<WeavableConstructorParameter<?>> getConstructorParameters() {
 
-        return new Projection<WeavableConstructor<?>, WeavableConstructorParameter<?>>(getConstructors()) {
+        return new Projection<WeavableConstructor<?>, WeavableConstructorParameter<?>>(getConstructors(),
+            WeavableConstructorParameter.class) {
 
             @Override
             protected Iterable<WeavableConstructorParameter<?>> childrenOf(final WeavableConstructor<?> parent) {
@@ -21,26 +21,63 @@ package org.apache.commons.weaver.model;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.RetentionPolicy; //NOPMD used in Javadoc
 import java.lang.reflect.AnnotatedElement;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 
 /**
  * {@link Weavable} extends {@link AnnotatedElement} to include
- * {@link RetentionPolicy#CLASS} annotations.
+ * {@link RetentionPolicy#CLASS} annotations. Annotations are held in an immutable snapshot, indexed by annotation
+ * type, that is replaced whenever annotations are added; annotations may thus be queried without locking.
  *
  * @param <SELF> own type
  * @param <TARGET> target type
  */
 public abstract class Weavable<SELF extends Weavable<SELF, TARGET>, TARGET> implements Comparable<SELF>,
     AnnotatedElement {
-    private static final Annotation[] EMPTY_ANNOTATION_ARRAY = new Annotation[0];
+    /**
+     * Immutable set of annotations.
+     */
+    private static final class Annotations {
+        static final Annotations EMPTY = new Annotations(new Annotation[0]);
+
+        final Annotation[] all;
+
+        /**
+         * Annotations by type; a snapshot of fewer than two annotations, the usual case, holds no {@link HashMap}.
+         */
+        final Map<Class<? extends Annotation>, Annotation> byType;
+
+        Annotations(final Annotation[] all) {
+            this.all = all;
+            if (all.length == 0) {
+                this.byType = Collections.emptyMap();
+            } else if (all.length == 1) {
+                this.byType = Collections.singletonMap(all[0].annotationType(), all[0]);
+            } else {
+                this.byType = new HashMap<>(all.length * 2);
+                for (final Annotation ann : all) {
+                    byType.putIfAbsent(ann.annotationType(), ann);
+                }
+            }
+        }
+
+        Annotation get(final Class<? extends Annotation> annotationType) {
+            return byType.get(annotationType);
+        }
+    }
 
     private final TARGET target;
-    private Set<Annotation> annotations;
+    private volatile Annotations annotations = Annotations.EMPTY;
 
     /**
      * Create a new {@link Weavable} instance.
@@ -72,19 +109,61 @@ public abstract class Weavable<SELF extends Weavable<SELF, TARGET>, TARGET> impl
         if (toAdd == null) {
             return false;
         }
+        final List<Annotation> added = new ArrayList<>();
         synchronized (this) {
-            if (annotations == null) {
-                annotations = new LinkedHashSet<>();
-            }
-            boolean result = false;
+            final Set<Annotation> merged = new LinkedHashSet<>(Arrays.asList(annotations.all));
             for (final Annotation ann : toAdd) {
-                if (ann == null) {
-                    continue;
+                if (ann != null && merged.add(ann)) {
+                    added.add(ann);
                 }
-                result = annotations.add(ann) || result;
             }
-            return result;
+            if (added.isEmpty()) {
+                return false;
+            }
+            annotations = new Annotations(merged.toArray(new Annotation[0]));
         }
+        final AnnotationIndex index = getIndex();
+        if (index != null) {
+            index.add(this, added);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the {@link AnnotationIndex} of the {@link ScanResult} to which this {@link Weavable} belongs, if any.
+     * @return {@link AnnotationIndex} or {@code null}
+     */
+    AnnotationIndex getIndex() {
+        return null;
+    }
+
+    /**
+     * Index the annotations added before this {@link Weavable} was attached to its {@link AnnotationIndex}.
+     */
+    final void indexAnnotations() {
+        final AnnotationIndex index = getIndex();
+        if (index != null) {
+            index.add(this, Arrays.asList(annotations.all));
+        }
+    }
+
+    /**
+     * Map a newly created {@link Weavable} unless another has meanwhile been mapped to the same key. Only the
+     * {@link Weavable} so mapped is indexed, as the {@link AnnotationIndex} offers no means to replace a duplicate.
+     * @param map to which to add
+     * @param key of {@code created}
+     * @param created {@link Weavable}
+     * @param <K> key type
+     * @param <W> weavable type
+     * @return the {@link Weavable} mapped to {@code key}
+     */
+    static <K, W extends Weavable<?, ?>> W register(final ConcurrentMap<K, W> map, final K key, final W created) {
+        final W faster = map.putIfAbsent(key, created);
+        if (faster != null) {
+            return faster;
+        }
+        created.indexAnnotations();
+        return created;
     }
 
     /**
@@ -100,11 +179,12 @@ public abstract class Weavable<SELF extends Weavable<SELF, TARGET>, TARGET> impl
      * @return {@link Annotation}[]
      */
     @Override
-    public final synchronized Annotation[] getAnnotations() {
-        if (annotations == null) {
-            return EMPTY_ANNOTATION_ARRAY; //NOPMD - no problem sharing zero-length array
+    public final Annotation[] getAnnotations() {
+        final Annotation[] all = annotations.all;
+        if (all.length == 0) {
+            return all; //NOPMD - no problem sharing zero-length array
         }
-        return annotations.toArray(new Annotation[0]);
+        return all.clone();
     }
 
     /**
@@ -114,18 +194,10 @@ public abstract class Weavable<SELF extends Weavable<SELF, TARGET>, TARGET> impl
      * @return {@code T} instance if available, else {@code null}
      */
     @Override
-    public synchronized <T extends Annotation> T getAnnotation(final Class<T> annotationClass) {
-        if (annotations == null) {
-            return null;
-        }
-        for (final Annotation prospect : annotations) {
-            if (annotationClass.equals(prospect.annotationType())) {
-                @SuppressWarnings("unchecked")
-                final T result = (T) prospect;
-                return result;
-            }
-        }
-        return null;
+    public <T extends Annotation> T getAnnotation(final Class<T> annotationClass) {
+        @SuppressWarnings("unchecked")
+        final T result = (T) annotations.get(annotationClass);
+        return result;
     }
 
     /**
@@ -23,10 +23,12 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
-
-import org.apache.commons.weaver.utils.Args;
+import java.util.concurrent.ConcurrentSkipListSet;
 
 /**
  * {@link Weavable} {@link Class}.
@@ -38,14 +40,25 @@ public class WeavableClass<T> extends NestedWeavable<WeavableClass<T>, Class<T>,
 
     private final ConcurrentNavigableMap<String, WeavableField<T>> fields = new ConcurrentSkipListMap<>();
 
-    private final ConcurrentNavigableMap<Constructor<T>, WeavableConstructor<T>> ctors = new ConcurrentSkipListMap<>(
-        (ctor1, ctor2) -> Args.compare(ctor1.getParameterTypes(), ctor2.getParameterTypes()));
+    /**
+     * Constructors by target; {@link Constructor#equals(Object)} and {@link Constructor#hashCode()} allocate nothing.
+     */
+    private final ConcurrentMap<Constructor<T>, WeavableConstructor<T>> ctors = new ConcurrentHashMap<>();
 
-    private final ConcurrentNavigableMap<Method, WeavableMethod<T>> methods =
-        new ConcurrentSkipListMap<>((methd1, methd2) -> {
-            final int result = methd1.getName().compareTo(methd2.getName());
-            return result == 0 ? Args.compare(methd1.getParameterTypes(), methd2.getParameterTypes()) : result;
-        });
+    /**
+     * Methods by target; {@link Method#equals(Object)} and {@link Method#hashCode()} allocate nothing.
+     */
+    private final ConcurrentMap<Method, WeavableMethod<T>> methods = new ConcurrentHashMap<>();
+
+    /**
+     * {@link #ctors} in natural order.
+     */
+    private final Set<WeavableConstructor<T>> sortedCtors = new ConcurrentSkipListSet<>();
+
+    /**
+     * {@link #methods} in natural order.
+     */
+    private final Set<WeavableMethod<T>> sortedMethods = new ConcurrentSkipListSet<>();
 
     /**
      * Create a new {@link WeavableClass} instance.
@@ -62,7 +75,8 @@ public class WeavableClass<T> extends NestedWeavable<WeavableClass<T>, Class<T>,
      * @return {@link WeavableField}
      */
     public WeavableField<T> getWeavable(final Field fld) {
-        return fields.computeIfAbsent(fld.getName(), k -> new WeavableField<>(fld, this));
+        final WeavableField<T> result = fields.get(fld.getName());
+        return result == null ? register(fields, fld.getName(), new WeavableField<>(fld, this)) : result;
     }
 
     /**
@@ -71,7 +85,8 @@ public class WeavableClass<T> extends NestedWeavable<WeavableClass<T>, Class<T>,
      * @return {@link WeavableMethod}
      */
     public WeavableMethod<T> getWeavable(final Method methd) {
-        return methods.computeIfAbsent(methd, k -> new WeavableMethod<>(methd, this));
+        final WeavableMethod<T> result = methods.get(methd);
+        return result == null ? register(methods, sortedMethods, methd, new WeavableMethod<>(methd, this)) : result;
     }
 
     /**
@@ -80,7 +95,8 @@ public class WeavableClass<T> extends NestedWeavable<WeavableClass<T>, Class<T>,
      * @return {@link WeavableConstructor}
      */
     public WeavableConstructor<T> getWeavable(final Constructor<T> ctor) {
-        return ctors.computeIfAbsent(ctor, k -> new WeavableConstructor<>(ctor, this));
+        final WeavableConstructor<T> result = ctors.get(ctor);
+        return result == null ? register(ctors, sortedCtors, ctor, new WeavableConstructor<>(ctor, this)) : result;
     }
 
     /**
@@ -96,7 +112,7 @@ public class WeavableClass<T> extends NestedWeavable<WeavableClass<T>, Class<T>,
      * @return {@link Iterable}
      */
     public Iterable<WeavableConstructor<T>> getConstructors() {
-        return Collections.unmodifiableCollection(ctors.values());
+        return Collections.unmodifiableSet(sortedCtors);
     }
 
     /**
@@ -104,7 +120,14 @@ public class WeavableClass<T> extends NestedWeavable<WeavableClass<T>, Class<T>,
      * @return {@link Iterable}
      */
     public Iterable<WeavableMethod<T>> getMethods() {
-        return Collections.unmodifiableCollection(methods.values());
+        return Collections.unmodifiableSet(sortedMethods);
+    }
+
+    private static <K, W extends Weavable<?, ?>> W register(final ConcurrentMap<K, W> map, final Set<W> sorted,
+        final K key, final W created) {
+        final W result = register(map, key, created);
+        sorted.add(result);
+        return result;
     }
 
     /**
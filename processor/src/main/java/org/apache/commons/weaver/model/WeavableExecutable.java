@@ -18,10 +18,11 @@
  */
 package org.apache.commons.weaver.model;
 
+import java.lang.reflect.Executable;
 import java.lang.reflect.Member;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.lang.reflect.Method;
+import java.util.AbstractList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.apache.commons.weaver.utils.Args;
 
@@ -40,7 +41,31 @@ public abstract class WeavableExecutable
     P extends WeavableParameter<P, SELF, TARGET, T>>
     extends NestedWeavable<SELF, TARGET, WeavableClass<T>, Class<T>> {
 
-    private final List<P> parameters;
+    /**
+     * Compute the key by which an executable is ordered within its declaring class: for a method, its name followed
+     * by its descriptor; for a constructor, its descriptor.
+     * @param executable {@link Method} or {@link java.lang.reflect.Constructor}
+     * @return {@link String}
+     */
+    static String key(final Executable executable) {
+        if (executable instanceof Method) {
+            final Method methd = (Method) executable;
+            return methd.getName() + Args.descriptor(methd.getReturnType(), methd.getParameterTypes());
+        }
+        return Args.descriptor(Void.TYPE, executable.getParameterTypes());
+    }
+
+    /**
+     * Computed on demand; racy single-check suffices for an immutable {@link String}.
+     */
+    private String key;
+
+    private final int parameterCount;
+
+    /**
+     * Parameters, allocated and populated on demand.
+     */
+    private volatile AtomicReferenceArray<P> parameters;
 
     /**
      * Create a new {@link WeavableExecutable} instance.
@@ -49,12 +74,7 @@ public abstract class WeavableExecutable
      */
     protected WeavableExecutable(final TARGET target, final WeavableClass<T> parent) {
         super(target, parent);
-        final List<P> params = new ArrayList<>();
-        final int paramCount = getParameterTypes().length;
-        for (int i = 0; i < paramCount; i++) {
-            params.add(createParameter(i));
-        }
-        parameters = Collections.unmodifiableList(params);
+        parameterCount = ((Executable) target).getParameterCount();
     }
 
     /**
@@ -75,23 +95,76 @@ public abstract class WeavableExecutable
      */
     @Override
     protected int localCompareTo(final SELF obj) {
-        return Args.compare(getParameterTypes(), obj.getParameterTypes());
+        return key().compareTo(((WeavableExecutable<?, ?, ?, ?>) obj).key());
+    }
+
+    private String key() {
+        String result = key;
+        if (result == null) {
+            result = key((Executable) getTarget());
+            key = result;
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of parameters declared by this {@link WeavableExecutable}.
+     * @return {@code int}
+     * @since 2.1
+     */
+    public int getParameterCount() {
+        return parameterCount;
     }
 
     /**
-     * Gets the parameter at the specified index.
+     * Gets the parameter at the specified index, creating it if not yet requested.
      * @param index {@code int}
      * @return {@code P}
+     * @throws IndexOutOfBoundsException if {@code index} is not that of a parameter
      */
     public P getWeavableParameter(final int index) {
-        return parameters.get(index);
+        if (index < 0 || index >= parameterCount) {
+            throw new IndexOutOfBoundsException(String.format("%s has no parameter %d", getTarget(), index));
+        }
+        AtomicReferenceArray<P> params = parameters;
+        if (params == null) {
+            synchronized (this) {
+                params = parameters;
+                if (params == null) {
+                    params = new AtomicReferenceArray<>(parameterCount);
+                    parameters = params;
+                }
+            }
+        }
+        final P result = params.get(index);
+        if (result != null) {
+            return result;
+        }
+        final P created = createParameter(index);
+        if (!params.compareAndSet(index, null, created)) {
+            return params.get(index);
+        }
+        // index only the parameter actually retained:
+        created.indexAnnotations();
+        return created;
     }
 
     /**
-     * Gets the parameters declared by this {@link WeavableExecutable}.
+     * Gets the parameters declared by this {@link WeavableExecutable}. Each parameter is created as it is reached.
      * @return {@link Iterable} of {@code P}
      */
     public Iterable<P> getParameters() {
-        return parameters;
+        return new AbstractList<P>() {
+
+            @Override
+            public P get(final int index) {
+                return getWeavableParameter(index);
+            }
+
+            @Override
+            public int size() {
+                return parameterCount;
+            }
+        };
     }
 }
@@ -44,15 +44,6 @@ public class WeavableMethod<T> extends WeavableExecutable<WeavableMethod<T>, Met
         return getTarget().getParameterTypes();
     }
 
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    protected int localCompareTo(final WeavableMethod<T> obj) {
-        final int result = getTarget().getName().compareTo(obj.getTarget().getName());
-        return result == 0 ? super.localCompareTo(obj) : result;
-    }
-
     /**
      * {@inheritDoc}
      */
@@ -32,12 +32,32 @@ public class WeavablePackage extends Weavable<WeavablePackage, Package> {
 
     private final ConcurrentNavigableMap<String, WeavableClass<?>> clazzes = new ConcurrentSkipListMap<>();
 
+    private final AnnotationIndex index;
+
     /**
      * Create a new {@link WeavablePackage} instance.
      * @param target package
      */
     public WeavablePackage(final Package target) {
+        this(target, null);
+    }
+
+    /**
+     * Create a new {@link WeavablePackage} instance.
+     * @param target package
+     * @param index {@link AnnotationIndex} of enclosing {@link ScanResult}
+     */
+    WeavablePackage(final Package target, final AnnotationIndex index) {
         super(target);
+        this.index = index;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    AnnotationIndex getIndex() {
+        return index;
     }
 
     /**
@@ -47,8 +67,10 @@ public class WeavablePackage extends Weavable<WeavablePackage, Package> {
      * @return {@link WeavableClass}
      */
     @SuppressWarnings("unchecked")
-    public synchronized <T> WeavableClass<T> getWeavable(final Class<T> cls) {
-        return (WeavableClass<T>) clazzes.computeIfAbsent(cls.getName(), k -> new WeavableClass<>(cls, this));
+    public <T> WeavableClass<T> getWeavable(final Class<T> cls) {
+        final WeavableClass<?> result = clazzes.get(cls.getName());
+        return (WeavableClass<T>) (result == null ? register(clazzes, cls.getName(), new WeavableClass<>(cls, this))
+            : result);
     }
 
     /**
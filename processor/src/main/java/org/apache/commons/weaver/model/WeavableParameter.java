@@ -49,6 +49,6 @@ public abstract class WeavableParameter
      */
     @Override
     protected int localCompareTo(final SELF obj) {
-        return getTarget().compareTo(getTarget());
+        return getTarget().compareTo(obj.getTarget());
     }
 }
@@ -58,7 +58,7 @@ public abstract class WeaveEnvironment {
          * @throws IOException Thrown if unable to read
          */
         public InputStream getInputStream() throws IOException {
-            return classLoader.getResourceAsStream(name);
+            return WeaveEnvironment.this.getInputStream(name);
         }
 
         /**
@@ -224,6 +224,29 @@ public abstract class WeaveEnvironment {
      */
     public abstract boolean deleteResource(String name);
 
+    /**
+     * Record that the weaving of {@code cls} depends upon {@code dependency}, such that {@code cls} should be woven
+     * again should {@code dependency} change.
+     * @param cls dependent type
+     * @param dependency type depended upon
+     * @since 2.1
+     */
+    public final void addDependency(final Class<?> cls, final Class<?> dependency) {
+        addDependency(cls.getName(), dependency.getName());
+    }
+
+    /**
+     * Record that the weaving of the specified class depends upon another, such that the former should be woven again
+     * should the latter change. Only meaningful to environments supporting incremental weaving; by default does
+     * nothing.
+     * @param className of dependent type
+     * @param dependency name of type depended upon
+     * @since 2.1
+     */
+    public void addDependency(final String className, final String dependency) {
+        // noop
+    }
+
     /**
      * Open an {@link OutputStream} for the specified resource.
      * @param resourceName to open
@@ -231,4 +254,15 @@ public abstract class WeaveEnvironment {
      * @throws IOException on error
      */
     protected abstract OutputStream getOutputStream(String resourceName) throws IOException;
+
+    /**
+     * Open an {@link InputStream} for reading a resource. By default the resource is sought from {@link #classLoader}.
+     * @param resourceName name
+     * @return {@link InputStream}, {@code null} if no such resource is found
+     * @throws IOException on error
+     * @since 2.1
+     */
+    protected InputStream getInputStream(final String resourceName) throws IOException {
+        return classLoader.getResourceAsStream(resourceName);
+    }
 }
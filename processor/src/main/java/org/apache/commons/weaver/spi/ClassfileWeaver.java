@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.spi;
+
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import org.apache.commons.weaver.model.Scanner;
+import org.apache.commons.weaver.model.WeaveEnvironment;
+
+/**
+ * A {@link Weaver} whose rewriting of existing classfiles consists of independent, per-class transformations. Rather
+ * than calling {@link #process(WeaveEnvironment, Scanner)}, the weave processor collects the transformation stages
+ * of consecutive {@link ClassfileWeaver}s, in provider order, and applies them in a single read-transform-write pass
+ * per class: each classfile is read once, handed from stage to stage in memory, and written once.
+ * <p>
+ * Stages are planned against the classfiles as they stand before any stage of the same pass is applied. A stage may
+ * still write other resources, e.g. generated classes, through its {@link WeaveEnvironment}.
+ * </p>
+ * <p>
+ * The stages of distinct classes may be applied concurrently, per the
+ * {@link org.apache.commons.weaver.WeaveProcessor#CONFIG_WEAVE_PARALLELISM} setting, and must therefore not share
+ * mutable state; the stages of a given class are always applied in order, by a single thread.
+ * </p>
+ * @since 2.1
+ */
+public interface ClassfileWeaver extends Weaver {
+
+    /**
+     * Using the supplied {@link Scanner}, plan the transformation of classfiles in a {@link WeaveEnvironment}.
+     *
+     * @param environment to use
+     * @param scanner to use
+     * @return {@link Map} of binary class name to a transformation of the content of its classfile; each
+     *         transformation receives the output of any preceding stage and returns a complete classfile
+     */
+    Map<String, UnaryOperator<byte[]>> getClassfileStages(WeaveEnvironment environment, Scanner scanner);
+}
@@ -20,6 +20,9 @@ package org.apache.commons.weaver.spi;
 
 import org.apache.commons.weaver.lifecycle.WeaveLifecycle; //NOPMD used in Javadoc
 import org.apache.commons.weaver.lifecycle.WeaveLifecycleToken;
+import org.apache.commons.weaver.model.ScanRequest;
+import org.apache.commons.weaver.model.Scanner; //NOPMD used in Javadoc
+import org.apache.commons.weaver.model.WeaveEnvironment;
 
 /**
  * Marker interface for commons-weaver lifecycle providers.
@@ -27,4 +30,18 @@ import org.apache.commons.weaver.lifecycle.WeaveLifecycleToken;
  * @since 1.2
  */
 public interface WeaveLifecycleProvider<S extends WeaveLifecycleToken> {
+
+    /**
+     * Declare, ahead of processing, the scan this provider will perform. The declared requests of all providers
+     * participating in a stage are combined into a single scan, from which each provider's {@link Scanner} answers
+     * requests for the elements covered by its declaration; other requests are scanned as usual. The default
+     * implementation declares nothing.
+     *
+     * @param environment in which this provider will process
+     * @return {@link ScanRequest}, or {@code null} if not declared
+     * @since 2.1
+     */
+    default ScanRequest getScanRequest(final WeaveEnvironment environment) {
+        return null;
+    }
 }
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.spi;
+
+import org.apache.commons.weaver.WeaveMetrics;
+
+/**
+ * SPI to observe the progress of a weave or clean run, e.g. to report timings to a build tool. Listeners are discovered
+ * using the {@link java.util.ServiceLoader} mechanism, or may be added to a processor directly. As classes may be
+ * woven concurrently, implementations must be thread-safe.
+ * @since 2.1
+ */
+public interface WeaveListener {
+
+    /**
+     * Notification that a phase of the run has completed.
+     * @param phase name, one of the {@code PHASE_*} constants of {@link WeaveMetrics} or the class name of a weave
+     *            lifecycle provider
+     * @param nanos elapsed time in nanoseconds
+     */
+    default void phaseCompleted(final String phase, final long nanos) {
+    }
+
+    /**
+     * Notification that a class has been woven in a fused read-transform-write pass.
+     * @param className binary name of the class woven
+     * @param nanos elapsed time in nanoseconds
+     * @see ClassfileWeaver
+     */
+    default void classWoven(final String className, final long nanos) {
+    }
+
+    /**
+     * Notification that the run has completed successfully.
+     * @param metrics {@link WeaveMetrics} of the run
+     */
+    default void completed(final WeaveMetrics metrics) {
+    }
+}
@@ -52,4 +52,54 @@ public final class Args {
         }
         return -1;
     }
+
+    /**
+     * Compute a JVM method descriptor, e.g. {@code (ILjava/lang/String;)V}.
+     *
+     * @param returnType
+     *            of method, {@code void.class} for a constructor
+     * @param paramTypes
+     *            of method
+     * @return {@link String}
+     * @since 2.1
+     */
+    public static String descriptor(final Class<?> returnType, final Class<?>... paramTypes) {
+        final StringBuilder buf = new StringBuilder().append('(');
+        for (final Class<?> paramType : paramTypes) {
+            appendDescriptor(buf, paramType);
+        }
+        return appendDescriptor(buf.append(')'), returnType).toString();
+    }
+
+    private static StringBuilder appendDescriptor(final StringBuilder buf, final Class<?> type) {
+        Class<?> component = type;
+        while (component.isArray()) {
+            buf.append('[');
+            component = component.getComponentType();
+        }
+        if (!component.isPrimitive()) {
+            return buf.append('L').append(component.getName().replace('.', '/')).append(';');
+        }
+        final char code;
+        if (component == Integer.TYPE) {
+            code = 'I';
+        } else if (component == Void.TYPE) {
+            code = 'V';
+        } else if (component == Boolean.TYPE) {
+            code = 'Z';
+        } else if (component == Byte.TYPE) {
+            code = 'B';
+        } else if (component == Character.TYPE) {
+            code = 'C';
+        } else if (component == Short.TYPE) {
+            code = 'S';
+        } else if (component == Double.TYPE) {
+            code = 'D';
+        } else if (component == Float.TYPE) {
+            code = 'F';
+        } else {
+            code = 'J';
+        }
+        return buf.append(code);
+    }
 }
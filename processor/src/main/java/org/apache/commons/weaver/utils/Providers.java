@@ -19,12 +19,14 @@
 package org.apache.commons.weaver.utils;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -54,6 +56,52 @@ public final class Providers {
             Validate.noNullElements(providers);
 
             final Map<Class<? extends P>, Set<Class<? extends P>>> dependencyMap = toDependencyMap(providers);
+            return imposeOrder(providers, order(dependencyMap));
+        }
+
+        /**
+         * Implement {@link Providers#levels(Iterable)}.
+         *
+         * @param providers to group
+         * @return {@link List} of {@link List}s of {@code P}
+         */
+        List<List<P>> levels(final Iterable<P> providers) {
+            Validate.noNullElements(providers);
+
+            final Map<Class<? extends P>, Set<Class<? extends P>>> dependencyMap = toDependencyMap(providers);
+            final Collection<Class<? extends P>> order = order(dependencyMap);
+
+            // dependencies precede their dependents in order:
+            final Map<Class<? extends P>, Integer> levelMap = new HashMap<>();
+            for (final Class<? extends P> type : order) {
+                int level = 0;
+                for (final Class<? extends P> dependency : dependencyMap.get(type)) {
+                    level = Math.max(level, levelMap.get(dependency).intValue() + 1);
+                }
+                levelMap.put(type, Integer.valueOf(level));
+            }
+            final List<List<P>> result = new ArrayList<>();
+            for (final P provider : imposeOrder(providers, order)) {
+                final int level = levelMap.get(provider.getClass()).intValue();
+                while (result.size() <= level) {
+                    result.add(new ArrayList<>());
+                }
+                result.get(level).add(provider);
+            }
+            // levels occupied only by types produced for, but not among, the providers:
+            result.removeIf(List::isEmpty);
+            result.replaceAll(Collections::unmodifiableList);
+            return Collections.unmodifiableList(result);
+        }
+
+        /**
+         * Topologically order the types of the specified dependency map.
+         *
+         * @param dependencyMap {@link Map} of provider type to dependencies
+         * @return {@link Collection} of types, each preceded by its dependencies
+         */
+        private Collection<Class<? extends P>> order(
+            final Map<Class<? extends P>, Set<Class<? extends P>>> dependencyMap) {
 
             final Collection<Class<? extends P>> order = new LinkedHashSet<>();
 
@@ -69,7 +117,7 @@ public final class Providers {
                     Validate.validState(state != State.VISITING, "Unexpected node in visiting state: %s", type);
                 }
             }
-            return imposeOrder(providers, order);
+            return order;
         }
 
         /**
@@ -200,6 +248,21 @@ public final class Providers {
         return new SortWorker<P>().sort(providers);
     }
 
+    /**
+     * Group the specified providers into levels with respect to declared {@link Consumes} and {@link Produces}
+     * annotations: each provider's level follows those of all its dependencies, such that the providers of a single
+     * level are unconstrained with respect to one another and may be invoked concurrently. Within a level, providers
+     * keep the order imposed by {@link #sort(Iterable)}.
+     *
+     * @param <P> The {@link WeaveLifecycleProvider} type
+     * @param providers to group
+     * @return {@link List} of levels, each a non-empty {@link List} of {@code P}
+     * @since 2.1
+     */
+    public static <P extends WeaveLifecycleProvider<?>> List<List<P>> levels(final Iterable<P> providers) {
+        return new SortWorker<P>().levels(providers);
+    }
+
     private Providers() {
     }
 }
@@ -0,0 +1,305 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.utils;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Java Flight Recorder event spanning a phase of weaving, e.g. the scanning of a target or the transformation of a
+ * class, such that weaving can be profiled with a standard recording and correlated with GC and class loading.
+ * Events are of a single type, named {@value #NAME}, with fields {@code phase}, {@code subject} and {@code bytes}.
+ * <p>
+ * As commons-weaver targets Java 8, the event type is defined at runtime using the {@code jdk.jfr.EventFactory} API
+ * where available, i.e. on Java 11 and later or 8u262 and later. Where JFR is unavailable, or the event type is not
+ * enabled by a running recording, {@link #begin(String, String)} returns a shared inert instance and the streams
+ * passed to {@link #reading(String, InputStream)} and {@link #writing(String, OutputStream)} are returned as is.
+ * </p>
+ * <p>
+ * Typical usage:
+ * </p>
+ * <pre>
+ * try (WeaveEvent event = WeaveEvent.begin("privilizer.privilize", className)) {
+ *     ...
+ * }
+ * </pre>
+ * @since 2.1
+ */
+public final class WeaveEvent implements AutoCloseable {
+
+    /**
+     * Name of the JFR event type.
+     */
+    public static final String NAME = "org.apache.commons.weaver.Phase";
+
+    private static final int PHASE = 0;
+    private static final int SUBJECT = 1;
+    private static final int BYTES = 2;
+
+    private static final WeaveEvent NONE = new WeaveEvent(null);
+
+    private static final MethodHandle NEW_EVENT;
+    private static final MethodHandle IS_ENABLED;
+    private static final MethodHandle SET;
+    private static final MethodHandle BEGIN;
+    private static final MethodHandle END;
+    private static final MethodHandle COMMIT;
+
+    /**
+     * Event whose {@code isEnabled()} reports whether the event type is enabled; {@code null} without JFR.
+     */
+    private static final Object PROBE;
+
+    static {
+        MethodHandle newEvent = null;
+        MethodHandle isEnabled = null;
+        MethodHandle set = null;
+        MethodHandle begin = null;
+        MethodHandle end = null;
+        MethodHandle commit = null;
+        Object probe = null;
+        try {
+            final Class<?> eventType = Class.forName("jdk.jfr.Event");
+            final Object factory = createFactory();
+            final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            final MethodType onEvent = MethodType.methodType(void.class, Object.class);
+
+            newEvent = lookup.findVirtual(factory.getClass(), "newEvent", MethodType.methodType(eventType))
+                .bindTo(factory).asType(MethodType.methodType(Object.class));
+            isEnabled = lookup.findVirtual(eventType, "isEnabled", MethodType.methodType(boolean.class))
+                .asType(MethodType.methodType(boolean.class, Object.class));
+            set = lookup.findVirtual(eventType, "set", MethodType.methodType(void.class, int.class, Object.class))
+                .asType(MethodType.methodType(void.class, Object.class, int.class, Object.class));
+            begin = lookup.findVirtual(eventType, "begin", MethodType.methodType(void.class)).asType(onEvent);
+            end = lookup.findVirtual(eventType, "end", MethodType.methodType(void.class)).asType(onEvent);
+            commit = lookup.findVirtual(eventType, "commit", MethodType.methodType(void.class)).asType(onEvent);
+            probe = newEvent.invoke();
+        } catch (final Throwable t) { //NOPMD JFR is optional
+            probe = null;
+        }
+        NEW_EVENT = newEvent;
+        IS_ENABLED = isEnabled;
+        SET = set;
+        BEGIN = begin;
+        END = end;
+        COMMIT = commit;
+        PROBE = probe;
+    }
+
+    /**
+     * Define the event type.
+     * @return {@code jdk.jfr.EventFactory}
+     * @throws ReflectiveOperationException if JFR is unavailable
+     */
+    private static Object createFactory() throws ReflectiveOperationException {
+        final Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement");
+        final Constructor<?> newAnnotation = annotationElement.getConstructor(Class.class, Object.class);
+        final Class<?> label = Class.forName("jdk.jfr.Label");
+
+        final List<Object> annotations = Arrays.asList(
+            newAnnotation.newInstance(Class.forName("jdk.jfr.Name"), NAME),
+            newAnnotation.newInstance(label, "Weaver Phase"),
+            newAnnotation.newInstance(Class.forName("jdk.jfr.Category"), new String[] { "Commons Weaver" }),
+            newAnnotation.newInstance(Class.forName("jdk.jfr.Description"),
+                "A phase of weaving, e.g. scanning a target or transforming a class"));
+
+        final Constructor<?> newField =
+            Class.forName("jdk.jfr.ValueDescriptor").getConstructor(Class.class, String.class, List.class);
+
+        final Object[] fields = new Object[3];
+        fields[PHASE] = newField.newInstance(String.class, "phase",
+            Collections.singletonList(newAnnotation.newInstance(label, "Phase")));
+        fields[SUBJECT] = newField.newInstance(String.class, "subject",
+            Collections.singletonList(newAnnotation.newInstance(label, "Subject")));
+        fields[BYTES] = newField.newInstance(long.class, "bytes",
+            Arrays.asList(newAnnotation.newInstance(label, "Bytes"),
+                newAnnotation.newInstance(Class.forName("jdk.jfr.DataAmount"), "BYTES")));
+
+        return Class.forName("jdk.jfr.EventFactory").getMethod("create", List.class, List.class).invoke(null,
+            annotations, Arrays.asList(fields));
+    }
+
+    /**
+     * Learn whether {@link WeaveEvent}s are currently being recorded.
+     * @return {@code boolean}
+     */
+    public static boolean isEnabled() {
+        if (PROBE == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_ENABLED.invokeExact(PROBE);
+        } catch (final Throwable t) { //NOPMD JFR is optional
+            return false;
+        }
+    }
+
+    /**
+     * Begin a {@link WeaveEvent}, to be ended and committed by {@link #close()}.
+     * @param phase name, e.g. {@code "finder.scan"}
+     * @param subject of the phase, e.g. a class or resource name; may be {@code null}
+     * @return {@link WeaveEvent}
+     */
+    public static WeaveEvent begin(final String phase, final String subject) {
+        if (!isEnabled()) {
+            return NONE;
+        }
+        try {
+            final Object event = NEW_EVENT.invokeExact();
+            SET.invokeExact(event, PHASE, (Object) phase);
+            SET.invokeExact(event, SUBJECT, (Object) subject);
+            BEGIN.invokeExact(event);
+            return new WeaveEvent(event);
+        } catch (final Throwable t) { //NOPMD JFR is optional
+            return NONE;
+        }
+    }
+
+    /**
+     * Wrap the specified {@link InputStream} such that a {@link WeaveEvent} spans its consumption, recording the
+     * number of bytes read.
+     * @param resourceName subject of the event
+     * @param in to wrap; may be {@code null}
+     * @return {@link InputStream}, {@code in} itself if events are not being recorded
+     */
+    public static InputStream reading(final String resourceName, final InputStream in) {
+        if (in == null || !isEnabled()) {
+            return in;
+        }
+        final WeaveEvent event = begin("read", resourceName);
+        return new FilterInputStream(in) {
+            private long bytes;
+
+            @Override
+            public int read() throws IOException {
+                final int result = super.read();
+                if (result >= 0) {
+                    bytes++;
+                }
+                return result;
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                final int result = super.read(b, off, len);
+                if (result > 0) {
+                    bytes += result;
+                }
+                return result;
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    event.setBytes(bytes).close();
+                }
+            }
+        };
+    }
+
+    /**
+     * Wrap the specified {@link OutputStream} such that a {@link WeaveEvent} spans its use, recording the number of
+     * bytes written.
+     * @param resourceName subject of the event
+     * @param out to wrap
+     * @return {@link OutputStream}, {@code out} itself if events are not being recorded
+     */
+    public static OutputStream writing(final String resourceName, final OutputStream out) {
+        if (!isEnabled()) {
+            return out;
+        }
+        final WeaveEvent event = begin("write", resourceName);
+        return new FilterOutputStream(out) {
+            private long bytes;
+
+            @Override
+            public void write(final int b) throws IOException {
+                out.write(b);
+                bytes++;
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) throws IOException {
+                out.write(b, off, len);
+                bytes += len;
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    event.setBytes(bytes).close();
+                }
+            }
+        };
+    }
+
+    private final Object event;
+    private boolean closed;
+
+    private WeaveEvent(final Object event) {
+        this.event = event;
+    }
+
+    /**
+     * Set the number of bytes processed in the phase spanned by this {@link WeaveEvent}.
+     * @param bytes count
+     * @return {@code this}, fluently
+     */
+    public WeaveEvent setBytes(final long bytes) {
+        if (event != null) {
+            try {
+                SET.invokeExact(event, BYTES, (Object) Long.valueOf(bytes));
+            } catch (final Throwable t) { //NOPMD JFR is optional
+                // ignore
+            }
+        }
+        return this;
+    }
+
+    /**
+     * End and commit this {@link WeaveEvent}. Subsequent calls have no effect.
+     */
+    @Override
+    public void close() {
+        if (event == null || closed) {
+            return;
+        }
+        closed = true;
+        try {
+            END.invokeExact(event);
+            COMMIT.invokeExact(event);
+        } catch (final Throwable t) { //NOPMD JFR is optional
+            // ignore
+        }
+    }
+}
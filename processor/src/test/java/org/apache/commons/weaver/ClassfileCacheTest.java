@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Properties;
+
+import org.apache.commons.weaver.spi.Weaver;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ClassfileCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static byte[] classfile(final Class<?> type) throws IOException {
+        try (InputStream bytecode = type.getResourceAsStream(type.getSimpleName() + ".class")) {
+            return ScanIndex.readFully(bytecode);
+        }
+    }
+
+    private static int read(final ClassfileCache cache, final String resourceName, final int length)
+        throws IOException {
+        try (InputStream content = cache.get(resourceName, () -> new byte[length])) {
+            return ScanIndex.readFully(content).length;
+        }
+    }
+
+    @Test
+    public void testHitsAndMisses() throws IOException {
+        final ClassfileCache cache = new ClassfileCache(100);
+        assertEquals(10, read(cache, "a.class", 10));
+        assertEquals(10, read(cache, "a.class", 20));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertNull(cache.get("b.class", () -> null));
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testEviction() throws IOException {
+        final ClassfileCache cache = new ClassfileCache(100);
+        read(cache, "a.class", 40);
+        read(cache, "b.class", 40);
+        // touch a, such that b is the least recently used:
+        read(cache, "a.class", 40);
+        read(cache, "c.class", 40);
+        assertEquals(80, cache.getSize());
+
+        assertEquals(40, read(cache, "a.class", 0));
+        assertEquals(0, read(cache, "b.class", 0));
+
+        // too large to cache at all:
+        read(cache, "d.class", 101);
+        assertEquals(0, read(cache, "d.class", 0));
+    }
+
+    @Test
+    public void testInvalidate() throws IOException {
+        final ClassfileCache cache = new ClassfileCache(100);
+        read(cache, "a.class", 10);
+        cache.invalidate("a.class");
+        assertEquals(0, cache.getSize());
+        assertEquals(20, read(cache, "a.class", 20));
+
+        // content loaded across an invalidation is not cached:
+        try (InputStream content = cache.get("b.class", () -> {
+            cache.invalidate("b.class");
+            return new byte[30];
+        })) {
+            assertEquals(30, ScanIndex.readFully(content).length);
+        }
+        assertEquals(0, read(cache, "b.class", 0));
+    }
+
+    @Test
+    public void testReadDuringWrite() throws IOException {
+        final String resourceName = ClassfileCacheTest.class.getName().replace('.', '/') + ".class";
+        final byte[] original = classfile(ClassfileCacheTest.class);
+        final byte[] modified = classfile(ClassfileCache.class);
+        final File target = temporaryFolder.newFolder();
+        final File file = new File(target, resourceName);
+        assertTrue(file.getParentFile().mkdirs());
+        Files.write(file.toPath(), original);
+
+        final Properties config = new Properties();
+        config.setProperty(ProcessorBase.CONFIG_CLASSFILE_CACHE_SIZE, "1000000");
+        final Weaver weaver = (env, scanner) -> {
+            try {
+                try (InputStream content = env.getResource(resourceName).getInputStream()) {
+                    assertArrayEquals(original, ScanIndex.readFully(content));
+                }
+                try (OutputStream out = env.getResource(resourceName).getOutputStream()) {
+                    // the file is truncated upon opening; read it mid-write:
+                    try (InputStream content = env.getResource(resourceName).getInputStream()) {
+                        ScanIndex.readFully(content);
+                    }
+                    out.write(modified);
+                }
+                try (InputStream content = env.getResource(resourceName).getInputStream()) {
+                    assertArrayEquals(modified, ScanIndex.readFully(content));
+                }
+            } catch (final IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return true;
+        };
+        try (WeaveProcessor processor =
+            new WeaveProcessor(Collections.emptyList(), target, config, Collections.singletonList(weaver))) {
+            processor.weave();
+        }
+    }
+}
@@ -25,25 +25,58 @@ import static org.apache.commons.weaver.test.beans.ComplexAnnotations.Stooge.SHE
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang3.Validate;
+import org.apache.commons.weaver.model.BytecodeAnnotation;
+import org.apache.commons.weaver.model.BytecodeClass;
+import org.apache.commons.weaver.model.BytecodeMethod;
+import org.apache.commons.weaver.model.BytecodeScanResult;
+import org.apache.commons.weaver.model.BytecodeScanner;
+import org.apache.commons.weaver.model.ScanRequest;
+import org.apache.commons.weaver.model.ScanResult;
+import org.apache.commons.weaver.model.Scanner;
+import org.apache.commons.weaver.model.Weavable;
+import org.apache.commons.weaver.model.WeavableClass;
+import org.apache.commons.weaver.model.WeavableConstructor;
+import org.apache.commons.weaver.model.WeavableMethod;
+import org.apache.commons.weaver.model.WeaveInterest;
 import org.apache.commons.weaver.test.WeaverTestBase;
 import org.apache.commons.weaver.test.beans.AbstractTestBean;
+import org.apache.commons.weaver.test.beans.ClassfileAnnotations;
+import org.apache.commons.weaver.test.beans.ClassfileAnnotations.Marker;
 import org.apache.commons.weaver.test.beans.ComplexAnnotations;
 import org.apache.commons.weaver.test.beans.ComplexAnnotations.NestAnnotation;
 import org.apache.commons.weaver.test.beans.ComplexAnnotations.Stooge;
@@ -53,6 +86,7 @@ import org.apache.commons.weaver.test.beans.TestBeanWithClassAnnotation;
 import org.apache.commons.weaver.test.beans.TestBeanWithMethodAnnotation;
 import org.apache.commons.weaver.utils.URLArray;
 import org.apache.xbean.finder.Annotated;
+import org.apache.xbean.finder.archive.Archive;
 import org.apache.xbean.finder.archive.FileArchive;
 import org.hamcrest.Matchers;
 import org.junit.Test;
@@ -254,6 +288,79 @@ public class FinderTest extends WeaverTestBase {
         assertArrayEquals(new Class[] { Object.class }, anno2.types());
     }
 
+    @Test
+    public void testClassfileAnnotationsByElement() throws Exception {
+        addClassForScanning(ClassfileAnnotations.class);
+
+        final ScanResult scanResult = finder().scan(new ScanRequest()
+            .add(WeaveInterest.of(Marker.class, ElementType.TYPE))
+            .add(WeaveInterest.of(Marker.class, ElementType.FIELD))
+            .add(WeaveInterest.of(Marker.class, ElementType.CONSTRUCTOR))
+            .add(WeaveInterest.of(Marker.class, ElementType.METHOD))
+            .add(WeaveInterest.of(Marker.class, ElementType.PARAMETER)));
+
+        assertEquals("type", scanResult.getWeavable(ClassfileAnnotations.class).getAnnotation(Marker.class).value());
+        assertEquals("field",
+            scanResult.getWeavable(ClassfileAnnotations.class.getField("field")).getAnnotation(Marker.class).value());
+
+        final WeavableConstructor<ClassfileAnnotations> ctor =
+            scanResult.getWeavable(ClassfileAnnotations.class.getConstructor(String.class));
+        assertEquals("constructor", ctor.getAnnotation(Marker.class).value());
+        assertEquals("constructor parameter", ctor.getWeavableParameter(0).getAnnotation(Marker.class).value());
+
+        final WeavableConstructor<ClassfileAnnotations> overloadedCtor =
+            scanResult.getWeavable(ClassfileAnnotations.class.getConstructor(String.class, int.class));
+        assertNull(overloadedCtor.getAnnotation(Marker.class));
+        assertNull(overloadedCtor.getWeavableParameter(0).getAnnotation(Marker.class));
+        assertEquals("overloaded constructor parameter",
+            overloadedCtor.getWeavableParameter(1).getAnnotation(Marker.class).value());
+
+        final WeavableMethod<?> methd =
+            scanResult.getWeavable(ClassfileAnnotations.class.getMethod("method", String.class, String.class));
+        assertEquals("method", methd.getAnnotation(Marker.class).value());
+        assertNull(methd.getWeavableParameter(0).getAnnotation(Marker.class));
+        assertEquals("method parameter", methd.getWeavableParameter(1).getAnnotation(Marker.class).value());
+
+        final WeavableMethod<?> overloadedMethod =
+            scanResult.getWeavable(ClassfileAnnotations.class.getMethod("method", int.class));
+        assertNull(overloadedMethod.getAnnotation(Marker.class));
+        assertEquals("overloaded method parameter",
+            overloadedMethod.getWeavableParameter(0).getAnnotation(Marker.class).value());
+    }
+
+    @Test
+    public void testBytecodeScan() throws Exception {
+        addClassForScanning(ClassfileAnnotations.class);
+        addClassForScanning(ComplexAnnotations.class);
+
+        final BytecodeScanResult scanResult = finder().scanBytecode(new ScanRequest()
+            .add(WeaveInterest.of(Marker.class, ElementType.TYPE))
+            .add(WeaveInterest.of(TestAnnotation.class, ElementType.FIELD)));
+
+        final BytecodeClass classfileAnnotations = scanResult.getType(ClassfileAnnotations.class.getName());
+        assertEquals("type", classfileAnnotations.getAnnotation(Marker.class).getValue("value"));
+        assertFalse(classfileAnnotations.getAnnotation(Marker.class).isVisible());
+        for (final BytecodeMethod method : classfileAnnotations.getMethods()) {
+            if ("method".equals(method.getName()) && "(I)V".equals(method.getDescriptor())) {
+                assertEquals("overloaded method parameter",
+                    method.getParameterAnnotations(0).get(0).getValue("value"));
+            }
+        }
+        final BytecodeClass complexAnnotations = scanResult.getType(ComplexAnnotations.class.getName());
+        final BytecodeAnnotation anno = complexAnnotations.getFields().get(1).getAnnotation(TestAnnotation.class);
+        assertEquals(new BytecodeAnnotation.EnumConstant(Stooge.class.getName(), SHEMP.name()),
+            anno.getValue("stooge"));
+        assertEquals(Arrays.asList(new BytecodeAnnotation.EnumConstant(Stooge.class.getName(), MOE.name()),
+            new BytecodeAnnotation.EnumConstant(Stooge.class.getName(), LARRY.name()),
+            new BytecodeAnnotation.EnumConstant(Stooge.class.getName(), CURLY.name())), anno.getValue("stooges"));
+        assertEquals(new BytecodeAnnotation.ClassLiteral("Ljava/lang/Object;"), anno.getValue("type"));
+        final List<?> nests = (List<?>) anno.getValue("nests");
+        assertEquals(2, nests.size());
+        assertEquals(new BytecodeAnnotation.ClassLiteral("[Ljava/lang/Object;"),
+            ((BytecodeAnnotation) nests.get(1)).getValue("type"));
+        assertEquals(NestAnnotation.class.getName(), ((BytecodeAnnotation) anno.getValue("nest")).getType());
+    }
+
     @Test
     public void testObjectMethods() throws IOException {
         addClassForScanning(ComplexAnnotations.class);
@@ -301,6 +408,422 @@ public class FinderTest extends WeaverTestBase {
             AbstractTestBean.class, TestBeanWithClassAnnotation.class, TestBeanWithMethodAnnotation.class));
     }
 
+    @Test
+    public void testParallelScan() throws IOException {
+        addClassForScanning(ComplexAnnotations.class);
+        addClassForScanning(TestBeanInterface.class);
+        addClassForScanning(AbstractTestBean.class);
+        addClassForScanning(TestBeanWithClassAnnotation.class);
+        addClassForScanning(TestBeanWithMethodAnnotation.class);
+
+        final ClassLoader classLoader = new URLClassLoader(URLArray.fromPaths(getClassPathEntries()));
+        final Finder sequential = new Finder(new FileArchive(classLoader, getTargetFolder()));
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // classfiles are read lazily, so keep the pool alive until all have been scanned:
+            final Finder parallel = new Finder(new FileArchive(classLoader, getTargetFolder()), pool);
+            assertEquals(describe(sequential.scan(new ScanRequest())), describe(parallel.scan(new ScanRequest())));
+
+            assertThat(extract(parallel.withAnnotations().getAllClasses()), Matchers.<Class<?>> containsInAnyOrder(
+                extract(sequential.withAnnotations().getAllClasses()).toArray(new Class<?>[0])));
+            assertEquals(describe(sequential.withAnnotations().findAnnotatedFields(TestAnnotation.class)),
+                describe(parallel.withAnnotations().findAnnotatedFields(TestAnnotation.class)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testIndexedScan() throws IOException {
+        addClassForScanning(ComplexAnnotations.class);
+        addClassForScanning(TestBeanInterface.class);
+        addClassForScanning(AbstractTestBean.class);
+        addClassForScanning(TestBeanWithClassAnnotation.class);
+        addClassForScanning(TestBeanWithMethodAnnotation.class);
+
+        final ClassLoader classLoader = new URLClassLoader(URLArray.fromPaths(getClassPathEntries()));
+        final File indexFile = new File(temporaryFolder.getRoot(), "scan.idx");
+
+        final ScanIndex initial = ScanIndex.load(indexFile, getTargetFolder());
+        final Finder unindexed = new Finder(initial.index(new FileArchive(classLoader, getTargetFolder())));
+        initial.store();
+        assertEquals(0, initial.getReused());
+        assertTrue(initial.getRead() > 0);
+
+        final ScanIndex subsequent = ScanIndex.load(indexFile, getTargetFolder());
+        final Finder indexed = new Finder(subsequent.index(new FileArchive(classLoader, getTargetFolder())));
+        assertEquals(initial.getRead(), subsequent.getReused());
+        assertEquals(0, subsequent.getRead());
+
+        assertEquals(describe(unindexed.scan(new ScanRequest())), describe(indexed.scan(new ScanRequest())));
+        assertEquals(describe(unindexed.withAnnotations().findAnnotatedFields(TestAnnotation.class)),
+            describe(indexed.withAnnotations().findAnnotatedFields(TestAnnotation.class)));
+
+        // classfiles read in full after their survey are neither looked up nor counted again:
+        final long classfiles;
+        try (Stream<Path> files = Files.walk(getTargetFolder().toPath())) {
+            classfiles = files.filter(file -> file.toString().endsWith(".class")).count();
+        }
+        assertEquals(0, initial.getReused());
+        assertEquals(classfiles, initial.getRead());
+        assertEquals(classfiles, subsequent.getReused());
+        assertEquals(0, subsequent.getRead());
+    }
+
+    @Test
+    public void testConstantPoolPrefilter() throws IOException {
+        addClassForScanning(ClassfileAnnotations.class);
+        addClassForScanning(ComplexAnnotations.class);
+        addClassForScanning(TestBeanWithClassAnnotation.class);
+
+        final ClassLoader classLoader = new URLClassLoader(URLArray.fromPaths(getClassPathEntries()));
+        final Archive archive = new FileArchive(classLoader, getTargetFolder());
+        final Map<String, Integer> reads = new ConcurrentHashMap<>();
+
+        final Finder finder = new Finder(new Archive() {
+
+            @Override
+            public InputStream getBytecode(final String className) throws IOException, ClassNotFoundException {
+                return archive.getBytecode(className);
+            }
+
+            @Override
+            public Class<?> loadClass(final String className) throws ClassNotFoundException {
+                return archive.loadClass(className);
+            }
+
+            @Override
+            public Iterator<Entry> iterator() {
+                final List<Entry> entries = new ArrayList<>();
+                for (final Entry entry : archive) {
+                    entries.add(new Entry() {
+
+                        @Override
+                        public String getName() {
+                            return entry.getName();
+                        }
+
+                        @Override
+                        public InputStream getBytecode() throws IOException {
+                            reads.merge(entry.getName(), 1, Integer::sum);
+                            return entry.getBytecode();
+                        }
+                    });
+                }
+                return entries.iterator();
+            }
+        });
+        // each classfile surveyed once:
+        assertTrue(reads.values().stream().allMatch(Integer.valueOf(1)::equals));
+
+        final ScanResult scanResult =
+            finder.scan(new ScanRequest().add(WeaveInterest.of(Marker.class, ElementType.TYPE)));
+        assertEquals("type", scanResult.getWeavable(ClassfileAnnotations.class).getAnnotation(Marker.class).value());
+
+        // the classfile referencing the requested annotation read in full from the content retained by its survey:
+        assertTrue(reads.values().stream().allMatch(Integer.valueOf(1)::equals));
+    }
+
+    @Test
+    public void testMemoizedScan() throws IOException {
+        addClassForScanning(ClassfileAnnotations.class);
+        addClassForScanning(ComplexAnnotations.class);
+
+        final Finder finder = finder();
+        final ScanResult scanResult =
+            finder.scan(new ScanRequest().add(WeaveInterest.of(Marker.class, ElementType.TYPE))
+                .add(WeaveInterest.of(Marker.class, ElementType.FIELD)));
+        assertSame(scanResult, finder.scan(new ScanRequest().add(WeaveInterest.of(Marker.class, ElementType.FIELD))
+            .add(WeaveInterest.of(Marker.class, ElementType.TYPE))));
+
+        final List<Annotated<Field>> fields = finder.withAnnotations().findAnnotatedFields(TestAnnotation.class);
+        assertEquals(fields, finder.withAnnotations().findAnnotatedFields(TestAnnotation.class));
+        final List<Annotated<Field>> marked = finder.withAnnotations().findAnnotatedFields(Marker.class);
+        assertSame(marked.get(0), finder.withAnnotations().findAnnotatedFields(Marker.class).get(0));
+
+        // modification of an unrelated resource:
+        finder.modified("META-INF/MANIFEST.MF");
+        assertSame(scanResult, finder.scan(new ScanRequest().add(WeaveInterest.of(Marker.class, ElementType.TYPE))
+            .add(WeaveInterest.of(Marker.class, ElementType.FIELD))));
+
+        finder.modified(ClassfileAnnotations.class.getName().replace('.', '/') + ".class");
+        assertFalse(scanResult == finder.scan(new ScanRequest().add(WeaveInterest.of(Marker.class, ElementType.TYPE))
+            .add(WeaveInterest.of(Marker.class, ElementType.FIELD))));
+        // wrappers of elements of other classfiles retained:
+        assertEquals(fields, finder.withAnnotations().findAnnotatedFields(TestAnnotation.class));
+        assertSame(fields.get(0), finder.withAnnotations().findAnnotatedFields(TestAnnotation.class).get(0));
+        assertNotSame(marked.get(0), finder.withAnnotations().findAnnotatedFields(Marker.class).get(0));
+    }
+
+    @Test
+    public void testAnnotationIndex() throws IOException {
+        addClassForScanning(ClassfileAnnotations.class);
+        addClassForScanning(ComplexAnnotations.class);
+
+        final ScanRequest request = new ScanRequest().add(WeaveInterest.of(TestAnnotation.class, ElementType.FIELD));
+        for (final ElementType target : Arrays.asList(ElementType.TYPE, ElementType.FIELD, ElementType.CONSTRUCTOR,
+            ElementType.METHOD, ElementType.PARAMETER)) {
+            request.add(WeaveInterest.of(Marker.class, target));
+        }
+        final ScanResult scanResult = finder().scan(request);
+        assertEquals(filter(scanResult.getClasses(), Marker.class), list(scanResult.getClasses().with(Marker.class)));
+        assertEquals(filter(scanResult.getFields(), TestAnnotation.class),
+            list(scanResult.getFields().with(TestAnnotation.class)));
+        assertEquals(filter(scanResult.getMethods(), Marker.class), list(scanResult.getMethods().with(Marker.class)));
+        assertEquals(2, list(scanResult.getMethodParameters().with(Marker.class)).size());
+        assertEquals(filter(scanResult.getMethodParameters(), Marker.class),
+            list(scanResult.getMethodParameters().with(Marker.class)));
+        assertEquals(filter(scanResult.getConstructorParameters(), Marker.class),
+            list(scanResult.getConstructorParameters().with(Marker.class)));
+        assertTrue(list(scanResult.getClassesAssignableTo(TestBeanInterface.class).with(Marker.class)).isEmpty());
+
+        // annotations added after scanning are indexed:
+        final WeavableMethod<?> methd = scanResult.getMethods().iterator().next();
+        assertTrue(methd.addAnnotations(scanResult.getFields().with(TestAnnotation.class).iterator().next()
+            .getAnnotation(TestAnnotation.class)));
+        assertTrue(list(scanResult.getMethods().with(TestAnnotation.class)).contains(methd));
+
+        // executables indexed under reflective annotations on construction:
+        final ScanResult threads = new ScanResult();
+        for (final Method method : Thread.class.getDeclaredMethods()) {
+            threads.getWeavable(method);
+        }
+        assertTrue(list(threads.getMethods().with(Deprecated.class)).size() > 1);
+    }
+
+    @Test
+    public void testStreams() throws IOException {
+        addClassForScanning(ClassfileAnnotations.class);
+        addClassForScanning(ComplexAnnotations.class);
+        addClassForScanning(TestBeanWithClassAnnotation.class);
+        addClassForScanning(TestBeanWithMethodAnnotation.class);
+
+        final ScanResult scanResult = finder().scan(new ScanRequest()
+            .add(WeaveInterest.of(Marker.class, ElementType.PARAMETER))
+            .add(WeaveInterest.of(TestAnnotation.class, ElementType.FIELD)));
+
+        assertEquals(list(scanResult.getClasses()), scanResult.getClasses().stream().collect(Collectors.toList()));
+        assertEquals(list(scanResult.getClasses()),
+            scanResult.getClasses().parallelStream().collect(Collectors.toList()));
+        assertEquals(list(scanResult.getMethodParameters()),
+            scanResult.getMethodParameters().parallelStream().collect(Collectors.toList()));
+        assertEquals(list(scanResult.getFields().with(TestAnnotation.class)),
+            scanResult.getFields().with(TestAnnotation.class).parallelStream().collect(Collectors.toList()));
+        assertEquals(list(scanResult.getClassesAssignableTo(Object.class)),
+            scanResult.getClassesAssignableTo(Object.class).stream().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testSpliterators() throws IOException {
+        addClassForScanning(ClassfileAnnotations.class);
+        addClassForScanning(ComplexAnnotations.class);
+        addClassForScanning(TestBeanWithClassAnnotation.class);
+        addClassForScanning(TestBeanWithMethodAnnotation.class);
+
+        final ScanResult scanResult = finder().scan(new ScanRequest()
+            .add(WeaveInterest.of(Marker.class, ElementType.PARAMETER))
+            .add(WeaveInterest.of(TestAnnotation.class, ElementType.FIELD)));
+
+        assertSizedAndSplittable(scanResult.getClasses());
+        assertSizedAndSplittable(scanResult.getFields());
+        assertSizedAndSplittable(scanResult.getMethodParameters());
+
+        final Spliterator<WeavableClass<?>> assignable = scanResult.getClassesAssignableTo(Object.class).spliterator();
+        assertFalse(assignable.hasCharacteristics(Spliterator.SIZED));
+        assertNotNull(assignable.trySplit());
+    }
+
+    private static <T> void assertSizedAndSplittable(final Iterable<T> iterable) {
+        final List<T> expected = list(iterable);
+        assertTrue(expected.size() > 1);
+
+        final Spliterator<T> suffix = iterable.spliterator();
+        assertTrue(suffix.hasCharacteristics(Spliterator.SIZED));
+        assertTrue(suffix.hasCharacteristics(Spliterator.SUBSIZED));
+        assertEquals(expected.size(), suffix.getExactSizeIfKnown());
+
+        final Spliterator<T> prefix = suffix.trySplit();
+        assertNotNull(prefix);
+        assertTrue(prefix.hasCharacteristics(Spliterator.SIZED));
+        assertEquals(expected.size(), prefix.getExactSizeIfKnown() + suffix.getExactSizeIfKnown());
+
+        final List<T> actual = new ArrayList<>();
+        prefix.forEachRemaining(actual::add);
+        suffix.forEachRemaining(actual::add);
+        assertEquals(expected, actual);
+    }
+
+    private static <T> List<T> list(final Iterable<T> iterable) {
+        final List<T> result = new ArrayList<>();
+        iterable.forEach(result::add);
+        return result;
+    }
+
+    private static <T extends AnnotatedElement> List<T> filter(final Iterable<T> iterable,
+        final Class<? extends Annotation> annotationType) {
+        final List<T> result = new ArrayList<>();
+        for (final T element : iterable) {
+            if (element.isAnnotationPresent(annotationType)) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void testReindex() throws IOException {
+        addClassForScanning(ClassfileAnnotations.class);
+
+        // resolve classfiles from the target folder alone:
+        final ClassLoader classLoader = new URLClassLoader(
+            URLArray.fromPaths(Collections.singleton(getTargetFolder().getAbsolutePath())), null);
+        final Finder finder = new Finder(new FileArchive(classLoader, getTargetFolder()));
+        final ScanRequest request = new ScanRequest().add(WeaveInterest.of(Marker.class, ElementType.TYPE))
+            .add(WeaveInterest.of(TestAnnotation.class, ElementType.FIELD));
+        assertNull(finder.scanBytecode(request).getType(ComplexAnnotations.class.getName()));
+        assertEquals(0, finder.reindex());
+
+        // classfile added:
+        addClassForScanning(ComplexAnnotations.class);
+        finder.modified(ComplexAnnotations.class.getName().replace('.', '/') + ".class");
+        assertEquals(1, finder.reindex());
+        assertTrue(finder.scanBytecode(request).getType(ComplexAnnotations.class.getName()) != null);
+
+        // classfile deleted:
+        final String resourceName = ClassfileAnnotations.class.getName().replace('.', '/') + ".class";
+        assertTrue(new File(getTargetFolder(), resourceName).delete());
+        finder.modified(resourceName);
+        assertEquals(1, finder.reindex());
+        final BytecodeScanResult scanResult = finder.scanBytecode(request);
+        assertNull(scanResult.getType(ClassfileAnnotations.class.getName()));
+        assertTrue(scanResult.getType(ComplexAnnotations.class.getName()) != null);
+    }
+
+    @Test
+    public void testReindexExcludesLinkedClasses() throws IOException {
+        addClassForScanning(TestBeanWithClassAnnotation.class);
+
+        final Finder finder = finder();
+        // reading all classfiles links their class hierarchy, including AbstractTestBean and TestBeanInterface,
+        // which are found on the classpath rather than in the target folder:
+        assertEquals(Collections.singletonList(TestBeanWithClassAnnotation.class),
+            extract(finder.withAnnotations().getAllClasses()));
+
+        finder.modified(TestBeanWithClassAnnotation.class.getName().replace('.', '/') + ".class");
+        assertEquals(1, finder.reindex());
+        assertEquals(Collections.singletonList(TestBeanWithClassAnnotation.class),
+            extract(finder.withAnnotations().getAllClasses()));
+    }
+
+    @Test
+    public void testUnionScan() throws IOException {
+        addClassForScanning(ClassfileAnnotations.class);
+        addClassForScanning(ComplexAnnotations.class);
+        addClassForScanning(TestBeanInterface.class);
+        addClassForScanning(AbstractTestBean.class);
+        addClassForScanning(TestBeanWithClassAnnotation.class);
+        addClassForScanning(TestBeanWithMethodAnnotation.class);
+
+        final ScanRequest markers = new ScanRequest().add(WeaveInterest.of(Marker.class, ElementType.TYPE))
+            .add(WeaveInterest.of(Marker.class, ElementType.PARAMETER));
+        final ScanRequest beans = new ScanRequest().add(WeaveInterest.of(TestAnnotation.class, ElementType.FIELD))
+            .addSupertypes(TestBeanInterface.class);
+
+        final Map<String, ScanRequest> declared = new LinkedHashMap<>();
+        declared.put("markers", markers);
+        declared.put("beans", beans);
+
+        final Finder finder = finder();
+        final ScanPlan plan = new ScanPlan(finder, declared);
+        assertSame(finder, plan.scannerFor("undeclared"));
+
+        final Scanner scanner = plan.scannerFor("beans");
+        assertTrue(scanner instanceof BytecodeScanner);
+
+        final Finder reference = finder();
+        for (final ScanRequest request : Arrays.asList(markers, beans,
+            new ScanRequest().add(WeaveInterest.of(Marker.class, ElementType.PARAMETER)),
+            new ScanRequest().add(WeaveInterest.of(Marker.class, ElementType.METHOD)))) {
+            assertEquals(describe(reference.scan(request)), describe(scanner.scan(request)));
+            assertEquals(reference.scanBytecode(request).getClasses().toString(),
+                ((BytecodeScanner) scanner).scanBytecode(request).getClasses().toString());
+        }
+    }
+
+    @Test
+    public void testUnionScanWithUnconstrainedDeclaration() throws IOException {
+        addClassForScanning(ClassfileAnnotations.class);
+        addClassForScanning(ComplexAnnotations.class);
+        addClassForScanning(TestBeanInterface.class);
+        addClassForScanning(AbstractTestBean.class);
+        addClassForScanning(TestBeanWithClassAnnotation.class);
+        addClassForScanning(TestBeanWithMethodAnnotation.class);
+
+        final ScanRequest markers = new ScanRequest().add(WeaveInterest.of(Marker.class, ElementType.TYPE));
+        final ScanRequest everything = new ScanRequest();
+        final ScanRequest objects = new ScanRequest().addSupertypes(Object.class);
+
+        final Map<String, ScanRequest> declared = new LinkedHashMap<>();
+        declared.put("markers", markers);
+        declared.put("everything", everything);
+        declared.put("objects", objects);
+
+        final Scanner scanner = new ScanPlan(finder(), declared).scannerFor("markers");
+        final Finder reference = finder();
+        // covered, unconstrained, and constrained but not covered:
+        for (final ScanRequest request : Arrays.asList(markers, everything, objects,
+            new ScanRequest().add(WeaveInterest.of(TestAnnotation.class, ElementType.FIELD)),
+            new ScanRequest().addSupertypes(TestBeanInterface.class))) {
+            assertEquals(describe(reference.scan(request)), describe(scanner.scan(request)));
+            assertEquals(reference.scanBytecode(request).getClasses().toString(),
+                ((BytecodeScanner) scanner).scanBytecode(request).getClasses().toString());
+        }
+        assertFalse(describe(scanner.scan(new ScanRequest().add(WeaveInterest.of(TestAnnotation.class,
+            ElementType.FIELD)))).isEmpty());
+    }
+
+    @Test
+    public void testUnionScanWithOnlyUnconstrainedDeclarations() throws IOException {
+        addClassForScanning(ClassfileAnnotations.class);
+        addClassForScanning(TestBeanWithClassAnnotation.class);
+
+        final Scanner scanner =
+            new ScanPlan(finder(), Collections.singletonMap("everything", new ScanRequest())).scannerFor("everything");
+        final Finder reference = finder();
+        for (final ScanRequest request : Arrays.asList(new ScanRequest(),
+            new ScanRequest().add(WeaveInterest.of(Marker.class, ElementType.TYPE)))) {
+            assertEquals(describe(reference.scan(request)), describe(scanner.scan(request)));
+            assertEquals(reference.scanBytecode(request).getClasses().toString(),
+                ((BytecodeScanner) scanner).scanBytecode(request).getClasses().toString());
+        }
+    }
+
+    private List<String> describe(final ScanResult scanResult) {
+        final List<String> result = new ArrayList<String>();
+        describe(result, scanResult.getPackages());
+        describe(result, scanResult.getClasses());
+        describe(result, scanResult.getFields());
+        describe(result, scanResult.getConstructors());
+        describe(result, scanResult.getMethods());
+        describe(result, scanResult.getConstructorParameters());
+        describe(result, scanResult.getMethodParameters());
+        return result;
+    }
+
+    private void describe(final List<String> target, final Iterable<? extends Weavable<?, ?>> weavables) {
+        for (final Weavable<?, ?> weavable : weavables) {
+            target.add(weavable + " " + new HashSet<Object>(Arrays.asList(weavable.getAnnotations())));
+        }
+    }
+
+    private Set<String> describe(final List<Annotated<Field>> fields) {
+        final Set<String> result = new HashSet<String>();
+        for (final Annotated<Field> field : fields) {
+            result.add(field.get() + " " + new HashSet<Object>(Arrays.asList(field.getAnnotations())));
+        }
+        return result;
+    }
+
     private List<Class<?>> extract(final List<Annotated<Class<?>>> input) {
         Validate.noNullElements(input);
         if (input.isEmpty()) {
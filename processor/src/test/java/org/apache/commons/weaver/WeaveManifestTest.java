@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class WeaveManifestTest {
+
+    @Test
+    public void testUnitOf() {
+        assertEquals("pkg/Outer", WeaveManifest.unitOf("pkg/Outer.class"));
+        assertEquals("pkg/Outer", WeaveManifest.unitOf("pkg/Outer$1.class"));
+        assertEquals("pkg/Outer", WeaveManifest.unitOf("pkg/Outer$Inner$Nested.class"));
+        assertEquals("Outer", WeaveManifest.unitOf("Outer$Inner.class"));
+        assertEquals("META-INF/services/x", WeaveManifest.unitOf("META-INF/services/x"));
+    }
+
+    @Test
+    public void testUnitOfGeneratedClass() {
+        assertEquals("pkg/$normalized0", WeaveManifest.unitOf("pkg/$normalized0.class"));
+        assertEquals("pkg/$normalized_1", WeaveManifest.unitOf("pkg/$normalized_1.class"));
+        assertEquals("$generated", WeaveManifest.unitOf("$generated.class"));
+        assertEquals("pkg/$generated", WeaveManifest.unitOf("pkg/$generated$Inner.class"));
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ScanResultTest {
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Indexed {
+    }
+
+    @Indexed
+    static class Bean {
+        @Indexed
+        String field;
+    }
+
+    private static <T> List<T> list(final Iterable<T> iterable) {
+        final List<T> result = new ArrayList<>();
+        iterable.forEach(result::add);
+        return result;
+    }
+
+    @Test
+    public void testOnlyRegisteredWeavablesIndexed() throws NoSuchFieldException {
+        final ScanResult scanResult = new ScanResult();
+        final WeavablePackage pkg = scanResult.getWeavable(Bean.class.getPackage());
+
+        // as if created by a thread losing the race to register a weavable for the same class:
+        final WeavableClass<Bean> orphan = new WeavableClass<>(Bean.class, pkg);
+        new WeavableField<>(Bean.class.getDeclaredField("field"), orphan);
+
+        final WeavableClass<Bean> registered = scanResult.getWeavable(Bean.class);
+        assertNotSame(orphan, registered);
+        final List<WeavableClass<?>> classes = list(scanResult.getClasses().with(Indexed.class));
+        assertEquals(1, classes.size());
+        assertSame(registered, classes.get(0));
+
+        final WeavableField<?> field = scanResult.getWeavable(Bean.class.getDeclaredField("field"));
+        final List<WeavableField<?>> fields = list(scanResult.getFields().with(Indexed.class));
+        assertEquals(1, fields.size());
+        assertSame(field, fields.get(0));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.lang.annotation.ElementType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.weaver.WeaveProcessor;
+import org.apache.commons.weaver.spi.Weaver;
+import org.apache.commons.weaver.test.WeaverTestBase;
+import org.apache.commons.weaver.test.beans.ClassfileAnnotations;
+import org.apache.commons.weaver.test.beans.ClassfileAnnotations.Marker;
+import org.junit.Test;
+
+public class WeavableExecutableTest extends WeaverTestBase {
+
+    private static WeavableMethod<?> method(final ScanResult scanResult, final Class<?>... parameterTypes)
+        throws NoSuchMethodException {
+        return scanResult.getWeavable(ClassfileAnnotations.class.getMethod("method", parameterTypes));
+    }
+
+    private static WeavableMethod<?> method() throws NoSuchMethodException {
+        return new ScanResult()
+            .getWeavable(ClassfileAnnotations.class.getMethod("method", String.class, String.class));
+    }
+
+    @Test
+    public void testGetWeavableByEqualTarget() throws NoSuchMethodException {
+        final ScanResult scanResult = new ScanResult();
+        final WeavableMethod<?> method = method(scanResult, String.class, String.class);
+        assertSame(method, method(scanResult, String.class, String.class));
+        final WeavableConstructor<?> ctor =
+            scanResult.getWeavable(ClassfileAnnotations.class.getConstructor(String.class, int.class));
+        assertSame(ctor, scanResult.getWeavable(ClassfileAnnotations.class.getConstructor(String.class, int.class)));
+    }
+
+    @Test
+    public void testExecutablesInDeclaredOrder() throws NoSuchMethodException {
+        final ScanResult scanResult = new ScanResult();
+        final WeavableMethod<?> strings = method(scanResult, String.class, String.class);
+        final WeavableMethod<?> integer = method(scanResult, int.class);
+        final WeavableConstructor<?> overloaded =
+            scanResult.getWeavable(ClassfileAnnotations.class.getConstructor(String.class, int.class));
+        final WeavableConstructor<?> ctor =
+            scanResult.getWeavable(ClassfileAnnotations.class.getConstructor(String.class));
+
+        final WeavableClass<?> type = strings.getParent();
+        final List<WeavableMethod<?>> methods = new ArrayList<>();
+        type.getMethods().forEach(methods::add);
+        assertEquals(Arrays.asList(integer, strings), methods);
+        final List<WeavableConstructor<?>> ctors = new ArrayList<>();
+        type.getConstructors().forEach(ctors::add);
+        assertEquals(Arrays.asList(ctor, overloaded), ctors);
+    }
+
+    @Test
+    public void testParameterCount() throws NoSuchMethodException {
+        final WeavableMethod<?> method = method();
+        assertEquals(2, method.getParameterCount());
+        assertEquals(2, ((List<?>) method.getParameters()).size());
+    }
+
+    @Test
+    public void testGetWeavableParameter() throws NoSuchMethodException {
+        final WeavableMethod<?> method = method();
+        final WeavableMethodParameter<?> second = method.getWeavableParameter(1);
+        assertEquals(Integer.valueOf(1), second.getTarget());
+        assertSame(second, method.getWeavableParameter(1));
+        assertSame(method, second.getParent());
+        try {
+            method.getWeavableParameter(2);
+            fail();
+        } catch (final IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testGetParameters() throws NoSuchMethodException {
+        final WeavableMethod<?> method = method();
+        final Iterable<? extends WeavableMethodParameter<?>> parameters = method.getParameters();
+
+        final List<WeavableMethodParameter<?>> all = new ArrayList<>();
+        parameters.forEach(all::add);
+        assertEquals(2, all.size());
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals(Integer.valueOf(i), all.get(i).getTarget());
+            assertSame(method.getWeavableParameter(i), all.get(i));
+        }
+    }
+
+    @Test
+    public void testParametersCreatedOnAnnotation() throws Exception {
+        addClassForScanning(ClassfileAnnotations.class);
+        final Method target = ClassfileAnnotations.class.getMethod("method", String.class, String.class);
+
+        final List<ScanResult> scanned = new ArrayList<>();
+        final Weaver weaver = (env, scanner) -> {
+            scanned.add(scanner.scan(new ScanRequest().add(WeaveInterest.of(Marker.class, ElementType.PARAMETER))));
+            return false;
+        };
+        new WeaveProcessor(getClassPathEntries(), getTargetFolder(), new Properties(),
+            Collections.singletonList(weaver)).weave();
+
+        final WeavableMethod<?> method = scanned.get(0).getWeavable(target);
+        final List<WeavableMethodParameter<?>> annotated = new ArrayList<>();
+        scanned.get(0).getMethodParameters().with(Marker.class).forEach(parameter -> {
+            if (parameter.getParent() == method) {
+                annotated.add(parameter);
+            }
+        });
+        assertEquals(1, annotated.size());
+        assertSame(method.getWeavableParameter(1), annotated.get(0));
+        assertNull(method.getWeavableParameter(0).getAnnotation(Marker.class));
+        assertNotNull(method.getWeavableParameter(1).getAnnotation(Marker.class));
+        assertEquals("method parameter", method.getWeavableParameter(1).getAnnotation(Marker.class).value());
+    }
+}
@@ -18,13 +18,49 @@
  */
 package org.apache.commons.weaver.test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.ElementType;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
+import org.apache.commons.weaver.model.ScanRequest;
+import org.apache.commons.weaver.model.Scanner;
+import org.apache.commons.weaver.model.WeavableClass;
+import org.apache.commons.weaver.model.WeaveEnvironment;
+import org.apache.commons.weaver.model.WeaveInterest;
+import org.apache.commons.weaver.spi.ClassfileWeaver;
+import org.apache.commons.weaver.spi.WeaveListener;
+import org.apache.commons.weaver.spi.Weaver;
+import org.apache.commons.weaver.test.beans.TestAnnotation;
 import org.apache.commons.weaver.test.beans.TestBeanWithClassAnnotation;
 import org.apache.commons.weaver.test.beans.TestBeanWithMethodAnnotation;
 import org.apache.commons.weaver.test.weaver.TestWeaver;
+import org.apache.commons.weaver.Consumes;
+import org.apache.commons.weaver.WeaveMetrics;
 import org.apache.commons.weaver.WeaveProcessor;
+import org.apache.xbean.asm6.ClassReader;
+import org.apache.xbean.asm6.ClassVisitor;
+import org.apache.xbean.asm6.ClassWriter;
+import org.apache.xbean.asm6.FieldVisitor;
+import org.apache.xbean.asm6.Opcodes;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -34,6 +70,92 @@ import org.junit.Test;
  */
 public class WeaveProcessorTest extends WeaverTestBase {
 
+    /**
+     * {@link ClassfileWeaver} adding a field to each of its target classes.
+     */
+    private static class AddField implements ClassfileWeaver {
+        final String field;
+        final List<Class<?>> targets;
+        final List<String> seen = Collections.synchronizedList(new ArrayList<>());
+
+        AddField(final String field, final Class<?>... targets) {
+            this.field = field;
+            this.targets = Arrays.asList(targets);
+        }
+
+        @Override
+        public boolean process(final WeaveEnvironment environment, final Scanner scanner) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<String, UnaryOperator<byte[]>> getClassfileStages(final WeaveEnvironment environment,
+            final Scanner scanner) {
+            final Map<String, UnaryOperator<byte[]>> result = new LinkedHashMap<>();
+            targets.forEach(target -> result.put(target.getName(), this::addField));
+            return result;
+        }
+
+        byte[] addField(final byte[] bytecode) {
+            final ClassWriter writer = new ClassWriter(0);
+            new ClassReader(bytecode).accept(new ClassVisitor(Opcodes.ASM6, writer) {
+
+                @Override
+                public FieldVisitor visitField(final int access, final String name, final String descriptor,
+                    final String signature, final Object value) {
+                    seen.add(name);
+                    return super.visitField(access, name, descriptor, signature, value);
+                }
+
+                @Override
+                public void visitEnd() {
+                    super.visitField(Opcodes.ACC_PRIVATE, field, "I", null, null).visitEnd();
+                    super.visitEnd();
+                }
+            }, 0);
+            return writer.toByteArray();
+        }
+    }
+
+    /**
+     * {@link Weaver} inspecting the fields of {@link TestBeanWithClassAnnotation} as staged by {@link AddField}.
+     */
+    @Consumes(AddField.class)
+    private class InspectStaged implements Weaver {
+        final List<String> staged = new ArrayList<>();
+
+        @Override
+        public boolean process(final WeaveEnvironment environment, final Scanner scanner) {
+            try {
+                // the target directory is untouched:
+                Assert.assertEquals(Collections.emptyList(), addedFields(TestBeanWithClassAnnotation.class));
+
+                // whereas reads see staged content:
+                final AddField check = new AddField("check");
+                try (InputStream bytecode =
+                    environment.getClassfile(TestBeanWithClassAnnotation.class).getInputStream()) {
+                    check.addField(readFully(bytecode));
+                }
+                staged.addAll(check.seen);
+            } catch (final IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * {@link Weaver} failing after {@link AddField}.
+     */
+    @Consumes(AddField.class)
+    private static class Fail implements Weaver {
+
+        @Override
+        public boolean process(final WeaveEnvironment environment, final Scanner scanner) {
+            throw new IllegalStateException();
+        }
+    }
+
     @Test
     public void testWeaveVisiting() throws Exception {
         addClassForScanning(TestBeanWithMethodAnnotation.class);
@@ -62,4 +184,395 @@ public class WeaveProcessorTest extends WeaverTestBase {
         Assert.assertTrue(TestWeaver.subclasses.containsAll(Arrays.<Class<?>> asList(
             TestBeanWithClassAnnotation.class, TestBeanWithMethodAnnotation.class)));
     }
+
+    /**
+     * {@link Weaver} writing a resource once all parties to a {@link CountDownLatch} are processing.
+     */
+    private static class WriteResource implements Weaver {
+        final String resourceName;
+        final CountDownLatch latch;
+        boolean concurrent;
+
+        WriteResource(final String resourceName, final CountDownLatch latch) {
+            this.resourceName = resourceName;
+            this.latch = latch;
+        }
+
+        @Override
+        public boolean process(final WeaveEnvironment environment, final Scanner scanner) {
+            latch.countDown();
+            try (OutputStream out = environment.getResource(resourceName).getOutputStream()) {
+                concurrent = latch.await(10, TimeUnit.SECONDS);
+                out.write(0);
+            } catch (final IOException e) {
+                throw new IllegalStateException(e);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return true;
+        }
+    }
+
+    private static class WriteFirst extends WriteResource {
+
+        WriteFirst(final String resourceName, final CountDownLatch latch) {
+            super(resourceName, latch);
+        }
+    }
+
+    private static class WriteSecond extends WriteResource {
+
+        WriteSecond(final String resourceName, final CountDownLatch latch) {
+            super(resourceName, latch);
+        }
+    }
+
+    @Test
+    public void testConcurrentWeavers() throws Exception {
+        addClassForScanning(TestBeanWithClassAnnotation.class);
+
+        final CountDownLatch latch = new CountDownLatch(2);
+        final WriteResource first = new WriteFirst("first.txt", latch);
+        final WriteResource second = new WriteSecond("second.txt", latch);
+        final Properties config = new Properties();
+        config.setProperty(WeaveProcessor.CONFIG_WEAVER_PARALLELISM, "2");
+        new WeaveProcessor(getClassPathEntries(), getTargetFolder(), config, Arrays.asList(first, second)).weave();
+
+        Assert.assertTrue(first.concurrent);
+        Assert.assertTrue(second.concurrent);
+        Assert.assertTrue(new File(getTargetFolder(), "first.txt").isFile());
+        Assert.assertTrue(new File(getTargetFolder(), "second.txt").isFile());
+    }
+
+    @Test
+    public void testConcurrentWeaversConflict() throws Exception {
+        addClassForScanning(TestBeanWithClassAnnotation.class);
+
+        final CountDownLatch latch = new CountDownLatch(2);
+        final Properties config = new Properties();
+        config.setProperty(WeaveProcessor.CONFIG_WEAVER_PARALLELISM, "2");
+        try {
+            new WeaveProcessor(getClassPathEntries(), getTargetFolder(), config,
+                Arrays.asList(new WriteFirst("same.txt", latch), new WriteSecond("same.txt", latch))).weave();
+            Assert.fail();
+        } catch (final IllegalStateException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("both modified same.txt"));
+        }
+    }
+
+    /**
+     * {@link Weaver} rewriting a classfile, pausing midway until a concurrent {@link ReadClassfile} has read it.
+     */
+    private static class RewriteClassfile implements Weaver {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch read = new CountDownLatch(1);
+
+        @Override
+        public boolean process(final WeaveEnvironment environment, final Scanner scanner) {
+            try {
+                final byte[] bytecode;
+                try (InputStream in = environment.getClassfile(TestBeanWithClassAnnotation.class).getInputStream()) {
+                    bytecode = readFully(in);
+                }
+                try (OutputStream out = environment.getClassfile(TestBeanWithClassAnnotation.class).getOutputStream()) {
+                    out.write(bytecode, 0, bytecode.length / 2);
+                    out.flush();
+                    writing.countDown();
+                    Assert.assertTrue(read.await(10, TimeUnit.SECONDS));
+                    out.write(bytecode, bytecode.length / 2, bytecode.length - bytecode.length / 2);
+                }
+            } catch (final IOException e) {
+                throw new IllegalStateException(e);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * {@link Weaver} reading and scanning a classfile while a concurrent {@link RewriteClassfile} is writing it.
+     */
+    private static class ReadClassfile implements Weaver {
+        final RewriteClassfile writer;
+        byte[] bytecode;
+        List<Class<?>> scanned = new ArrayList<>();
+
+        ReadClassfile(final RewriteClassfile writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public boolean process(final WeaveEnvironment environment, final Scanner scanner) {
+            try {
+                Assert.assertTrue(writer.writing.await(10, TimeUnit.SECONDS));
+                try (InputStream in = environment.getClassfile(TestBeanWithClassAnnotation.class).getInputStream()) {
+                    bytecode = readFully(in);
+                }
+                scanner.scan(new ScanRequest().add(WeaveInterest.of(TestAnnotation.class, ElementType.TYPE)))
+                    .getClasses().forEach(cls -> scanned.add(cls.getTarget()));
+            } catch (final IOException e) {
+                throw new IllegalStateException(e);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                writer.read.countDown();
+            }
+            return false;
+        }
+    }
+
+    @Test
+    public void testConcurrentReadDuringWrite() throws Exception {
+        addClassForScanning(TestBeanWithClassAnnotation.class);
+        final byte[] original = Files.readAllBytes(new File(getTargetFolder(),
+            TestBeanWithClassAnnotation.class.getName().replace('.', '/') + ".class").toPath());
+
+        final RewriteClassfile writer = new RewriteClassfile();
+        final ReadClassfile reader = new ReadClassfile(writer);
+        final Properties config = new Properties();
+        config.setProperty(WeaveProcessor.CONFIG_WEAVER_PARALLELISM, "2");
+        new WeaveProcessor(getClassPathEntries(), getTargetFolder(), config, Arrays.asList(writer, reader)).weave();
+
+        // the reader never sees a partially written classfile:
+        Assert.assertArrayEquals(original, reader.bytecode);
+        Assert.assertEquals(Collections.singletonList(TestBeanWithClassAnnotation.class), reader.scanned);
+    }
+
+    @Test
+    public void testFusedWeave() throws Exception {
+        addClassForScanning(TestBeanWithClassAnnotation.class);
+
+        final AddField first = new AddField("first", TestBeanWithClassAnnotation.class);
+        final AddField second = new AddField("second", TestBeanWithClassAnnotation.class);
+        new WeaveProcessor(getClassPathEntries(), getTargetFolder(), new Properties(), Arrays.asList(first, second))
+            .weave();
+
+        // second stage receives the output of the first:
+        Assert.assertTrue(second.seen.contains("first"));
+
+        Assert.assertEquals(Arrays.asList("first", "second"), addedFields(TestBeanWithClassAnnotation.class));
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        addClassForScanning(TestBeanWithClassAnnotation.class);
+
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final AddField addField = new AddField("first", TestBeanWithClassAnnotation.class);
+        try (WeaveProcessor processor = new WeaveProcessor(getClassPathEntries(), getTargetFolder(), new Properties(),
+            Collections.singletonList(addField))) {
+            processor.addListener(new WeaveListener() {
+
+                @Override
+                public void phaseCompleted(final String phase, final long nanos) {
+                    events.add(phase);
+                }
+
+                @Override
+                public void classWoven(final String className, final long nanos) {
+                    events.add(className);
+                }
+
+                @Override
+                public void completed(final WeaveMetrics metrics) {
+                    Assert.assertSame(processor.getMetrics(), metrics);
+                    events.add("completed");
+                }
+            });
+            processor.weave();
+
+            Assert.assertEquals(Arrays.asList(TestBeanWithClassAnnotation.class.getName(),
+                AddField.class.getName(), "completed"), events);
+
+            final WeaveMetrics metrics = processor.getMetrics();
+            Assert.assertEquals(Arrays.asList(WeaveMetrics.PHASE_CLASS_LOADER, WeaveMetrics.PHASE_FINDER,
+                AddField.class.getName()), new ArrayList<>(metrics.getPhaseNanos().keySet()));
+            Assert.assertEquals(Collections.singleton(TestBeanWithClassAnnotation.class.getName()),
+                metrics.getClassNanos().keySet());
+            Assert.assertTrue(metrics.getClassesScanned() > 0);
+            Assert.assertTrue(metrics.getBytesRead() > 0);
+            Assert.assertTrue(metrics.getBytesWritten() > metrics.getBytesRead());
+            Assert.assertTrue(metrics.getSummary().contains("1 woven"));
+            Assert.assertTrue(metrics.toJson().contains(
+                String.format("\"classNanos\":{\"%s\":", TestBeanWithClassAnnotation.class.getName())));
+        }
+    }
+
+    @Test
+    public void testParallelWeave() throws Exception {
+        addClassForScanning(TestBeanWithClassAnnotation.class);
+        addClassForScanning(TestBeanWithMethodAnnotation.class);
+
+        final Properties config = new Properties();
+        config.setProperty(WeaveProcessor.CONFIG_WEAVE_PARALLELISM, "2");
+        new WeaveProcessor(getClassPathEntries(), getTargetFolder(), config,
+            Arrays.asList(new AddField("first", TestBeanWithClassAnnotation.class, TestBeanWithMethodAnnotation.class),
+                new AddField("second", TestBeanWithClassAnnotation.class, TestBeanWithMethodAnnotation.class)))
+            .weave();
+
+        Assert.assertEquals(Arrays.asList("first", "second"), addedFields(TestBeanWithClassAnnotation.class));
+        Assert.assertEquals(Arrays.asList("first", "second"), addedFields(TestBeanWithMethodAnnotation.class));
+    }
+
+    @Test
+    public void testParallelWeaveFailures() throws Exception {
+        addClassForScanning(TestBeanWithClassAnnotation.class);
+        addClassForScanning(TestBeanWithMethodAnnotation.class);
+
+        final AddField failing = new AddField("first", TestBeanWithMethodAnnotation.class,
+            TestBeanWithClassAnnotation.class) {
+
+            @Override
+            byte[] addField(final byte[] bytecode) {
+                throw new IllegalArgumentException();
+            }
+        };
+        final Properties config = new Properties();
+        config.setProperty(WeaveProcessor.CONFIG_WEAVE_PARALLELISM, "2");
+        try {
+            new WeaveProcessor(getClassPathEntries(), getTargetFolder(), config, Arrays.<Weaver> asList(failing))
+                .weave();
+            Assert.fail();
+        } catch (final IllegalStateException e) {
+            // every class is attempted, and failures are reported in class name order:
+            Assert.assertEquals(String.format("Unable to weave 2 classes: [%s, %s]",
+                TestBeanWithClassAnnotation.class.getName(), TestBeanWithMethodAnnotation.class.getName()),
+                e.getMessage());
+            Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+            Assert.assertEquals(1, e.getSuppressed().length);
+        }
+    }
+
+    @Test
+    public void testStagedWeave() throws Exception {
+        addClassForScanning(TestBeanWithClassAnnotation.class);
+
+        final Properties config = new Properties();
+        config.setProperty(WeaveProcessor.CONFIG_STAGING, "true");
+        final InspectStaged inspect = new InspectStaged();
+        new WeaveProcessor(getClassPathEntries(), getTargetFolder(), config,
+            Arrays.asList(new AddField("first", TestBeanWithClassAnnotation.class), inspect)).weave();
+
+        Assert.assertTrue(inspect.staged.contains("first"));
+        Assert.assertEquals(Arrays.asList("first"), addedFields(TestBeanWithClassAnnotation.class));
+
+        try {
+            new WeaveProcessor(getClassPathEntries(), getTargetFolder(), config,
+                Arrays.asList(new AddField("second", TestBeanWithClassAnnotation.class), new Fail())).weave();
+            Assert.fail();
+        } catch (final IllegalStateException e) {
+            // a failed run leaves the target directory as it was:
+            Assert.assertEquals(Arrays.asList("first"), addedFields(TestBeanWithClassAnnotation.class));
+        }
+    }
+
+    @Test
+    public void testArchiveWeave() throws Exception {
+        addClassForScanning(TestBeanWithClassAnnotation.class);
+        addClassForScanning(TestBeanWithMethodAnnotation.class);
+
+        final String woven = TestBeanWithClassAnnotation.class.getName().replace('.', '/') + ".class";
+        final String unchanged = TestBeanWithMethodAnnotation.class.getName().replace('.', '/') + ".class";
+        final File jar = new File(temporaryFolder.getRoot(), "target.jar");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            for (final String name : Arrays.asList(woven, unchanged)) {
+                out.putNextEntry(new ZipEntry(name));
+                out.write(Files.readAllBytes(new File(getTargetFolder(), name).toPath()));
+                out.closeEntry();
+            }
+        }
+        final ZipEntry original;
+        try (ZipFile zip = new ZipFile(jar)) {
+            original = zip.getEntry(unchanged);
+        }
+        new WeaveProcessor(getClassPathEntries(), jar, new Properties(),
+            Arrays.asList(new AddField("first", TestBeanWithClassAnnotation.class))).weave();
+
+        try (ZipFile zip = new ZipFile(jar)) {
+            final AddField check = new AddField("check");
+            try (InputStream bytecode = zip.getInputStream(zip.getEntry(woven))) {
+                check.addField(readFully(bytecode));
+            }
+            Assert.assertTrue(check.seen.contains("first"));
+
+            final ZipEntry entry = zip.getEntry(unchanged);
+            Assert.assertEquals(original.getCrc(), entry.getCrc());
+            Assert.assertEquals(original.getCompressedSize(), entry.getCompressedSize());
+        }
+    }
+
+    private static byte[] readFully(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Get the names of the fields added by weaving to the specified class.
+     * @param type woven
+     * @return {@link List} of {@link String}
+     * @throws IOException on error
+     */
+    private List<String> addedFields(final Class<?> type) throws IOException {
+        final AddField check = new AddField("check");
+        check.addField(
+            Files.readAllBytes(new File(getTargetFolder(), type.getName().replace('.', '/') + ".class").toPath()));
+        final List<String> result = new ArrayList<>(check.seen);
+        for (final Field field : type.getDeclaredFields()) {
+            result.remove(field.getName());
+        }
+        return result;
+    }
+
+    @Test
+    public void testIncrementalWeave() throws Exception {
+        addClassForScanning(TestBeanWithMethodAnnotation.class);
+        addClassForScanning(TestBeanWithClassAnnotation.class);
+
+        final Properties config = new Properties();
+        config.setProperty(WeaveProcessor.CONFIG_MANIFEST, new File(temporaryFolder.getRoot(), "weave.mf").getPath());
+
+        final List<String> woven = new ArrayList<>();
+        final String generated = TestBeanWithClassAnnotation.class.getName().replace('.', '/') + "$Generated.class";
+
+        // weaves @TestAnnotation types, generating a nested class and depending upon TestBeanWithMethodAnnotation:
+        final Weaver weaver = (env, scanner) -> {
+            for (final WeavableClass<?> type : scanner
+                .scan(new ScanRequest().add(WeaveInterest.of(TestAnnotation.class, ElementType.TYPE))).getClasses()) {
+                Assert.assertFalse(new File(getTargetFolder(), generated).exists());
+                try (OutputStream out = env.getResource(generated).getOutputStream()) {
+                    out.write(0);
+                } catch (final IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                env.addDependency(type.getTarget(), TestBeanWithMethodAnnotation.class);
+                woven.add(type.getTarget().getName());
+            }
+            return !woven.isEmpty();
+        };
+        final List<Weaver> providers = Collections.singletonList(weaver);
+
+        new WeaveProcessor(getClassPathEntries(), getTargetFolder(), config, providers).weave();
+        Assert.assertEquals(Collections.singletonList(TestBeanWithClassAnnotation.class.getName()), woven);
+
+        woven.clear();
+        new WeaveProcessor(getClassPathEntries(), getTargetFolder(), config, providers).weave();
+        Assert.assertEquals(Collections.emptyList(), woven);
+
+        // change the dependency:
+        final File dependency = new File(getTargetFolder(),
+            TestBeanWithMethodAnnotation.class.getName().replace('.', '/') + ".class");
+        Assert.assertTrue(dependency.setLastModified(dependency.lastModified() + 10000L));
+
+        new WeaveProcessor(getClassPathEntries(), getTargetFolder(), config, providers).weave();
+        Assert.assertEquals(Collections.singletonList(TestBeanWithClassAnnotation.class.getName()), woven);
+        Assert.assertTrue(new File(getTargetFolder(), generated).exists());
+    }
 }
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.test.beans;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Test bean bearing classfile annotations on each kind of element.
+ */
+@ClassfileAnnotations.Marker("type")
+public class ClassfileAnnotations {
+    @Target({ ElementType.TYPE, ElementType.FIELD, ElementType.CONSTRUCTOR, ElementType.METHOD,
+        ElementType.PARAMETER })
+    @Retention(RetentionPolicy.CLASS)
+    public @interface Marker {
+        String value();
+    }
+
+    @Marker("field")
+    public String field;
+
+    @Marker("constructor")
+    public ClassfileAnnotations(@Marker("constructor parameter") final String field) {
+        this.field = field;
+    }
+
+    public ClassfileAnnotations(final String field, @Marker("overloaded constructor parameter") final int ignored) {
+        this(field);
+    }
+
+    @Marker("method")
+    public void method(final String first, @Marker("method parameter") final String second) {
+    }
+
+    public void method(@Marker("overloaded method parameter") final int first) {
+    }
+}
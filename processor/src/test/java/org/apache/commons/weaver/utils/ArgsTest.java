@@ -21,6 +21,8 @@ package org.apache.commons.weaver.utils;
 
 import static org.junit.Assert.*;
 
+import java.util.Map;
+
 import org.apache.commons.lang3.ArrayUtils;
 import org.junit.Test;
 
@@ -43,4 +45,13 @@ public class ArgsTest {
         assertTrue(Args.compare(new Class[] { String.class, String.class }, new Class[] { String.class, int.class}) > 0);
     }
 
+    @Test
+    public void testDescriptor() {
+        assertEquals("()V", Args.descriptor(void.class));
+        assertEquals("(ILjava/lang/String;)Z", Args.descriptor(boolean.class, int.class, String.class));
+        assertEquals("([J[[Ljava/lang/Object;)[B", Args.descriptor(byte[].class, long[].class, Object[][].class));
+        assertEquals("(CSFD)Ljava/util/Map$Entry;",
+            Args.descriptor(Map.Entry.class, char.class, short.class, float.class, double.class));
+    }
+
 }
@@ -18,10 +18,13 @@
  */
 package org.apache.commons.weaver.utils;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 
 import org.apache.commons.weaver.Consumes;
 import org.apache.commons.weaver.Produces;
@@ -92,4 +95,24 @@ public class ProvidersTest {
         assertThrows(IllegalStateException.class, () -> Providers.sort(Arrays.asList(y, z, monkeywrench)));
     }
 
+    @Test
+    public void testLevels() {
+        final List<List<FauxWeaveProvider>> levels = Providers.levels(Arrays.asList(c, y, b, z, a));
+        assertEquals(3, levels.size());
+        assertEquals(new HashSet<>(Arrays.asList(a, z)), new HashSet<>(levels.get(0)));
+        assertEquals(new HashSet<>(Arrays.asList(b, y)), new HashSet<>(levels.get(1)));
+        assertThat(levels.get(2), IsIterableContainingInOrder.contains(c));
+
+        // C, produced by B, is absent:
+        final List<List<FauxWeaveProvider>> partial = Providers.levels(Arrays.asList(b, a));
+        assertEquals(2, partial.size());
+        assertThat(partial.get(0), IsIterableContainingInOrder.contains(a));
+        assertThat(partial.get(1), IsIterableContainingInOrder.contains(b));
+    }
+
+    @Test
+    public void testCircularLevels() {
+        assertThrows(IllegalStateException.class, () -> Providers.levels(Arrays.asList(y, z, monkeywrench)));
+    }
+
 }
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.weaver.utils;
+
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * {@link WeaveEvent} tests.
+ */
+public class WeaveEventTest {
+
+    @Test
+    public void testNotRecording() {
+        Assume.assumeFalse(WeaveEvent.isEnabled());
+
+        final InputStream in = new ByteArrayInputStream(new byte[1]);
+        assertSame(in, WeaveEvent.reading("a.class", in));
+        final OutputStream out = new ByteArrayOutputStream();
+        assertSame(out, WeaveEvent.writing("a.class", out));
+
+        final WeaveEvent event = WeaveEvent.begin("test", null);
+        assertSame(event, event.setBytes(1));
+        event.close();
+        event.close();
+    }
+}